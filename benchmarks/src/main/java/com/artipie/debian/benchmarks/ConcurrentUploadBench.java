@@ -0,0 +1,212 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.benchmarks;
+
+import com.amihaiemil.eoyaml.Yaml;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.debian.Config;
+import com.artipie.debian.http.DebianSlice;
+import com.artipie.debian.misc.AccountingStorage;
+import com.artipie.http.Headers;
+import com.artipie.http.Slice;
+import com.artipie.http.auth.Authentication;
+import com.artipie.http.auth.Permissions;
+import com.artipie.http.rs.RsStatus;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Concurrent uploads benchmark: benchmark threads (8 by default, use JMH `-t` option to
+ * change) upload packages with unique names through {@link DebianSlice} to the shared storage.
+ * Throughput and latency percentiles (p50, p90, p99 and others) of the upload are reported.
+ * Packages are indexed before the response, concurrent uploads rewrite the same Packages
+ * and Release indexes one after another through the index writes of the repository, so
+ * the upload latency includes waiting for the other uploads' index writes. After the run
+ * every uploaded package is checked to be present in the final Packages.gz, the storage calls
+ * and bytes read per upload counted by {@link AccountingStorage} are printed, and the run
+ * fails if any package is missing. Packages are generated by {@link Dataset} in the benchmark
+ * thread on each call (control file of about 1 KiB is compressed), this is negligible
+ * comparing to the upload. The benchmark does not require `BENCH_DIR`.
+ * @since 0.9
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Threads(8)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ConcurrentUploadBench {
+
+    /**
+     * Repository name.
+     */
+    private static final String NAME = "bench";
+
+    /**
+     * Dataset of the uploaded packages.
+     */
+    private static final Dataset DATASET = new Dataset();
+
+    /**
+     * Packages index key.
+     */
+    private static final Key INDEX =
+        new Key.From("dists/bench/main/binary-amd64/Packages.gz");
+
+    /**
+     * Shared storage.
+     */
+    private AccountingStorage storage;
+
+    /**
+     * Debian slice.
+     */
+    private Slice slice;
+
+    /**
+     * Uploads counter for unique package names.
+     */
+    private AtomicInteger count;
+
+    /**
+     * Names of the uploaded packages.
+     */
+    private Queue<String> uploaded;
+
+    @Setup
+    public void setup() {
+        this.storage = new AccountingStorage(new InMemoryStorage());
+        this.slice = new DebianSlice(
+            this.storage, Permissions.FREE, Authentication.ANONYMOUS,
+            new Config.FromYaml(
+                ConcurrentUploadBench.NAME,
+                Yaml.createYamlMappingBuilder().add("Architectures", "amd64")
+                    .add("Components", "main").build(),
+                new InMemoryStorage()
+            ),
+            Optional.empty()
+        );
+        this.count = new AtomicInteger();
+        this.uploaded = new ConcurrentLinkedQueue<>();
+    }
+
+    @TearDown
+    public void verify() throws IOException {
+        final int uploads = Math.max(this.uploaded.size(), 1);
+        System.out.printf(
+            "%nStorage calls per upload: %.1f, bytes read per upload: %d%n",
+            (double) this.storage.calls() / uploads, this.storage.read() / uploads
+        );
+        final Set<String> indexed = this.indexed();
+        final long missing = this.uploaded.stream().filter(name -> !indexed.contains(name))
+            .count();
+        System.out.printf(
+            "%nUploaded packages: %d, missing in Packages index: %d%n",
+            this.uploaded.size(), missing
+        );
+        if (missing > 0) {
+            throw new IllegalStateException(
+                String.format(
+                    "%d of %d uploaded packages are missing in Packages index",
+                    missing, this.uploaded.size()
+                )
+            );
+        }
+    }
+
+    @Benchmark
+    public RsStatus upload() {
+        final int num = this.count.incrementAndGet();
+        final String name = ConcurrentUploadBench.DATASET.name(num);
+        final byte[] deb = ConcurrentUploadBench.DATASET.deb(num, "gz");
+        final AtomicReference<RsStatus> status = new AtomicReference<>();
+        this.slice.response(
+            String.format("PUT /%s HTTP/1.1", ConcurrentUploadBench.DATASET.filename(num)),
+            Headers.EMPTY,
+            new Content.From(deb)
+        ).send(
+            (rsstatus, headers, body) -> {
+                status.set(rsstatus);
+                return CompletableFuture.allOf();
+            }
+        ).toCompletableFuture().join();
+        if (status.get() != RsStatus.OK) {
+            throw new IllegalStateException(
+                String.format("Upload of %s failed with status %s", name, status.get())
+            );
+        }
+        this.uploaded.add(name);
+        return status.get();
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(ConcurrentUploadBench.class.getSimpleName())
+                .forks(1)
+                .build()
+        ).run();
+    }
+
+    /**
+     * Names of the packages from the Packages index.
+     * @return Package names
+     * @throws IOException On error
+     */
+    private Set<String> indexed() throws IOException {
+        final byte[] bytes = this.storage.value(ConcurrentUploadBench.INDEX)
+            .thenCompose(content -> new PublisherAs(content).bytes()).join();
+        final Set<String> res = new HashSet<>();
+        try (BufferedReader rdr = new BufferedReader(
+            new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(bytes)), StandardCharsets.UTF_8
+            )
+        )) {
+            rdr.lines().filter(line -> line.startsWith("Package: "))
+                .map(line -> line.substring("Package: ".length()).trim())
+                .forEach(res::add);
+        }
+        return res;
+    }
+}
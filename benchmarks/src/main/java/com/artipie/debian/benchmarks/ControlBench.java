@@ -0,0 +1,102 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.benchmarks;
+
+import com.artipie.debian.metadata.Control;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for {@link Control.FromBinary}: reads control file from debian packages with
+ * `control.tar.gz` and `control.tar.xz` members, with typical (about 1 KiB) and huge
+ * (about 1 MiB) control files. Packages are generated by {@link Dataset} on setup, so this
+ * benchmark does not require `BENCH_DIR`. Run with {@link #main(String...)} to get allocation
+ * rate from {@link GCProfiler} along with the throughput.
+ * @since 0.9
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class ControlBench {
+
+    /**
+     * Compression of the `control` member.
+     */
+    @Param({"gz", "xz"})
+    private String compression;
+
+    /**
+     * Control file size: `small` is about 1 KiB, `huge` is about 1 MiB.
+     */
+    @Param({"small", "huge"})
+    private String size;
+
+    /**
+     * Debian package bytes.
+     */
+    private byte[] deb;
+
+    @Setup
+    public void setup() {
+        this.deb = new Dataset(1L, 1, ControlBench.bytes(this.size), 0)
+            .deb(0, this.compression);
+    }
+
+    @Benchmark
+    public void asString(final Blackhole bhl) {
+        bhl.consume(new Control.FromBinary(this.deb).asString());
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(ControlBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build()
+        ).run();
+    }
+
+    /**
+     * Control file size in bytes by the size name.
+     * @param size Size name: `small` or `huge`
+     * @return Bytes
+     */
+    static int bytes(final String size) {
+        final int res;
+        if ("small".equals(size)) {
+            res = 1024;
+        } else if ("huge".equals(size)) {
+            res = 1024 * 1024;
+        } else {
+            throw new IllegalArgumentException(String.format("Unsupported size %s", size));
+        }
+        return res;
+    }
+}
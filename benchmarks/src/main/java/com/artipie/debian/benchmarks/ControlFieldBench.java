@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.benchmarks;
+
+import com.artipie.debian.metadata.ControlField;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for {@link ControlField} implementations over the Packages index stanza: control
+ * file fields followed by the fields added on indexing. `Package`, `Version` and
+ * `Architecture` fields are at the beginning of the stanza, `Filename` is after the
+ * description. Stanzas are generated by {@link Dataset} on setup, so this benchmark does not
+ * require `BENCH_DIR`.
+ * Run with {@link #main(String...)} to get allocation rate from {@link GCProfiler} along with
+ * the throughput.
+ * @since 0.9
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class ControlFieldBench {
+
+    /**
+     * Control file size: `small` is about 1 KiB, `huge` is about 1 MiB.
+     */
+    @Param({"small", "huge"})
+    private String size;
+
+    /**
+     * Packages index stanza.
+     */
+    private String stanza;
+
+    @Setup
+    public void setup() {
+        this.stanza = new Dataset(1L, 1, ControlBench.bytes(this.size), 1024 * 1024)
+            .item(0);
+    }
+
+    @Benchmark
+    public void pckg(final Blackhole bhl) {
+        bhl.consume(new ControlField.Package().value(this.stanza));
+    }
+
+    @Benchmark
+    public void version(final Blackhole bhl) {
+        bhl.consume(new ControlField.Version().value(this.stanza));
+    }
+
+    @Benchmark
+    public void architecture(final Blackhole bhl) {
+        bhl.consume(new ControlField.Architecture().value(this.stanza));
+    }
+
+    @Benchmark
+    public void filename(final Blackhole bhl) {
+        bhl.consume(new ControlField.Filename().value(this.stanza));
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(ControlFieldBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.compress.archivers.ar.ArArchiveEntry;
+import org.apache.commons.compress.archivers.ar.ArArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.xz.XZCompressorOutputStream;
+
+/**
+ * Synthetic benchmark dataset: deterministically generates valid debian packages (`ar` archive
+ * with `debian-binary`, `control.tar.gz` or `control.tar.xz` and `data.tar.gz` members) and
+ * Packages.gz indexes, so benchmarks results are reproducible without collected files.
+ * <p>
+ * Packages are numbered: package number `num` has name `package-{num / versions}` and version
+ * `1.{num % versions}`, so each name has `versions` versions. Control file description is
+ * padded up to `description` bytes, package data member holds `data` random bytes. Same
+ * seed and parameters always give the same bytes.
+ * @since 0.9
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+public final class Dataset {
+
+    /**
+     * Random seed.
+     */
+    private final long seed;
+
+    /**
+     * Number of versions of each package name.
+     */
+    private final int versions;
+
+    /**
+     * Control file size in bytes, description is padded to reach it.
+     */
+    private final int description;
+
+    /**
+     * Size of the package data in bytes.
+     */
+    private final int data;
+
+    /**
+     * Default dataset: one version of each package, control files of about 1 KiB and
+     * 1 KiB of package data.
+     */
+    public Dataset() {
+        this(1L, 1, 1024, 1024);
+    }
+
+    /**
+     * Ctor.
+     * @param seed Random seed
+     * @param versions Number of versions of each package name
+     * @param description Control file size in bytes, description is padded to reach it
+     * @param data Size of the package data in bytes
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public Dataset(final long seed, final int versions, final int description,
+        final int data) {
+        this.seed = seed;
+        this.versions = versions;
+        this.description = description;
+        this.data = data;
+    }
+
+    /**
+     * Package name.
+     * @param num Package number
+     * @return Name
+     */
+    public String name(final int num) {
+        return String.format("package-%d", num / this.versions);
+    }
+
+    /**
+     * Package version.
+     * @param num Package number
+     * @return Version
+     */
+    public String version(final int num) {
+        return String.format("1.%d", num % this.versions);
+    }
+
+    /**
+     * Package file name in the pool.
+     * @param num Package number
+     * @return File name
+     */
+    public String filename(final int num) {
+        return String.format(
+            "pool/main/%s_%s_amd64.deb", this.name(num), this.version(num)
+        );
+    }
+
+    /**
+     * Control file of the package: common fields followed by the multi-line description.
+     * @param num Package number
+     * @return Control file
+     */
+    public String control(final int num) {
+        final Random random = this.random(num);
+        final StringBuilder res = new StringBuilder(this.description + 128).append(
+            String.join(
+                "\n",
+                String.format("Package: %s", this.name(num)),
+                String.format("Version: %s", this.version(num)),
+                "Architecture: amd64",
+                "Maintainer: Artipie Bench <bench@artipie.com>",
+                String.format("Installed-Size: %d", this.data / 1024 + 1),
+                "Depends: libc6 (>= 2.14), libssl1.1 (>= 1.1.0), zlib1g (>= 1:1.1.4)",
+                "Section: utils",
+                "Priority: optional",
+                "Homepage: https://www.artipie.com",
+                "Description: synthetic package for benchmarks\n"
+            )
+        );
+        while (res.length() < this.description) {
+            res.append(
+                String.format(" line %016x of the long package description\n", random.nextLong())
+            );
+        }
+        return res.toString();
+    }
+
+    /**
+     * Packages index item of the package: control file with `Filename`, `Size` and checksums
+     * fields. Checksums are random, they do not match the package bytes.
+     * @param num Package number
+     * @return Packages index item without trailing line break
+     */
+    public String item(final int num) {
+        final Random random = this.random(-num - 1);
+        return String.join(
+            "\n",
+            this.control(num).trim(),
+            String.format("Filename: %s", this.filename(num)),
+            String.format("Size: %d", this.data),
+            String.format("MD5sum: %s", Dataset.hex(random, 16)),
+            String.format("SHA1: %s", Dataset.hex(random, 20)),
+            String.format("SHA256: %s", Dataset.hex(random, 32))
+        );
+    }
+
+    /**
+     * Debian package.
+     * @param num Package number
+     * @param compression Compression of the `control` member: `gz` or `xz`
+     * @return Package bytes
+     */
+    public byte[] deb(final int num, final String compression) {
+        final byte[] payload = new byte[this.data];
+        this.random(num).nextBytes(payload);
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try (ArArchiveOutputStream arc = new ArArchiveOutputStream(res)) {
+            Dataset.member(arc, "debian-binary", "2.0\n".getBytes(StandardCharsets.US_ASCII));
+            Dataset.member(
+                arc, String.format("control.tar.%s", compression),
+                Dataset.tar(
+                    "./control", this.control(num).getBytes(StandardCharsets.UTF_8), compression
+                )
+            );
+            Dataset.member(
+                arc, "data.tar.gz",
+                Dataset.tar(String.format("./usr/share/%s/data", this.name(num)), payload, "gz")
+            );
+        } catch (final IOException err) {
+            throw new UncheckedIOException(err);
+        }
+        return res.toByteArray();
+    }
+
+    /**
+     * Packages.gz index. Items are packages from `first` to `first + count`, except the
+     * duplicated ones: with the probability `duplicates` the item is replaced with the item of
+     * the random package from zero to `count`, so indexes with different `first` numbers share
+     * the duplicated items, as indexes of the different repositories do. The same index can
+     * also contain an item several times.
+     * @param first Number of the first package
+     * @param count Number of the items
+     * @param duplicates Share of the duplicated items from zero to one
+     * @return Gzipped index bytes
+     */
+    public byte[] packages(final int first, final int count, final double duplicates) {
+        final Random random = this.random(first);
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(res)) {
+            for (int idx = 0; idx < count; idx = idx + 1) {
+                final int num;
+                if (random.nextDouble() < duplicates) {
+                    num = random.nextInt(count);
+                } else {
+                    num = first + idx;
+                }
+                gzip.write(this.item(num).getBytes(StandardCharsets.UTF_8));
+                gzip.write("\n\n".getBytes(StandardCharsets.US_ASCII));
+            }
+        } catch (final IOException err) {
+            throw new UncheckedIOException(err);
+        }
+        return res.toByteArray();
+    }
+
+    /**
+     * Random generator for the package number.
+     * @param num Package number
+     * @return Random generator
+     */
+    private Random random(final int num) {
+        return new Random(this.seed * 31 + num);
+    }
+
+    /**
+     * Random hex string.
+     * @param random Random generator
+     * @param bytes Number of bytes
+     * @return Hex string
+     */
+    private static String hex(final Random random, final int bytes) {
+        final StringBuilder res = new StringBuilder(bytes * 2);
+        for (int idx = 0; idx < bytes; idx = idx + 1) {
+            res.append(String.format("%02x", random.nextInt(256)));
+        }
+        return res.toString();
+    }
+
+    /**
+     * Compressed tar archive with one file.
+     * @param name File name
+     * @param bytes File content
+     * @param compression Compression: `gz` or `xz`
+     * @return Archive bytes
+     * @throws IOException On error
+     */
+    private static byte[] tar(final String name, final byte[] bytes, final String compression)
+        throws IOException {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try (OutputStream cmp = Dataset.compressed(res, compression);
+            TarArchiveOutputStream tar = new TarArchiveOutputStream(cmp)) {
+            final TarArchiveEntry entry = new TarArchiveEntry(name);
+            entry.setSize(bytes.length);
+            tar.putArchiveEntry(entry);
+            tar.write(bytes);
+            tar.closeArchiveEntry();
+        }
+        return res.toByteArray();
+    }
+
+    /**
+     * Compressing output stream.
+     * @param out Output stream
+     * @param compression Compression: `gz` or `xz`
+     * @return Compressing stream
+     * @throws IOException On error
+     */
+    private static OutputStream compressed(final OutputStream out, final String compression)
+        throws IOException {
+        final OutputStream res;
+        if ("gz".equals(compression)) {
+            res = new GzipCompressorOutputStream(out);
+        } else if ("xz".equals(compression)) {
+            res = new XZCompressorOutputStream(out);
+        } else {
+            throw new IllegalArgumentException(
+                String.format("Unsupported compression %s", compression)
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Writes ar archive member.
+     * @param arc Ar archive
+     * @param name Member name
+     * @param bytes Member content
+     * @throws IOException On error
+     */
+    private static void member(final ArArchiveOutputStream arc, final String name,
+        final byte[] bytes) throws IOException {
+        arc.putArchiveEntry(new ArArchiveEntry(name, bytes.length));
+        arc.write(bytes);
+        arc.closeArchiveEntry();
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.benchmarks;
+
+import com.artipie.debian.misc.GpgClearsign;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.Security;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.bcpg.BCPGOutputStream;
+import org.bouncycastle.bcpg.HashAlgorithmTags;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPPrivateKey;
+import org.bouncycastle.openpgp.PGPSecretKey;
+import org.bouncycastle.openpgp.PGPSecretKeyRingCollection;
+import org.bouncycastle.openpgp.PGPSignature;
+import org.bouncycastle.openpgp.PGPSignatureGenerator;
+import org.bouncycastle.openpgp.PGPUtil;
+import org.bouncycastle.openpgp.operator.jcajce.JcaKeyFingerprintCalculator;
+import org.bouncycastle.openpgp.operator.jcajce.JcaPGPContentSignerBuilder;
+import org.bouncycastle.openpgp.operator.jcajce.JcePBESecretKeyDecryptorBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for {@link GpgClearsign} throughput over Release indexes from 1 KB to 10 MB with
+ * RSA-2048 key. `signature` and `clearsign` benchmarks measure `Release.gpg` and `InRelease`
+ * generation as it is performed on each upload: the secret key is read and unlocked on each
+ * call. `unlock` benchmark measures reading and unlocking the key alone (it does not depend
+ * on the Release size), `reused` benchmark measures the detached signature with the key
+ * unlocked on setup, so it shows hashing and signing cost and how much reusing of the
+ * unlocked key saves. Keys and Release indexes are generated on setup, so this benchmark
+ * does not require `BENCH_DIR`.
+ * @since 0.9
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class GpgClearsignBench {
+
+    /**
+     * Release index size in kilobytes.
+     */
+    @Param({"1", "64", "1024", "10240"})
+    private int size;
+
+    /**
+     * Secret key ring bytes.
+     */
+    private byte[] key;
+
+    /**
+     * Release index bytes.
+     */
+    private byte[] release;
+
+    /**
+     * Secret key.
+     */
+    private PGPSecretKey secret;
+
+    /**
+     * Secret key unlocked on setup.
+     */
+    private PGPPrivateKey unlocked;
+
+    @Setup
+    public void setup() throws GeneralSecurityException, PGPException, IOException {
+        Security.addProvider(new BouncyCastleProvider());
+        this.key = SigningKeyBench.secretKey("RSA-2048");
+        this.release = SigningKeyBench.release(this.size * 1024);
+        this.secret = GpgClearsignBench.secret(this.key);
+        this.unlocked = GpgClearsignBench.unlock(this.secret);
+    }
+
+    @Benchmark
+    public void signature(final Blackhole bhl) {
+        bhl.consume(
+            new GpgClearsign(this.release).signature(this.key, SigningKeyBench.PASSWORD)
+        );
+    }
+
+    @Benchmark
+    public void clearsign(final Blackhole bhl) {
+        bhl.consume(
+            new GpgClearsign(this.release).signedContent(this.key, SigningKeyBench.PASSWORD)
+        );
+    }
+
+    @Benchmark
+    public void unlock(final Blackhole bhl) throws IOException, PGPException {
+        bhl.consume(GpgClearsignBench.unlock(GpgClearsignBench.secret(this.key)));
+    }
+
+    @Benchmark
+    public void reused(final Blackhole bhl) throws IOException, PGPException {
+        final PGPSignatureGenerator sgen = new PGPSignatureGenerator(
+            new JcaPGPContentSignerBuilder(
+                this.secret.getPublicKey().getAlgorithm(), HashAlgorithmTags.SHA256
+            ).setProvider("BC")
+        );
+        sgen.init(PGPSignature.CANONICAL_TEXT_DOCUMENT, this.unlocked);
+        sgen.update(this.release);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        sgen.generate().encode(new BCPGOutputStream(out));
+        bhl.consume(out.toByteArray());
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(GpgClearsignBench.class.getSimpleName())
+                .forks(1)
+                .build()
+        ).run();
+    }
+
+    /**
+     * Reads signing secret key from the key ring as {@link GpgClearsign} does.
+     * @param ring Secret key ring bytes
+     * @return Secret key
+     * @throws IOException On IO error
+     * @throws PGPException On GPG error
+     */
+    private static PGPSecretKey secret(final byte[] ring) throws IOException, PGPException {
+        return new PGPSecretKeyRingCollection(
+            PGPUtil.getDecoderStream(new ByteArrayInputStream(ring)),
+            new JcaKeyFingerprintCalculator()
+        ).getKeyRings().next().getSecretKey();
+    }
+
+    /**
+     * Unlocks secret key with the password.
+     * @param secret Secret key
+     * @return Private key
+     * @throws PGPException On GPG error
+     */
+    private static PGPPrivateKey unlock(final PGPSecretKey secret) throws PGPException {
+        return secret.extractPrivateKey(
+            new JcePBESecretKeyDecryptorBuilder().setProvider("BC")
+                .build(SigningKeyBench.PASSWORD.toCharArray())
+        );
+    }
+}
@@ -13,8 +13,11 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.cactoos.scalar.Unchecked;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -25,11 +28,14 @@ import org.openjdk.jmh.annotations.OutputTimeUnit;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.infra.Blackhole;
 
 /**
- * Benchmark for {@link com.artipie.debian.MultiPackages.Unique}.
+ * Benchmark for {@link com.artipie.debian.MultiPackages.Unique}. Merges Packages.gz indexes from
+ * `BENCH_DIR` directory, if this environment variable is not set, 10 indexes of 5000 items
+ * with 30% of duplicated items are generated by {@link Dataset}.
  * @since 0.8
  * @checkstyle DesignForExtensionCheck (500 lines)
  * @checkstyle JavadocMethodCheck (500 lines)
@@ -52,16 +58,31 @@ public class IndexMergeBench {
      */
     private List<byte[]> input;
 
+    /**
+     * Executor for parallel merge.
+     */
+    private ExecutorService exec;
+
     @Setup
     public void setup() throws IOException {
         if (IndexMergeBench.BENCH_DIR == null) {
-            throw new IllegalStateException("BENCH_DIR environment variable must be set");
-        }
-        try (Stream<Path> files = Files.list(Paths.get(IndexMergeBench.BENCH_DIR))) {
-            this.input = files.map(
-                path -> new Unchecked<>(() -> Files.readAllBytes(path)).value()
+            final Dataset dataset = new Dataset(1L, 3, 1024, 1024 * 1024);
+            this.input = IntStream.range(0, 10).mapToObj(
+                idx -> dataset.packages(idx * 5000, 5000, 0.3)
             ).collect(Collectors.toList());
+        } else {
+            try (Stream<Path> files = Files.list(Paths.get(IndexMergeBench.BENCH_DIR))) {
+                this.input = files.map(
+                    path -> new Unchecked<>(() -> Files.readAllBytes(path)).value()
+                ).collect(Collectors.toList());
+            }
         }
+        this.exec = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.exec.shutdown();
     }
 
     @Benchmark
@@ -71,4 +92,12 @@ public class IndexMergeBench {
             new ByteArrayOutputStream()
         );
     }
+
+    @Benchmark
+    public void parallel(final Blackhole bhl) throws IOException {
+        new MultiPackages.Unique(this.exec).merge(
+            this.input.stream().map(ByteArrayInputStream::new).collect(Collectors.toList()),
+            new ByteArrayOutputStream()
+        );
+    }
 }
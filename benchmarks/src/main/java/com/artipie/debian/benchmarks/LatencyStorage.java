@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.benchmarks;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import io.reactivex.Flowable;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Storage decorator for benchmarks: delays each operation of the origin storage by the
+ * fixed latency, as a remote storage round trip does, and counts bytes read from the
+ * storage values.
+ * @since 0.9
+ */
+public final class LatencyStorage implements Storage {
+
+    /**
+     * Origin storage.
+     */
+    private final Storage origin;
+
+    /**
+     * Latency of each operation in milliseconds.
+     */
+    private final long latency;
+
+    /**
+     * Scheduler to complete delayed operations.
+     */
+    private final ScheduledExecutorService timer;
+
+    /**
+     * Bytes read from the values.
+     */
+    private final AtomicLong bytes;
+
+    /**
+     * Ctor.
+     * @param origin Origin storage
+     * @param latency Latency of each operation in milliseconds, zero for no latency
+     * @param timer Scheduler to complete delayed operations
+     */
+    public LatencyStorage(final Storage origin, final long latency,
+        final ScheduledExecutorService timer) {
+        this.origin = origin;
+        this.latency = latency;
+        this.timer = timer;
+        this.bytes = new AtomicLong();
+    }
+
+    /**
+     * Number of bytes read from the storage values.
+     * @return Bytes read
+     */
+    public long read() {
+        return this.bytes.get();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(final Key key) {
+        return this.delayed(() -> this.origin.exists(key));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Key>> list(final Key prefix) {
+        return this.delayed(() -> this.origin.list(prefix));
+    }
+
+    @Override
+    public CompletableFuture<Void> save(final Key key, final Content content) {
+        return this.delayed(() -> this.origin.save(key, content));
+    }
+
+    @Override
+    public CompletableFuture<Void> move(final Key source, final Key destination) {
+        return this.delayed(() -> this.origin.move(source, destination));
+    }
+
+    @Override
+    public CompletableFuture<Long> size(final Key key) {
+        return this.delayed(() -> this.origin.size(key));
+    }
+
+    @Override
+    public CompletableFuture<Content> value(final Key key) {
+        return this.delayed(() -> this.origin.value(key)).thenApply(
+            content -> new Content.From(
+                content.size(),
+                Flowable.fromPublisher(content)
+                    .doOnNext(buf -> this.bytes.addAndGet(buf.remaining()))
+            )
+        );
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(final Key key) {
+        return this.delayed(() -> this.origin.delete(key));
+    }
+
+    @Override
+    public <T> CompletionStage<T> exclusively(final Key key,
+        final Function<Storage, CompletionStage<T>> operation) {
+        return this.origin.exclusively(key, operation);
+    }
+
+    /**
+     * Starts the operation after the latency.
+     * @param operation Operation
+     * @param <T> Result type
+     * @return Completion action with the operation result
+     */
+    private <T> CompletableFuture<T> delayed(final Supplier<CompletableFuture<T>> operation) {
+        final CompletableFuture<T> res;
+        if (this.latency == 0) {
+            res = operation.get();
+        } else {
+            final CompletableFuture<Void> delay = new CompletableFuture<>();
+            this.timer.schedule(() -> delay.complete(null), this.latency, TimeUnit.MILLISECONDS);
+            res = delay.thenCompose(nothing -> operation.get());
+        }
+        return res;
+    }
+}
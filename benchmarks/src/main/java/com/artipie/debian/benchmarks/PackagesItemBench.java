@@ -0,0 +1,173 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.benchmarks;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.debian.metadata.PackagesItem;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for {@link PackagesItem.Asto#format(String, Key)}: size, checksums and sorting of
+ * the Packages index item for the packages of different sizes stored in {@link InMemoryStorage}
+ * behind {@link LatencyStorage}, which delays each storage operation. Along with the latency,
+ * bytes read from the storage per call are reported as `bytesPerCall` secondary result.
+ * Control file is generated by {@link Dataset} on setup, so this benchmark does not require
+ * `BENCH_DIR`.
+ * @since 0.9
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle VisibilityModifierCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class PackagesItemBench {
+
+    /**
+     * Package key.
+     */
+    private static final Key DEB = new Key.From("pool/main/b/bench/bench_1.2.3-4_amd64.deb");
+
+    /**
+     * Package size in megabytes.
+     */
+    @Param({"1", "10", "100", "500"})
+    private int size;
+
+    /**
+     * Latency of each storage operation in milliseconds.
+     */
+    @Param({"0", "10"})
+    private int latency;
+
+    /**
+     * Control file.
+     */
+    private String control;
+
+    /**
+     * Scheduler for the storage latency.
+     */
+    private ScheduledExecutorService timer;
+
+    /**
+     * Storage with the package.
+     */
+    private LatencyStorage storage;
+
+    @Setup
+    public void setup() {
+        final byte[] deb = new byte[this.size * 1024 * 1024];
+        new Random(this.size).nextBytes(deb);
+        final InMemoryStorage memory = new InMemoryStorage();
+        memory.save(PackagesItemBench.DEB, new Content.From(deb)).join();
+        this.timer = Executors.newSingleThreadScheduledExecutor();
+        this.storage = new LatencyStorage(memory, this.latency, this.timer);
+        this.control = new Dataset().control(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.timer.shutdown();
+    }
+
+    @Benchmark
+    public void format(final Blackhole bhl, final Reads reads) {
+        final long before = this.storage.read();
+        bhl.consume(
+            new PackagesItem.Asto(this.storage).format(this.control, PackagesItemBench.DEB)
+                .toCompletableFuture().join()
+        );
+        reads.record(this.storage.read() - before);
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(PackagesItemBench.class.getSimpleName())
+                .build()
+        ).run();
+    }
+
+    /**
+     * Bytes read from the storage per `format` call, reported as secondary result.
+     * @since 0.9
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Reads {
+
+        /**
+         * Bytes read in the iteration.
+         */
+        private long bytes;
+
+        /**
+         * Calls in the iteration.
+         */
+        private long calls;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.bytes = 0;
+            this.calls = 0;
+        }
+
+        /**
+         * Average number of bytes read per call in the iteration.
+         * @return Bytes per call
+         */
+        public double bytesPerCall() {
+            final double res;
+            if (this.calls == 0) {
+                res = 0;
+            } else {
+                res = (double) this.bytes / this.calls;
+            }
+            return res;
+        }
+
+        /**
+         * Records the call.
+         * @param read Bytes read by the call
+         */
+        void record(final long read) {
+            this.bytes = this.bytes + read;
+            this.calls = this.calls + 1;
+        }
+    }
+}
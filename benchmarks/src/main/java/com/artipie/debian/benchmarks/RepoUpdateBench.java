@@ -36,7 +36,9 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 /**
- * Benchmark for {@link com.artipie.debian.Debian.Asto}.
+ * Benchmark for {@link com.artipie.debian.Debian.Asto}. Indexes debian packages from
+ * `BENCH_DIR` directory, if this environment variable is not set, 150 packages of 50 names
+ * with 3 versions each and 64 KiB of data are generated by {@link Dataset}.
  * @since 0.8
  * @checkstyle DesignForExtensionCheck (500 lines)
  * @checkstyle JavadocMethodCheck (500 lines)
@@ -71,27 +73,13 @@ public class RepoUpdateBench {
 
     @Setup
     public void setup() throws IOException {
-        if (RepoUpdateBench.BENCH_DIR == null) {
-            throw new IllegalStateException("BENCH_DIR environment variable must be set");
-        }
         this.readonly = new InMemoryStorage();
         this.count = new AtomicInteger(0);
-        try (Stream<Path> files = Files.list(Paths.get(RepoUpdateBench.BENCH_DIR))) {
-            this.debs = new ArrayList<>(150);
-            files.forEach(
-                item -> {
-                    final Key key = new Key.From(item.getFileName().toString());
-                    this.readonly.save(
-                        key,
-                        new Content.From(
-                            new Unchecked<>(() -> Files.readAllBytes(item)).value()
-                        )
-                    ).join();
-                    if (key.string().endsWith(".deb")) {
-                        this.debs.add(key);
-                    }
-                }
-            );
+        this.debs = new ArrayList<>(150);
+        if (RepoUpdateBench.BENCH_DIR == null) {
+            this.generate();
+        } else {
+            this.load();
         }
     }
 
@@ -127,4 +115,38 @@ public class RepoUpdateBench {
         ).run();
     }
 
+    /**
+     * Generates debian packages with {@link Dataset}.
+     */
+    private void generate() {
+        final Dataset dataset = new Dataset(1L, 3, 1024, 64 * 1024);
+        for (int num = 0; num < 150; num = num + 1) {
+            final Key key = new Key.From(dataset.filename(num));
+            this.readonly.save(key, new Content.From(dataset.deb(num, "xz"))).join();
+            this.debs.add(key);
+        }
+    }
+
+    /**
+     * Loads files from `BENCH_DIR` directory.
+     * @throws IOException On error
+     */
+    private void load() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(RepoUpdateBench.BENCH_DIR))) {
+            files.forEach(
+                item -> {
+                    final Key key = new Key.From(item.getFileName().toString());
+                    this.readonly.save(
+                        key,
+                        new Content.From(
+                            new Unchecked<>(() -> Files.readAllBytes(item)).value()
+                        )
+                    ).join();
+                    if (key.string().endsWith(".deb")) {
+                        this.debs.add(key);
+                    }
+                }
+            );
+        }
+    }
 }
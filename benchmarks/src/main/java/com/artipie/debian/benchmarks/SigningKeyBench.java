@@ -0,0 +1,191 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.benchmarks;
+
+import com.artipie.debian.misc.GpgClearsign;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.bcpg.HashAlgorithmTags;
+import org.bouncycastle.bcpg.PublicKeyAlgorithmTags;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openpgp.PGPEncryptedData;
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPKeyPair;
+import org.bouncycastle.openpgp.PGPKeyRingGenerator;
+import org.bouncycastle.openpgp.PGPSignature;
+import org.bouncycastle.openpgp.operator.PGPDigestCalculator;
+import org.bouncycastle.openpgp.operator.jcajce.JcaPGPContentSignerBuilder;
+import org.bouncycastle.openpgp.operator.jcajce.JcaPGPDigestCalculatorProviderBuilder;
+import org.bouncycastle.openpgp.operator.jcajce.JcaPGPKeyPair;
+import org.bouncycastle.openpgp.operator.jcajce.JcePBESecretKeyEncryptorBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for {@link GpgClearsign} with different signing key algorithms: compares
+ * Release.gpg (detached signature) and InRelease (clearsign) generation latency.
+ * @since 0.9
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class SigningKeyBench {
+
+    /**
+     * Secret key password.
+     */
+    static final String PASSWORD = "bench-password";
+
+    /**
+     * Signing key algorithm.
+     */
+    @Param({"RSA-2048", "RSA-4096", "ECDSA", "Ed25519"})
+    private String algorithm;
+
+    /**
+     * Release index size in kilobytes.
+     */
+    @Param({"1", "64", "1024"})
+    private int size;
+
+    /**
+     * Secret key ring bytes.
+     */
+    private byte[] key;
+
+    /**
+     * Release index bytes.
+     */
+    private byte[] release;
+
+    @Setup
+    public void setup() throws GeneralSecurityException, PGPException, IOException {
+        Security.addProvider(new BouncyCastleProvider());
+        this.key = SigningKeyBench.secretKey(this.algorithm);
+        this.release = SigningKeyBench.release(this.size * 1024);
+    }
+
+    @Benchmark
+    public void signature(final Blackhole bhl) {
+        bhl.consume(
+            new GpgClearsign(this.release).signature(this.key, SigningKeyBench.PASSWORD)
+        );
+    }
+
+    @Benchmark
+    public void clearsign(final Blackhole bhl) {
+        bhl.consume(
+            new GpgClearsign(this.release).signedContent(this.key, SigningKeyBench.PASSWORD)
+        );
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(SigningKeyBench.class.getSimpleName())
+                .forks(1)
+                .build()
+        ).run();
+    }
+
+    /**
+     * Generates password protected secret key ring with one signing key.
+     * @param algorithm Key algorithm
+     * @return Secret key ring bytes
+     * @throws GeneralSecurityException On key generation error
+     * @throws PGPException On GPG error
+     * @throws IOException On IO error
+     */
+    static byte[] secretKey(final String algorithm)
+        throws GeneralSecurityException, PGPException, IOException {
+        final KeyPairGenerator gen;
+        final int tag;
+        if ("RSA-2048".equals(algorithm) || "RSA-4096".equals(algorithm)) {
+            gen = KeyPairGenerator.getInstance("RSA", "BC");
+            gen.initialize(Integer.parseInt(algorithm.substring(4)));
+            tag = PublicKeyAlgorithmTags.RSA_GENERAL;
+        } else if ("ECDSA".equals(algorithm)) {
+            gen = KeyPairGenerator.getInstance("EC", "BC");
+            gen.initialize(new ECGenParameterSpec("P-256"));
+            tag = PublicKeyAlgorithmTags.ECDSA;
+        } else if ("Ed25519".equals(algorithm)) {
+            gen = KeyPairGenerator.getInstance("Ed25519", "BC");
+            tag = PublicKeyAlgorithmTags.EDDSA;
+        } else {
+            throw new IllegalArgumentException(
+                String.format("Unsupported key algorithm %s", algorithm)
+            );
+        }
+        final PGPKeyPair pair = new JcaPGPKeyPair(tag, gen.generateKeyPair(), new Date());
+        final PGPDigestCalculator sha = new JcaPGPDigestCalculatorProviderBuilder().build()
+            .get(HashAlgorithmTags.SHA1);
+        return new PGPKeyRingGenerator(
+            PGPSignature.POSITIVE_CERTIFICATION, pair, "Artipie Bench <bench@artipie.com>",
+            sha, null, null,
+            new JcaPGPContentSignerBuilder(tag, HashAlgorithmTags.SHA256).setProvider("BC"),
+            new JcePBESecretKeyEncryptorBuilder(PGPEncryptedData.AES_256, sha)
+                .setProvider("BC").build(SigningKeyBench.PASSWORD.toCharArray())
+        ).generateSecretKeyRing().getEncoded();
+    }
+
+    /**
+     * Generates Release index of approximately the given size.
+     * @param bytes Release size in bytes
+     * @return Release index bytes
+     */
+    static byte[] release(final int bytes) {
+        final Random random = new Random(bytes);
+        final StringBuilder res = new StringBuilder(bytes + 128).append(
+            String.join(
+                "\n",
+                "Codename: bench",
+                "Architectures: amd64",
+                "Components: main",
+                "Date: Sat, 05 Dec 2020 10:35:57 UTC",
+                "SHA256:\n"
+            )
+        );
+        int cnt = 0;
+        while (res.length() < bytes) {
+            res.append(
+                String.format(
+                    " %064x %d main/binary-arch%d/Packages.gz\n",
+                    random.nextLong(), random.nextInt(1_000_000), cnt
+                )
+            );
+            cnt = cnt + 1;
+        }
+        return res.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -13,11 +13,14 @@ import com.artipie.debian.metadata.InRelease;
 import com.artipie.debian.metadata.PackagesItem;
 import com.artipie.debian.metadata.Release;
 import com.artipie.debian.metadata.UniquePackage;
+import com.artipie.debian.misc.Gzip;
+import com.artipie.debian.misc.Signer;
 import hu.akarnokd.rxjava2.interop.SingleInterop;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionStage;
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -82,14 +85,49 @@ public interface Debian {
          */
         private final Config config;
 
+        /**
+         * Release and InRelease indexes signer, empty if indexes should not be signed.
+         */
+        private final Optional<Signer> signer;
+
+        /**
+         * Packages index compression.
+         */
+        private final Gzip gzip;
+
         /**
          * Ctor.
          * @param asto Abstract storage
          * @param config Repository configuration
          */
         public Asto(final Storage asto, final Config config) {
+            this(asto, config, config.gpg().map(Signer.Gpg::new));
+        }
+
+        /**
+         * Ctor.
+         * @param asto Abstract storage
+         * @param config Repository configuration
+         * @param signer Indexes signer, empty if indexes should not be signed
+         */
+        public Asto(final Storage asto, final Config config, final Optional<Signer> signer) {
+            this(asto, config, signer, Gzip.STANDARD);
+        }
+
+        /**
+         * Ctor.
+         * @param asto Abstract storage
+         * @param config Repository configuration
+         * @param signer Indexes signer, empty if indexes should not be signed
+         * @param gzip Packages index compression
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        public Asto(final Storage asto, final Config config, final Optional<Signer> signer,
+            final Gzip gzip) {
             this.asto = asto;
             this.config = config;
+            this.signer = signer;
+            this.gzip = gzip;
         }
 
         @Override
@@ -110,25 +148,25 @@ public interface Debian {
                 .collect((Callable<ArrayList<String>>) ArrayList::new, ArrayList::add)
                 .to(SingleInterop.get())
                 .thenCompose(
-                    list -> new UniquePackage(this.asto).add(list, packages)
+                    list -> new UniquePackage(this.asto, this.gzip).add(list, packages)
                 );
         }
 
         @Override
         public CompletionStage<Key> updateRelease(final Key packages) {
-            final Release release = new Release.Asto(this.asto, this.config);
+            final Release release = new Release.Asto(this.asto, this.config, this.signer);
             return release.update(packages).thenApply(nothing -> release.key());
         }
 
         @Override
         public CompletionStage<Key> generateRelease() {
-            final Release release = new Release.Asto(this.asto, this.config);
+            final Release release = new Release.Asto(this.asto, this.config, this.signer);
             return release.create().thenApply(nothing -> release.key());
         }
 
         @Override
         public CompletionStage<Void> generateInRelease(final Key release) {
-            return new InRelease.Asto(this.asto, this.config).generate(release);
+            return new InRelease.Asto(this.asto, this.config, this.signer).generate(release);
         }
     }
 }
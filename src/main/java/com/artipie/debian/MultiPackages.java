@@ -5,20 +5,24 @@
 package com.artipie.debian;
 
 import com.artipie.asto.ArtipieIOException;
-import com.artipie.debian.metadata.ControlField;
-import java.io.BufferedReader;
+import com.artipie.debian.misc.Gzip;
+import com.artipie.debian.misc.SortedStanzas;
+import com.artipie.debian.misc.Stanzas;
+import com.artipie.debian.misc.UniqueHashes;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 
 /**
  * MultiDebian merges metadata.
@@ -39,63 +43,332 @@ public interface MultiPackages {
      * Implementation of {@link MultiPackages} that merges Packages indexes checking for duplicates
      * and writes list of the unique Packages to the output stream. Implementation
      * does not close input or output streams, these operations should be made from the outside.
+     * Indexes are processed as raw bytes by {@link Stanzas}: packages are deduplicated by
+     * 128-bit hash of `Package` and `Version` fields values in the off-heap {@link UniqueHashes}
+     * table and items bytes are copied to the output as is, so no strings are created for
+     * the items.
+     * <p>
+     * By default, indexes are read one after another in the calling thread. If the executor
+     * is provided, indexes are decompressed and parsed concurrently in the executor, packages
+     * are deduplicated while the output is written in the calling thread in the order of
+     * the input indexes. The output is the same in both modes: the first occurrence of
+     * the package in the input order is written. Note, that in parallel mode
+     * parsed items of the indexes, which are read ahead of the writer, are kept in memory.
+     * Output is compressed with {@link Gzip#STANDARD} by default, {@link Gzip.Parallel} can be
+     * provided to deflate the output on multiple cores.
      * @since 0.6
      */
     final class Unique implements MultiPackages {
 
+        /**
+         * Input and output buffers size.
+         * @checkstyle MagicNumberCheck (2 lines)
+         */
+        private static final int BUFFER = 64 * 1024;
+
+        /**
+         * Executor to read indexes concurrently, empty to read indexes sequentially.
+         */
+        private final Optional<Executor> exec;
+
+        /**
+         * Output compression.
+         */
+        private final Gzip gzip;
+
+        /**
+         * Ctor to read indexes sequentially.
+         */
+        public Unique() {
+            this(Gzip.STANDARD);
+        }
+
+        /**
+         * Ctor to read indexes concurrently.
+         * @param exec Executor to decompress and parse indexes in
+         */
+        public Unique(final Executor exec) {
+            this(exec, Gzip.STANDARD);
+        }
+
+        /**
+         * Ctor to read indexes sequentially.
+         * @param gzip Output compression
+         */
+        public Unique(final Gzip gzip) {
+            this(Optional.empty(), gzip);
+        }
+
+        /**
+         * Ctor to read indexes concurrently.
+         * @param exec Executor to decompress and parse indexes in
+         * @param gzip Output compression
+         */
+        public Unique(final Executor exec, final Gzip gzip) {
+            this(Optional.of(exec), gzip);
+        }
+
+        /**
+         * Primary ctor.
+         * @param exec Executor to read indexes concurrently, empty to read indexes sequentially
+         * @param gzip Output compression
+         */
+        private Unique(final Optional<Executor> exec, final Gzip gzip) {
+            this.exec = exec;
+            this.gzip = gzip;
+        }
+
         @Override
         public void merge(final Collection<InputStream> items, final OutputStream res) {
             try {
-                final GZIPOutputStream gop = new GZIPOutputStream(res);
-                final Set<Pair<String, String>> packages = new HashSet<>(items.size());
-                for (final InputStream inp : items) {
-                    Unique.appendPackages(gop, inp, packages);
+                final OutputStream gop = new BufferedOutputStream(
+                    this.gzip.compressing(new CloseShieldOutputStream(res)), Unique.BUFFER
+                );
+                if (this.exec.isPresent()) {
+                    Unique.mergeParallel(items, gop, this.exec.get());
+                } else {
+                    final UniqueHashes packages = new UniqueHashes();
+                    for (final InputStream inp : items) {
+                        Unique.stanzas(inp).read(
+                            stanza -> {
+                                if (packages.add(stanza.high(), stanza.low())) {
+                                    stanza.writeTo(gop);
+                                }
+                            }
+                        );
+                    }
                 }
-                gop.finish();
+                gop.close();
             } catch (final IOException err) {
                 throw new ArtipieIOException(err);
             }
         }
 
         /**
-         * Appends items from provided InputStream to OutputStream, duplicated packages are not
-         * appended.
-         * @param out OutputStream to write the result
+         * Reads indexes concurrently and writes unique items in the input order. Indexes are
+         * decompressed and parsed in the executor, parsed items are written one index after
+         * another in the calling thread, which deduplicates the packages by the hashes, so
+         * the first occurrence of the package in the input order is written. Only a window of
+         * twice the number of processors indexes is parsed ahead: the next index is submitted
+         * when the first index of the window is written, so parsed indexes do not pile up in
+         * memory if writing is slower than parsing. The set of hashes is presized for the
+         * number of items of the first index.
+         * @param items Indexes to merge
+         * @param out Output stream
+         * @param exec Executor
+         * @throws IOException On error
+         */
+        private static void mergeParallel(final Collection<InputStream> items,
+            final OutputStream out, final Executor exec) throws IOException {
+            final List<InputStream> inputs = new ArrayList<>(items);
+            final int window = 2 * Runtime.getRuntime().availableProcessors();
+            final List<CompletableFuture<Parsed>> parsed = new ArrayList<>(inputs.size());
+            for (int idx = 0; idx < Math.min(window, inputs.size()); idx = idx + 1) {
+                parsed.add(Unique.submit(inputs.get(idx), exec));
+            }
+            final UniqueHashes packages;
+            if (inputs.isEmpty()) {
+                packages = new UniqueHashes();
+            } else {
+                packages = new UniqueHashes(Unique.join(parsed.get(0)).size());
+            }
+            for (int idx = 0; idx < inputs.size(); idx = idx + 1) {
+                final Parsed index = Unique.join(parsed.get(idx));
+                parsed.set(idx, null);
+                for (int num = 0; num < index.size(); num = num + 1) {
+                    if (packages.add(index.high(num), index.low(num))) {
+                        out.write(index.item(num));
+                    }
+                }
+                if (idx + window < inputs.size()) {
+                    parsed.add(Unique.submit(inputs.get(idx + window), exec));
+                }
+            }
+        }
+
+        /**
+         * Submits the index to be parsed in the executor.
          * @param inp InputStream to read Packages index from
-         * @param packages Map with the appended packages
+         * @param exec Executor
+         * @return Parsed index future
          */
-        @SuppressWarnings("PMD.CyclomaticComplexity")
-        private static void appendPackages(
-            final OutputStream out, final InputStream inp, final Set<Pair<String, String>> packages
-        ) {
+        private static CompletableFuture<Parsed> submit(final InputStream inp,
+            final Executor exec) {
+            return CompletableFuture.supplyAsync(() -> Unique.parse(inp), exec);
+        }
+
+        /**
+         * Parses the index.
+         * @param inp InputStream to read Packages index from
+         * @return Parsed items with the package name and version hashes
+         */
+        private static Parsed parse(final InputStream inp) {
+            final Parsed res = new Parsed();
             try {
-                final GZIPInputStream gis = new GZIPInputStream(inp);
-                final BufferedReader rdr =
-                    new BufferedReader(new InputStreamReader(gis, StandardCharsets.UTF_8));
-                String line;
-                StringBuilder item = new StringBuilder();
-                do {
-                    line = rdr.readLine();
-                    if ((line == null || line.isEmpty()) && item.length() > 0) {
-                        final Pair<String, String> pair = new ImmutablePair<>(
-                            new ControlField.Package().value(item.toString()).get(0),
-                            new ControlField.Version().value(item.toString()).get(0)
-                        );
-                        if (!packages.contains(pair)) {
-                            out.write(
-                                item.append('\n').toString().getBytes(StandardCharsets.UTF_8)
-                            );
-                            packages.add(pair);
-                        }
-                        item = new StringBuilder();
-                    } else if (line != null && !line.isEmpty()) {
-                        item.append(line).append('\n');
-                    }
-                } while (line != null);
+                Unique.stanzas(inp).read(res::add);
             } catch (final IOException err) {
                 throw new ArtipieIOException(err);
             }
+            return res;
+        }
+
+        /**
+         * Stanzas of the gzipped Packages index.
+         * @param inp InputStream to read Packages index from
+         * @return Stanzas
+         * @throws IOException On error
+         */
+        private static Stanzas stanzas(final InputStream inp) throws IOException {
+            return new Stanzas(new GZIPInputStream(inp, Unique.BUFFER));
+        }
+
+        /**
+         * Waits for the index to be parsed.
+         * @param future Parsed index future
+         * @param <T> Result type
+         * @return Parsed index
+         */
+        private static <T> T join(final CompletableFuture<T> future) {
+            try {
+                return future.join();
+            } catch (final CompletionException err) {
+                if (err.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) err.getCause();
+                }
+                throw new ArtipieIOException(err);
+            }
+        }
+
+        /**
+         * Items of the parsed index with their hashes, hashes are kept in the array of longs
+         * to avoid boxing.
+         * @since 0.9
+         */
+        private static final class Parsed {
+
+            /**
+             * Items bytes.
+             */
+            private final List<byte[]> items;
+
+            /**
+             * Hashes of the items: high and low bits of each hash one after another.
+             */
+            private long[] hashes;
+
+            /**
+             * Ctor.
+             * @checkstyle MagicNumberCheck (5 lines)
+             */
+            Parsed() {
+                this.items = new ArrayList<>(1024);
+                this.hashes = new long[2048];
+            }
+
+            /**
+             * Adds the copy of the stanza.
+             * @param stanza Stanza
+             */
+            void add(final Stanzas.Stanza stanza) {
+                final int pos = this.items.size() * 2;
+                if (pos == this.hashes.length) {
+                    this.hashes = Arrays.copyOf(this.hashes, pos * 2);
+                }
+                this.hashes[pos] = stanza.high();
+                this.hashes[pos + 1] = stanza.low();
+                this.items.add(stanza.bytes());
+            }
+
+            /**
+             * Number of items.
+             * @return Size
+             */
+            int size() {
+                return this.items.size();
+            }
+
+            /**
+             * High bits of the item hash.
+             * @param num Item number
+             * @return Hash bits
+             */
+            long high(final int num) {
+                return this.hashes[num * 2];
+            }
+
+            /**
+             * Low bits of the item hash.
+             * @param num Item number
+             * @return Hash bits
+             */
+            long low(final int num) {
+                return this.hashes[num * 2 + 1];
+            }
+
+            /**
+             * Item bytes.
+             * @param num Item number
+             * @return Bytes
+             */
+            byte[] item(final int num) {
+                return this.items.get(num);
+            }
         }
     }
 
+    /**
+     * Implementation of {@link MultiPackages} that merges Packages indexes with bounded memory
+     * and writes sorted list of the unique Packages to the output stream: items are sorted by
+     * `Package` and `Version` fields values as bytes, the first item in the input order is
+     * written for the duplicated packages. Items are collected in memory until the memory budget
+     * is exceeded and spilled to the temp files as sorted runs, which are merged at the end,
+     * check {@link SortedStanzas}. Implementation does not close input or output streams.
+     * @since 0.9
+     */
+    final class Sorted implements MultiPackages {
+
+        /**
+         * Memory budget in bytes.
+         */
+        private final long budget;
+
+        /**
+         * Output compression.
+         */
+        private final Gzip gzip;
+
+        /**
+         * Ctor.
+         * @param budget Memory budget in bytes for the collected items
+         */
+        public Sorted(final long budget) {
+            this(budget, Gzip.STANDARD);
+        }
+
+        /**
+         * Ctor.
+         * @param budget Memory budget in bytes for the collected items
+         * @param gzip Output compression
+         */
+        public Sorted(final long budget, final Gzip gzip) {
+            this.budget = budget;
+            this.gzip = gzip;
+        }
+
+        @Override
+        public void merge(final Collection<InputStream> items, final OutputStream res) {
+            try (SortedStanzas sorted = new SortedStanzas(this.budget)) {
+                for (final InputStream inp : items) {
+                    Unique.stanzas(inp).read(sorted::add);
+                }
+                final OutputStream gop = new BufferedOutputStream(
+                    this.gzip.compressing(new CloseShieldOutputStream(res)), Unique.BUFFER
+                );
+                sorted.writeTo(gop);
+                gop.close();
+            } catch (final IOException err) {
+                throw new ArtipieIOException(err);
+            }
+        }
+    }
 }
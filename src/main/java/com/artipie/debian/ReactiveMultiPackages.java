@@ -0,0 +1,109 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian;
+
+import com.artipie.debian.misc.DeflatedContent;
+import com.artipie.debian.misc.InflatedContent;
+import com.artipie.debian.misc.Stanzas;
+import com.artipie.debian.misc.UniqueHashes;
+import io.reactivex.Flowable;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.reactivestreams.Publisher;
+
+/**
+ * Non-blocking merge of Packages indexes: gz indexes content is merged into gz content
+ * without blocking threads and without loading the indexes into memory.
+ * @since 0.9
+ */
+public interface ReactiveMultiPackages {
+
+    /**
+     * Merges provided indexes.
+     * @param items Gz indexes content to merge
+     * @return Merged gz index content
+     */
+    Publisher<ByteBuffer> merge(Collection<Publisher<ByteBuffer>> items);
+
+    /**
+     * Implementation of {@link ReactiveMultiPackages} that merges Packages indexes checking for
+     * duplicates, same as {@link MultiPackages.Unique}: the first occurrence of the package
+     * in the input order is written. Indexes are read one after another, each index is
+     * inflated by {@link InflatedContent}, split into items by {@link Stanzas.Parser} and
+     * unique items are deflated by {@link DeflatedContent} chunk by chunk, as the subscriber
+     * requests the data. Each subscription merges the indexes anew.
+     * @since 0.9
+     */
+    final class Unique implements ReactiveMultiPackages {
+
+        @Override
+        public Publisher<ByteBuffer> merge(final Collection<Publisher<ByteBuffer>> items) {
+            return new DeflatedContent(
+                Flowable.defer(
+                    () -> {
+                        final UniqueHashes packages = new UniqueHashes();
+                        return Flowable.fromIterable(items)
+                            .concatMap(item -> Unique.unique(item, packages));
+                    }
+                )
+            );
+        }
+
+        /**
+         * Unique items of the index.
+         * @param index Gz index content
+         * @param packages Hashes of the added packages
+         * @return Unique items
+         */
+        private static Flowable<ByteBuffer> unique(final Publisher<ByteBuffer> index,
+            final UniqueHashes packages) {
+            return Flowable.defer(
+                () -> {
+                    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    final Stanzas.Parser parser = new Stanzas.Parser(
+                        stanza -> {
+                            if (packages.add(stanza.high(), stanza.low())) {
+                                stanza.writeTo(out);
+                            }
+                        }
+                    );
+                    return Flowable.fromPublisher(new InflatedContent(index))
+                        .concatMapIterable(
+                            chunk -> {
+                                parser.feed(chunk);
+                                return Unique.drain(out);
+                            }
+                        ).concatWith(
+                            Flowable.defer(
+                                () -> {
+                                    parser.finish();
+                                    return Flowable.fromIterable(Unique.drain(out));
+                                }
+                            )
+                        );
+                }
+            );
+        }
+
+        /**
+         * Takes collected items from the buffer.
+         * @param out Buffer
+         * @return Collected items, empty if nothing was collected
+         */
+        private static List<ByteBuffer> drain(final ByteArrayOutputStream out) {
+            final List<ByteBuffer> res;
+            if (out.size() == 0) {
+                res = Collections.emptyList();
+            } else {
+                res = Collections.singletonList(ByteBuffer.wrap(out.toByteArray()));
+                out.reset();
+            }
+            return res;
+        }
+    }
+}
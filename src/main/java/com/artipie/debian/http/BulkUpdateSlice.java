@@ -0,0 +1,639 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.Key;
+import com.artipie.asto.Remaining;
+import com.artipie.asto.Storage;
+import com.artipie.asto.fs.FileStorage;
+import com.artipie.debian.Config;
+import com.artipie.debian.metadata.Control;
+import com.artipie.debian.metadata.ControlField;
+import com.artipie.debian.metadata.InRelease;
+import com.artipie.debian.metadata.PackagesItem;
+import com.artipie.debian.metadata.Release;
+import com.artipie.debian.metadata.UniquePackage;
+import com.artipie.debian.misc.ContentHead;
+import com.artipie.debian.misc.DebHead;
+import com.artipie.debian.misc.Gzip;
+import com.artipie.debian.misc.Signer;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.http.slice.KeyFromPath;
+import io.reactivex.Flowable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.reactivestreams.Publisher;
+
+/**
+ * Debian bulk update slice accepts tar archive with many deb packages in one request:
+ * each package is streamed from the archive to the temporary file, its control file is
+ * extracted and the package is saved to the storage from the file while the next packages
+ * are read, packages with not supported architectures are never saved. Only a few packages
+ * are processed at once, the archive is not read further until one of them is saved, so
+ * the archive is never kept in memory. Archive is read and control files are parsed by the
+ * slice executor, not by the common pool. Then Packages index of
+ * each architecture is updated once and Release and InRelease indexes are generated once
+ * for the whole archive. If the background indexing queue is used, the indexes are updated
+ * in the queue.
+ * Packages are saved into the directory from the request path, directories of the archive
+ * entries are ignored. Response body lists the status of each package in the control file
+ * format: packages which can not be read or saved are reported as failed and the rest are
+ * indexed.
+ * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle ClassFanOutComplexityCheck (500 lines)
+ */
+public final class BulkUpdateSlice implements Slice {
+
+    /**
+     * Max number of packages processed at once.
+     */
+    private static final int WINDOW = 4;
+
+    /**
+     * Name of the executor threads and prefix of the temporary directories.
+     */
+    private static final String NAME = "debian-bulk-upload";
+
+    /**
+     * Executor shared by the slices which are not given their own executor: daemon threads
+     * are started on demand and stopped after a minute of idling.
+     */
+    private static final ExecutorService SHARED = Executors.newCachedThreadPool(
+        runnable -> {
+            final Thread thread = new Thread(runnable, BulkUpdateSlice.NAME);
+            thread.setDaemon(true);
+            return thread;
+        }
+    );
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Repository configuration.
+     */
+    private final Config config;
+
+    /**
+     * Release and InRelease indexes signer, empty if indexes should not be signed.
+     */
+    private final Optional<Signer> signer;
+
+    /**
+     * Background indexing queue to update the indexes in, empty if there is no queue.
+     */
+    private final Optional<IndexingQueue> queue;
+
+    /**
+     * Executor to read the archive and to parse control files.
+     */
+    private final ExecutorService exec;
+
+    /**
+     * Packages index compression.
+     */
+    private final Gzip gzip;
+
+    /**
+     * Index writes performed before the response, used if there is no queue.
+     */
+    private final IndexWrites writes;
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     */
+    public BulkUpdateSlice(final Storage asto, final Config config) {
+        this(asto, config, config.gpg().map(Signer.Gpg::new));
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param signer Indexes signer, empty if indexes should not be signed
+     */
+    public BulkUpdateSlice(final Storage asto, final Config config,
+        final Optional<Signer> signer) {
+        this(asto, config, signer, Optional.empty());
+    }
+
+    /**
+     * Ctor with the executor shared by all bulk update slices.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param signer Indexes signer, empty if indexes should not be signed
+     * @param queue Background indexing queue, indexes are updated in the queue if present
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public BulkUpdateSlice(final Storage asto, final Config config,
+        final Optional<Signer> signer, final Optional<IndexingQueue> queue) {
+        this(asto, config, signer, queue, Gzip.STANDARD);
+    }
+
+    /**
+     * Ctor with the executor shared by all bulk update slices.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param signer Indexes signer, empty if indexes should not be signed
+     * @param queue Background indexing queue, indexes are updated in the queue if present
+     * @param gzip Packages index compression
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public BulkUpdateSlice(final Storage asto, final Config config,
+        final Optional<Signer> signer, final Optional<IndexingQueue> queue, final Gzip gzip) {
+        this(asto, config, signer, queue, gzip, new IndexWrites());
+    }
+
+    /**
+     * Ctor with the executor shared by all bulk update slices.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param signer Indexes signer, empty if indexes should not be signed
+     * @param queue Background indexing queue, indexes are updated in the queue if present
+     * @param gzip Packages index compression
+     * @param writes Index writes of the repository, indexes are updated through them
+     *  if there is no queue
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public BulkUpdateSlice(final Storage asto, final Config config,
+        final Optional<Signer> signer, final Optional<IndexingQueue> queue, final Gzip gzip,
+        final IndexWrites writes) {
+        this(asto, config, signer, queue, BulkUpdateSlice.SHARED, gzip, writes);
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param signer Indexes signer, empty if indexes should not be signed
+     * @param queue Background indexing queue, indexes are updated in the queue if present
+     * @param exec Executor to read the archive and to parse control files, each request
+     *  occupies one thread to read the archive while it is uploaded, so the executor
+     *  should not limit the number of threads
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public BulkUpdateSlice(final Storage asto, final Config config,
+        final Optional<Signer> signer, final Optional<IndexingQueue> queue,
+        final ExecutorService exec) {
+        this(asto, config, signer, queue, exec, Gzip.STANDARD, new IndexWrites());
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param signer Indexes signer, empty if indexes should not be signed
+     * @param queue Background indexing queue, indexes are updated in the queue if present
+     * @param exec Executor to read the archive and to parse control files
+     * @param gzip Packages index compression
+     * @param writes Index writes of the repository, indexes are updated through them
+     *  if there is no queue
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public BulkUpdateSlice(final Storage asto, final Config config,
+        final Optional<Signer> signer, final Optional<IndexingQueue> queue,
+        final ExecutorService exec, final Gzip gzip, final IndexWrites writes) {
+        this.asto = asto;
+        this.config = config;
+        this.signer = signer;
+        this.queue = queue;
+        this.exec = exec;
+        this.gzip = gzip;
+        this.writes = writes;
+    }
+
+    @Override
+    public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body) {
+        final Path tmp;
+        try {
+            tmp = Files.createTempDirectory(BulkUpdateSlice.NAME);
+        } catch (final IOException err) {
+            throw new ArtipieIOException(err);
+        }
+        final Key dir = new KeyFromPath(new RequestLineFrom(line).uri().getPath());
+        final List<Key> saved = new CopyOnWriteArrayList<>();
+        final Storage files = new FileStorage(tmp);
+        return new AsyncResponse(
+            new Archive(body, this.exec).debs(
+                tmp,
+                (name, file) -> this.control(files, file).thenApply(
+                    control -> new Deb(new Key.From(dir, name), control, this.config.archs())
+                ).thenCompose(
+                    deb -> {
+                        final CompletionStage<Deb> res;
+                        if (deb.supported()) {
+                            res = files.value(file)
+                                .thenCompose(content -> this.asto.save(deb.key, content))
+                                .thenApply(
+                                    nothing -> {
+                                        saved.add(deb.key);
+                                        return deb;
+                                    }
+                                );
+                        } else {
+                            res = CompletableFuture.completedFuture(deb);
+                        }
+                        return res;
+                    }
+                ).exceptionally(err -> new Deb(new Key.From(dir, name), err))
+            ).whenComplete(
+                (debs, throwable) -> FileUtils.deleteQuietly(tmp.toFile())
+            ).thenCompose(
+                debs -> this.queue.<CompletionStage<Response>>map(
+                    que -> que.submit(() -> this.index(debs))
+                ).orElseGet(() -> this.writes.submit(() -> this.index(debs)))
+            ).handle(
+                (resp, throwable) -> {
+                    final CompletionStage<Response> rsp;
+                    if (throwable == null) {
+                        rsp = CompletableFuture.completedFuture(resp);
+                    } else {
+                        rsp = CompletableFuture.allOf(
+                            saved.stream().map(key -> this.asto.delete(key).toCompletableFuture())
+                                .toArray(CompletableFuture[]::new)
+                        ).thenApply(nothing -> new RsWithStatus(RsStatus.INTERNAL_ERROR));
+                    }
+                    return rsp;
+                }
+            ).thenCompose(Function.identity())
+        );
+    }
+
+    /**
+     * Reads control file from the head of the package file.
+     * @param files Temporary files storage
+     * @param file Package file key
+     * @return Completion action with control file content
+     */
+    private CompletionStage<String> control(final Storage files, final Key file) {
+        return files.value(file).thenCompose(
+            content -> {
+                final ContentHead head = new ContentHead(content, new DebHead());
+                return head.head().whenComplete((bytes, throwable) -> head.cancel());
+            }
+        ).thenApplyAsync(bytes -> new Control.FromBinary(bytes).asString(), this.exec);
+    }
+
+    /**
+     * Indexes saved packages.
+     * @param debs Packages read from the archive
+     * @return Completion action with the response
+     */
+    private CompletionStage<Response> index(final List<Deb> debs) {
+        final List<Deb> supported = debs.stream().filter(Deb::supported)
+            .collect(Collectors.toList());
+        final CompletionStage<Void> res;
+        if (supported.isEmpty()) {
+            res = CompletableFuture.allOf();
+        } else {
+            res = this.generateIndexes(supported);
+        }
+        return res.thenApply(
+            nothing -> {
+                final StringBuilder txt = new StringBuilder();
+                debs.forEach(deb -> deb.status(txt));
+                final RsStatus status;
+                if (supported.isEmpty()) {
+                    status = RsStatus.BAD_REQUEST;
+                } else {
+                    status = RsStatus.OK;
+                }
+                return new RsWithBody(new RsWithStatus(status), txt, StandardCharsets.UTF_8);
+            }
+        );
+    }
+
+    /**
+     * Generates Packages index of each architecture once, then Release and InRelease indexes.
+     * @param debs Packages with supported architectures
+     * @return Completion action
+     */
+    private CompletionStage<Void> generateIndexes(final List<Deb> debs) {
+        final List<CompletableFuture<String>> items = debs.stream().map(
+            deb -> new PackagesItem.Asto(this.asto).format(deb.control, deb.key)
+                .toCompletableFuture()
+        ).collect(Collectors.toList());
+        final Release release = new Release.Asto(this.asto, this.config, this.signer);
+        return CompletableFuture.allOf(items.toArray(new CompletableFuture<?>[0])).thenCompose(
+            nothing -> {
+                final Map<String, List<String>> indexes = new TreeMap<>();
+                for (int idx = 0; idx < debs.size(); idx = idx + 1) {
+                    for (final String arc : debs.get(idx).archs) {
+                        indexes.computeIfAbsent(
+                            String.format(
+                                "dists/%s/main/binary-%s/Packages.gz", this.config.codename(), arc
+                            ),
+                            key -> new ArrayList<>(debs.size())
+                        ).add(items.get(idx).join());
+                    }
+                }
+                return CompletableFuture.allOf(
+                    indexes.entrySet().stream().map(
+                        entry -> new UniquePackage(this.asto, this.gzip)
+                            .add(entry.getValue(), new Key.From(entry.getKey()))
+                            .toCompletableFuture()
+                    ).toArray(CompletableFuture[]::new)
+                ).thenCompose(
+                    none -> release.update(
+                        indexes.keySet().stream().map(Key.From::new).collect(Collectors.toList())
+                    )
+                );
+            }
+        ).thenCompose(
+            nothing -> new InRelease.Asto(this.asto, this.config, this.signer)
+                .generate(release.key())
+        );
+    }
+
+    /**
+     * Saved deb package.
+     * @since 0.9
+     */
+    private static final class Deb {
+
+        /**
+         * Package key.
+         */
+        private final Key key;
+
+        /**
+         * Control file content.
+         */
+        private final String control;
+
+        /**
+         * Package architectures supported by the repository.
+         */
+        private final List<String> archs;
+
+        /**
+         * Error message, empty if the package was read and saved.
+         */
+        private final Optional<String> error;
+
+        /**
+         * Ctor.
+         * @param key Package key
+         * @param control Control file content
+         * @param supported Architectures supported by the repository
+         */
+        Deb(final Key key, final String control, final Collection<String> supported) {
+            this(
+                key, control,
+                new ControlField.Architecture().value(control).stream()
+                    .filter(supported::contains).collect(Collectors.toList()),
+                Optional.empty()
+            );
+        }
+
+        /**
+         * Ctor of the package which was not read or saved.
+         * @param key Package key
+         * @param err Error
+         */
+        Deb(final Key key, final Throwable err) {
+            this(
+                key, "", Collections.emptyList(),
+                Optional.of(
+                    String.format(
+                        "Package can not be read: %s",
+                        Optional.ofNullable(err.getCause()).orElse(err).getMessage()
+                    )
+                )
+            );
+        }
+
+        /**
+         * Primary ctor.
+         * @param key Package key
+         * @param control Control file content
+         * @param archs Package architectures supported by the repository
+         * @param error Error message, empty if the package was read and saved
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        private Deb(final Key key, final String control, final List<String> archs,
+            final Optional<String> error) {
+            this.key = key;
+            this.control = control;
+            this.archs = archs;
+            this.error = error;
+        }
+
+        /**
+         * Is package architecture supported by the repository?
+         * @return True if supported
+         */
+        boolean supported() {
+            return !this.archs.isEmpty();
+        }
+
+        /**
+         * Appends package status in the control file format.
+         * @param txt Where to append
+         */
+        void status(final StringBuilder txt) {
+            final String status;
+            if (this.supported()) {
+                status = IndexingQueue.Status.INDEXED;
+            } else if (this.error.isPresent()) {
+                status = String.join(
+                    "\n", IndexingQueue.Status.FAILED,
+                    String.format("Message: %s", this.error.get())
+                );
+            } else {
+                status = String.join(
+                    "\n", IndexingQueue.Status.FAILED,
+                    "Message: Package architecture is not supported by the repository"
+                );
+            }
+            txt.append("Package: ").append(this.key.string())
+                .append("\nStatus: ").append(status).append("\n\n");
+        }
+    }
+
+    /**
+     * Tar archive of deb packages read from the request body.
+     * @since 0.9
+     */
+    private static final class Archive {
+
+        /**
+         * Pipe buffer size.
+         */
+        private static final int BUFFER = 64 * 1024;
+
+        /**
+         * Request body.
+         */
+        private final Publisher<ByteBuffer> content;
+
+        /**
+         * Executor to read the archive.
+         */
+        private final ExecutorService exec;
+
+        /**
+         * Ctor.
+         * @param content Request body
+         * @param exec Executor to read the archive
+         */
+        Archive(final Publisher<ByteBuffer> content, final ExecutorService exec) {
+            this.content = content;
+            this.exec = exec;
+        }
+
+        /**
+         * Reads deb packages from the archive one by one, each package is written to the
+         * file in the directory and passed to the action as soon as it is read. The file is
+         * removed when the action is completed, no more than {@link BulkUpdateSlice#WINDOW}
+         * actions are performed at once.
+         * @param dir Directory for the package files
+         * @param action Action to perform with package file name and the key of the file
+         *  in the directory
+         * @param <T> Action result type
+         * @return Completion action with the results of the actions
+         */
+        <T> CompletionStage<List<T>> debs(final Path dir,
+            final BiFunction<String, Key, CompletionStage<T>> action) {
+            final PipedInputStream input = new PipedInputStream(Archive.BUFFER);
+            final PipedOutputStream output;
+            try {
+                output = new PipedOutputStream(input);
+            } catch (final IOException err) {
+                throw new ArtipieIOException(err);
+            }
+            final CompletableFuture<List<CompletableFuture<T>>> read =
+                CompletableFuture.supplyAsync(
+                    () -> Archive.read(
+                        input, dir, action, new Semaphore(BulkUpdateSlice.WINDOW)
+                    ),
+                    this.exec
+                );
+            return CompletableFuture.runAsync(() -> this.write(output), this.exec)
+                .thenCombine(read, (nothing, started) -> started)
+                .thenCompose(
+                    started -> CompletableFuture.allOf(
+                        started.toArray(new CompletableFuture<?>[0])
+                    ).thenApply(
+                        nothing -> started.stream().map(CompletableFuture::join)
+                            .collect(Collectors.toList())
+                    )
+                );
+        }
+
+        /**
+         * Writes request body to the pipe. Pipe writes block while the archive reader is
+         * busy, so the body is written by the slice executor thread instead of the shared
+         * IO threads.
+         * @param output Pipe output
+         */
+        private void write(final PipedOutputStream output) {
+            try {
+                Flowable.fromPublisher(this.content).blockingForEach(
+                    buf -> output.write(new Remaining(buf).bytes())
+                );
+            } finally {
+                Archive.close(output);
+            }
+        }
+
+        /**
+         * Reads tar archive, the rest of the input is skipped after the end of the archive.
+         * @param input Input
+         * @param dir Directory for the package files
+         * @param action Action to perform with package file name and file key
+         * @param window Permits to perform the actions
+         * @param <T> Action result type
+         * @return Started actions
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        @SuppressWarnings("PMD.AssignmentInOperand")
+        private static <T> List<CompletableFuture<T>> read(final InputStream input,
+            final Path dir, final BiFunction<String, Key, CompletionStage<T>> action,
+            final Semaphore window) {
+            final List<CompletableFuture<T>> res = new ArrayList<>(1);
+            try (TarArchiveInputStream tar = new TarArchiveInputStream(input)) {
+                TarArchiveEntry entry;
+                while ((entry = tar.getNextTarEntry()) != null) {
+                    final String name = entry.getName()
+                        .substring(entry.getName().lastIndexOf('/') + 1);
+                    if (entry.isFile() && name.endsWith(".deb")) {
+                        window.acquire();
+                        final Key file = new Key.From(String.format("%d.deb", res.size()));
+                        final Path path = dir.resolve(file.string());
+                        Files.copy(tar, path);
+                        res.add(
+                            action.apply(name, file).toCompletableFuture().whenComplete(
+                                (item, throwable) -> {
+                                    FileUtils.deleteQuietly(path.toFile());
+                                    window.release();
+                                }
+                            )
+                        );
+                    }
+                }
+                IOUtils.skip(input, Long.MAX_VALUE);
+            } catch (final IOException err) {
+                throw new CompletionException(new ArtipieIOException(err));
+            } catch (final InterruptedException err) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(err);
+            }
+            return res;
+        }
+
+        /**
+         * Closes pipe output to signal the end of the input.
+         * @param output Pipe output
+         */
+        private static void close(final PipedOutputStream output) {
+            try {
+                output.close();
+            } catch (final IOException err) {
+                throw new ArtipieIOException(err);
+            }
+        }
+    }
+}
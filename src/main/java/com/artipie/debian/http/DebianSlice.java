@@ -6,6 +6,10 @@ package com.artipie.debian.http;
 
 import com.artipie.asto.Storage;
 import com.artipie.debian.Config;
+import com.artipie.debian.metrics.Metrics;
+import com.artipie.debian.misc.Gzip;
+import com.artipie.debian.misc.Signer;
+import com.artipie.debian.tracing.Exporter;
 import com.artipie.http.Slice;
 import com.artipie.http.auth.Action;
 import com.artipie.http.auth.Authentication;
@@ -20,6 +24,10 @@ import com.artipie.http.rt.RtRulePath;
 import com.artipie.http.rt.SliceRoute;
 import com.artipie.http.slice.SliceDownload;
 import com.artipie.http.slice.SliceSimple;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
 
 /**
  * Debian slice.
@@ -47,24 +55,214 @@ public final class DebianSlice extends Slice.Wrap {
      */
     public DebianSlice(final Storage storage, final Permissions perms,
         final Authentication users, final Config config) {
+        this(storage, perms, users, config, config.gpg().map(Signer.Gpg::new));
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param perms Permissions
+     * @param users Users
+     * @param config Repository configuration
+     * @param signer Release and InRelease indexes signer, empty if indexes should not be signed
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public DebianSlice(final Storage storage, final Permissions perms,
+        final Authentication users, final Config config, final Optional<Signer> signer) {
+        this(storage, perms, users, config, signer, Optional.empty());
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param perms Permissions
+     * @param users Users
+     * @param config Repository configuration
+     * @param signer Release and InRelease indexes signer, empty if indexes should not be signed
+     * @param queue Background indexing queue, empty if uploaded packages should be indexed
+     *  before the response is sent; if present, deletes and bulk uploads update the indexes
+     *  in the queue
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public DebianSlice(final Storage storage, final Permissions perms,
+        final Authentication users, final Config config, final Optional<Signer> signer,
+        final Optional<IndexingQueue> queue) {
+        this(storage, perms, users, config, signer, queue, new Metrics.Noop());
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param perms Permissions
+     * @param users Users
+     * @param config Repository configuration
+     * @param signer Release and InRelease indexes signer, empty if indexes should not be signed
+     * @param queue Background indexing queue, empty if uploaded packages should be indexed
+     *  before the response is sent; if present, deletes and bulk uploads update the indexes
+     *  in the queue
+     * @param metrics Metrics: requests, bytes and latency of each route (`status`, `packages`,
+     *  `download`, `bulk-upload`, `upload` and `delete`), Release bootstrap duration and
+     *  upload stages durations
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public DebianSlice(final Storage storage, final Permissions perms,
+        final Authentication users, final Config config, final Optional<Signer> signer,
+        final Optional<IndexingQueue> queue, final Metrics metrics) {
+        this(storage, perms, users, config, signer, queue, metrics, Gzip.STANDARD);
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param perms Permissions
+     * @param users Users
+     * @param config Repository configuration
+     * @param signer Release and InRelease indexes signer, empty if indexes should not be signed
+     * @param queue Background indexing queue, empty if uploaded packages should be indexed
+     *  before the response is sent; if present, deletes and bulk uploads update the indexes
+     *  in the queue
+     * @param metrics Metrics
+     * @param gzip Compression of the Packages indexes written by uploads, bulk uploads and
+     *  deletes, e.g. {@link Gzip.Parallel}
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public DebianSlice(final Storage storage, final Permissions perms,
+        final Authentication users, final Config config, final Optional<Signer> signer,
+        final Optional<IndexingQueue> queue, final Metrics metrics, final Gzip gzip) {
+        this(
+            storage, perms, users, config, signer, queue, metrics, gzip, new IndexWrites(),
+            new AtomicReference<>()
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param perms Permissions
+     * @param users Users
+     * @param config Repository configuration
+     * @param signer Release and InRelease indexes signer, empty if indexes should not be signed
+     * @param queue Background indexing queue, empty if uploaded packages should be indexed
+     *  before the response is sent; if present, deletes and bulk uploads update the indexes
+     *  in the queue
+     * @param metrics Metrics
+     * @param gzip Packages indexes compression
+     * @param writes Index writes shared by upload, bulk upload and delete routes
+     * @param bootstrap Release bootstrap, shared by read and write routes
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    @SuppressWarnings({"PMD.ExcessiveMethodLength", "PMD.ExcessiveParameterList"})
+    private DebianSlice(final Storage storage, final Permissions perms,
+        final Authentication users, final Config config, final Optional<Signer> signer,
+        final Optional<IndexingQueue> queue, final Metrics metrics, final Gzip gzip,
+        final IndexWrites writes, final AtomicReference<CompletableFuture<Void>> bootstrap) {
         super(
             new SliceRoute(
+                new RtRulePath(
+                    new RtRule.All(
+                        new ByMethodsRule(RqMethod.GET),
+                        new RtRule.ByPath(
+                            String.format("^/?%s/.*", Pattern.quote(IndexingStatusSlice.PATH))
+                        )
+                    ),
+                    new MeasuredSlice(
+                        new BasicAuthSlice(
+                            queue.<Slice>map(IndexingStatusSlice::new)
+                                .orElse(new SliceSimple(StandardRs.NOT_FOUND)),
+                            users,
+                            new Permission.ByName(perms, Action.Standard.WRITE)
+                        ),
+                        metrics, "status"
+                    )
+                ),
+                new RtRulePath(
+                    new RtRule.All(
+                        new ByMethodsRule(RqMethod.GET),
+                        new RtRule.ByPath(".*/main/binary-[^/]+/Packages$")
+                    ),
+                    new MeasuredSlice(
+                        new BasicAuthSlice(
+                            new ReleaseSlice(
+                                new PackagesSlice(storage), storage, config, signer, bootstrap,
+                                metrics
+                            ),
+                            users,
+                            new Permission.ByName(perms, Action.Standard.READ)
+                        ),
+                        metrics, "packages"
+                    )
+                ),
                 new RtRulePath(
                     new ByMethodsRule(RqMethod.GET),
-                    new BasicAuthSlice(
-                        new ReleaseSlice(new SliceDownload(storage), storage, config),
-                        users,
-                        new Permission.ByName(perms, Action.Standard.READ)
+                    new MeasuredSlice(
+                        new BasicAuthSlice(
+                            new ReleaseSlice(
+                                new SliceDownload(storage), storage, config, signer, bootstrap,
+                                metrics
+                            ),
+                            users,
+                            new Permission.ByName(perms, Action.Standard.READ)
+                        ),
+                        metrics, "download"
+                    )
+                ),
+                new RtRulePath(
+                    new RtRule.All(
+                        new RtRule.Any(
+                            new ByMethodsRule(RqMethod.PUT), new ByMethodsRule(RqMethod.POST)
+                        ),
+                        new RtRule.ByHeader(
+                            "Content-Type",
+                            Pattern.compile("application/(x-)?tar.*", Pattern.CASE_INSENSITIVE)
+                        )
+                    ),
+                    new MeasuredSlice(
+                        new BasicAuthSlice(
+                            new ReleaseSlice(
+                                new BulkUpdateSlice(
+                                    storage, config, signer, queue, gzip, writes
+                                ),
+                                storage, config, signer, bootstrap, metrics
+                            ),
+                            users,
+                            new Permission.ByName(perms, Action.Standard.WRITE)
+                        ),
+                        metrics, "bulk-upload"
                     )
                 ),
                 new RtRulePath(
                     new RtRule.Any(
                         new ByMethodsRule(RqMethod.PUT), new ByMethodsRule(RqMethod.POST)
                     ),
-                    new BasicAuthSlice(
-                        new ReleaseSlice(new UpdateSlice(storage, config), storage, config),
-                        users,
-                        new Permission.ByName(perms, Action.Standard.WRITE)
+                    new MeasuredSlice(
+                        new BasicAuthSlice(
+                            new ReleaseSlice(
+                                new UpdateSlice(
+                                    storage, config, signer, queue, metrics,
+                                    new Exporter.Noop(), gzip, writes
+                                ),
+                                storage, config, signer, bootstrap, metrics
+                            ),
+                            users,
+                            new Permission.ByName(perms, Action.Standard.WRITE)
+                        ),
+                        metrics, "upload"
+                    )
+                ),
+                new RtRulePath(
+                    new ByMethodsRule(RqMethod.DELETE),
+                    new MeasuredSlice(
+                        new BasicAuthSlice(
+                            new ReleaseSlice(
+                                new DeleteSlice(
+                                    storage, config, signer, queue, gzip, writes
+                                ),
+                                storage, config, signer, bootstrap, metrics
+                            ),
+                            users,
+                            new Permission.ByName(perms, Action.Standard.DELETE)
+                        ),
+                        metrics, "delete"
                     )
                 ),
                 new RtRulePath(
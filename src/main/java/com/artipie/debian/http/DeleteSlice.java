@@ -0,0 +1,313 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.debian.Config;
+import com.artipie.debian.metadata.Control;
+import com.artipie.debian.metadata.ControlField;
+import com.artipie.debian.metadata.InRelease;
+import com.artipie.debian.metadata.PackagesRemoval;
+import com.artipie.debian.metadata.Release;
+import com.artipie.debian.misc.ContentHead;
+import com.artipie.debian.misc.DebHead;
+import com.artipie.debian.misc.Gzip;
+import com.artipie.debian.misc.Signer;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.http.rs.StandardRs;
+import com.artipie.http.slice.KeyFromPath;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.reactivestreams.Publisher;
+
+/**
+ * Debian delete slice removes the package from the storage and from the Packages indexes.
+ * Package control file is read from the head of the package to find the indexes of the
+ * package architectures, each of these indexes is read once to drop the package item. Then
+ * the entries of the changed indexes are updated in the Release index, Release and
+ * InRelease indexes are signed once. If the background indexing queue is used, the indexes
+ * are updated in the queue.
+ * Only debian packages can be deleted: the key has to end with `.deb` and must not be in
+ * the `dists` directory of the indexes, the package has to contain readable control file.
+ * Otherwise, bad request is returned and nothing is deleted.
+ * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class DeleteSlice implements Slice {
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Repository configuration.
+     */
+    private final Config config;
+
+    /**
+     * Release and InRelease indexes signer, empty if indexes should not be signed.
+     */
+    private final Optional<Signer> signer;
+
+    /**
+     * Background indexing queue to update the indexes in, empty if there is no queue.
+     */
+    private final Optional<IndexingQueue> queue;
+
+    /**
+     * Packages index compression.
+     */
+    private final Gzip gzip;
+
+    /**
+     * Index writes performed before the response, used if there is no queue.
+     */
+    private final IndexWrites writes;
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     */
+    public DeleteSlice(final Storage asto, final Config config) {
+        this(asto, config, config.gpg().map(Signer.Gpg::new));
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param signer Indexes signer, empty if indexes should not be signed
+     */
+    public DeleteSlice(final Storage asto, final Config config, final Optional<Signer> signer) {
+        this(asto, config, signer, Optional.empty());
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param signer Indexes signer, empty if indexes should not be signed
+     * @param queue Background indexing queue, indexes are updated in the queue if present
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public DeleteSlice(final Storage asto, final Config config, final Optional<Signer> signer,
+        final Optional<IndexingQueue> queue) {
+        this(asto, config, signer, queue, Gzip.STANDARD);
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param signer Indexes signer, empty if indexes should not be signed
+     * @param queue Background indexing queue, indexes are updated in the queue if present
+     * @param gzip Packages index compression
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public DeleteSlice(final Storage asto, final Config config, final Optional<Signer> signer,
+        final Optional<IndexingQueue> queue, final Gzip gzip) {
+        this(asto, config, signer, queue, gzip, new IndexWrites());
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param signer Indexes signer, empty if indexes should not be signed
+     * @param queue Background indexing queue, indexes are updated in the queue if present
+     * @param gzip Packages index compression
+     * @param writes Index writes of the repository, indexes are updated through them
+     *  if there is no queue
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public DeleteSlice(final Storage asto, final Config config, final Optional<Signer> signer,
+        final Optional<IndexingQueue> queue, final Gzip gzip, final IndexWrites writes) {
+        this.asto = asto;
+        this.config = config;
+        this.signer = signer;
+        this.queue = queue;
+        this.gzip = gzip;
+        this.writes = writes;
+    }
+
+    @Override
+    public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body) {
+        final Key key = new KeyFromPath(new RequestLineFrom(line).uri().getPath());
+        final Response res;
+        if (DeleteSlice.deb(key)) {
+            res = new AsyncResponse(
+                this.asto.exists(key).thenCompose(
+                    exists -> {
+                        final CompletionStage<Response> rsp;
+                        if (exists) {
+                            rsp = this.archs(key).thenCompose(this.delete(key));
+                        } else {
+                            rsp = CompletableFuture.completedFuture(StandardRs.NOT_FOUND);
+                        }
+                        return rsp;
+                    }
+                )
+            );
+        } else {
+            res = new RsWithStatus(RsStatus.BAD_REQUEST);
+        }
+        return res;
+    }
+
+    /**
+     * Deletes the package and removes it from the indexes if package architectures are read,
+     * returns bad request otherwise.
+     * @param key Deb package key
+     * @return Function from the package architectures to the response
+     */
+    private Function<Optional<Collection<String>>, CompletionStage<Response>> delete(
+        final Key key) {
+        return archs -> {
+            final CompletionStage<Response> res;
+            if (archs.isPresent()) {
+                res = this.serialized(
+                    () -> this.removeItems(key, archs.get()).thenCompose(
+                        changed -> this.asto.delete(key).thenApply(none -> changed)
+                    ).thenCompose(this::updateRelease)
+                ).thenApply(nothing -> new RsWithStatus(RsStatus.NO_CONTENT));
+            } else {
+                res = CompletableFuture.completedFuture(new RsWithStatus(RsStatus.BAD_REQUEST));
+            }
+            return res;
+        };
+    }
+
+    /**
+     * Reads package architectures supported by the repository from the package head.
+     * @param key Deb package key
+     * @return Completion action with architectures, empty if control file can not be read
+     */
+    private CompletionStage<Optional<Collection<String>>> archs(final Key key) {
+        return this.asto.value(key).thenCompose(
+            content -> {
+                final ContentHead head = new ContentHead(content, new DebHead());
+                return head.head().handle(
+                    (bytes, throwable) -> {
+                        head.cancel();
+                        Optional<Collection<String>> res = Optional.empty();
+                        if (throwable == null) {
+                            res = this.archs(bytes);
+                        }
+                        return res;
+                    }
+                );
+            }
+        );
+    }
+
+    /**
+     * Reads package architectures supported by the repository from the package head.
+     * @param head Package head
+     * @return Architectures, empty if control file can not be read
+     */
+    private Optional<Collection<String>> archs(final byte[] head) {
+        Optional<Collection<String>> res;
+        try {
+            res = Optional.of(
+                new ControlField.Architecture().value(new Control.FromBinary(head).asString())
+                    .stream().filter(arc -> this.config.archs().contains(arc))
+                    .collect(Collectors.toList())
+            );
+        } catch (final IllegalStateException ex) {
+            res = Optional.empty();
+        }
+        return res;
+    }
+
+    /**
+     * Checks whether the key is debian package key: it ends with `.deb` and is not in the
+     * `dists` directory of the indexes.
+     * @param key Key
+     * @return True if key is debian package key
+     */
+    private static boolean deb(final Key key) {
+        return key.string().endsWith(".deb") && !key.string().startsWith("dists/");
+    }
+
+    /**
+     * Performs the operation in the background indexing queue if it is present, or after
+     * the other index writes of the repository otherwise.
+     * @param operation Operation which writes the indexes
+     * @param <T> Operation result type
+     * @return Completion action with the operation result
+     */
+    private <T> CompletionStage<T> serialized(final Supplier<CompletionStage<T>> operation) {
+        return this.queue.<CompletionStage<T>>map(que -> que.submit(operation))
+            .orElseGet(() -> this.writes.submit(operation));
+    }
+
+    /**
+     * Removes package items from the Packages indexes of the architectures.
+     * @param key Deb package key
+     * @param archs Architectures
+     * @return Completion action with the keys of the changed indexes
+     */
+    private CompletionStage<List<Key>> removeItems(final Key key,
+        final Collection<String> archs) {
+        final List<Key> indexes = archs.stream().map(
+            arc -> new Key.From(
+                String.format("dists/%s/main/binary-%s/Packages.gz", this.config.codename(), arc)
+            )
+        ).collect(Collectors.toList());
+        final List<CompletableFuture<Boolean>> removed = indexes.stream().map(
+            index -> new PackagesRemoval(this.asto, this.gzip)
+                .remove(index, Collections.singletonList(key)).toCompletableFuture()
+        ).collect(Collectors.toList());
+        return CompletableFuture.allOf(removed.toArray(new CompletableFuture<?>[0])).thenApply(
+            nothing -> {
+                final List<Key> changed = new ArrayList<>(indexes.size());
+                for (int idx = 0; idx < indexes.size(); idx = idx + 1) {
+                    if (removed.get(idx).join()) {
+                        changed.add(indexes.get(idx));
+                    }
+                }
+                return changed;
+            }
+        );
+    }
+
+    /**
+     * Updates the entries of the changed indexes in Release index and generates InRelease.
+     * @param changed Changed Packages indexes
+     * @return Completion action
+     */
+    private CompletionStage<Void> updateRelease(final List<Key> changed) {
+        final CompletionStage<Void> res;
+        if (changed.isEmpty()) {
+            res = CompletableFuture.allOf();
+        } else {
+            final Release release = new Release.Asto(this.asto, this.config, this.signer);
+            res = release.update(changed).thenCompose(
+                nothing -> new InRelease.Asto(this.asto, this.config, this.signer)
+                    .generate(release.key())
+            );
+        }
+        return res;
+    }
+}
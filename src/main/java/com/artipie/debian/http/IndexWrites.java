@@ -0,0 +1,60 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Index writes of the repository which are performed before the response is sent, without
+ * the background {@link IndexingQueue}: each operation starts after the previously submitted
+ * one is finished, so concurrent uploads and deletes never rewrite the same Packages and
+ * Release indexes at once and never lose each other's changes. No thread is blocked while
+ * the operation waits for its turn.
+ * @since 0.9
+ */
+public final class IndexWrites {
+
+    /**
+     * Last submitted operation.
+     */
+    private final AtomicReference<CompletableFuture<?>> last;
+
+    /**
+     * Ctor.
+     */
+    public IndexWrites() {
+        this.last = new AtomicReference<>(CompletableFuture.allOf());
+    }
+
+    /**
+     * Performs the operation which writes the indexes after the operations submitted
+     * before it.
+     * @param operation Operation
+     * @param <T> Operation result type
+     * @return Completion action with the operation result
+     */
+    public <T> CompletionStage<T> submit(final Supplier<CompletionStage<T>> operation) {
+        final CompletableFuture<T> res = new CompletableFuture<>();
+        final CompletableFuture<T> done = this.last.getAndSet(res)
+            .handle((nothing, throwable) -> null)
+            .thenCompose(nothing -> operation.get());
+        done.whenComplete(
+            (value, throwable) -> {
+                if (throwable == null) {
+                    res.complete(value);
+                } else if (throwable instanceof CompletionException) {
+                    res.completeExceptionally(throwable.getCause());
+                } else {
+                    res.completeExceptionally(throwable);
+                }
+            }
+        );
+        return res;
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import com.artipie.asto.Key;
+import com.jcabi.log.Logger;
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Background indexing of the uploaded packages: packages are indexed one by one in the order
+ * they were added, indexing status of each package is kept until the limit of the finished
+ * statuses is reached, then the oldest finished statuses are forgotten. Other operations
+ * which write the indexes are submitted to the same queue, so they never interleave with
+ * the background indexing.
+ * @since 0.9
+ */
+public final class IndexingQueue implements Closeable {
+
+    /**
+     * Default number of finished statuses to keep.
+     */
+    private static final int FINISHED = 10_000;
+
+    /**
+     * Indexing thread.
+     */
+    private final ExecutorService exec;
+
+    /**
+     * Max number of finished statuses to keep.
+     */
+    private final int limit;
+
+    /**
+     * Statuses by package key.
+     */
+    private final Map<String, Status> statuses;
+
+    /**
+     * Keys of the packages with finished indexing, oldest first.
+     */
+    private final Set<String> finished;
+
+    /**
+     * Lock for the finished keys.
+     */
+    private final Object lock;
+
+    /**
+     * Ctor.
+     */
+    public IndexingQueue() {
+        this(IndexingQueue.FINISHED);
+    }
+
+    /**
+     * Ctor.
+     * @param limit Max number of finished statuses to keep
+     */
+    public IndexingQueue(final int limit) {
+        this.limit = limit;
+        this.exec = Executors.newSingleThreadExecutor(
+            runnable -> {
+                final Thread thread = new Thread(runnable, "debian-indexing-queue");
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        this.statuses = new ConcurrentHashMap<>();
+        this.finished = new LinkedHashSet<>();
+        this.lock = new Object();
+    }
+
+    /**
+     * Adds package to the queue.
+     * @param pkg Package key
+     * @param index Indexing operation
+     */
+    public void add(final Key pkg, final Supplier<CompletionStage<Void>> index) {
+        final String key = pkg.string();
+        this.statuses.put(key, new Status(Status.QUEUED, ""));
+        try {
+            this.exec.execute(
+                () -> {
+                    Status res;
+                    try {
+                        CompletableFuture.allOf().thenCompose(nothing -> index.get())
+                            .toCompletableFuture().join();
+                        res = new Status(Status.INDEXED, "");
+                    } catch (final CompletionException err) {
+                        res = new Status(
+                            Status.FAILED, String.valueOf(err.getCause().getMessage())
+                        );
+                        Logger.warn(this, "Failed to index %s:\n%s", key, res.message());
+                    }
+                    this.finish(key, res);
+                }
+            );
+        } catch (final RejectedExecutionException err) {
+            this.finish(key, new Status(Status.FAILED, "Indexing queue is closed"));
+        }
+    }
+
+    /**
+     * Performs the operation which writes the indexes in the queue after the operations
+     * added before it.
+     * @param operation Operation
+     * @param <T> Operation result type
+     * @return Completion action with the operation result
+     */
+    public <T> CompletionStage<T> submit(final Supplier<CompletionStage<T>> operation) {
+        final CompletableFuture<T> res = new CompletableFuture<>();
+        try {
+            this.exec.execute(
+                () -> {
+                    try {
+                        res.complete(
+                            CompletableFuture.allOf().thenCompose(nothing -> operation.get())
+                                .toCompletableFuture().join()
+                        );
+                    } catch (final CompletionException err) {
+                        res.completeExceptionally(err.getCause());
+                    }
+                }
+            );
+        } catch (final RejectedExecutionException err) {
+            res.completeExceptionally(err);
+        }
+        return res;
+    }
+
+    /**
+     * Indexing status of the package.
+     * @param pkg Package key
+     * @return Status if package was added to the queue and status is not forgotten yet
+     */
+    public Optional<Status> status(final Key pkg) {
+        return Optional.ofNullable(this.statuses.get(pkg.string()));
+    }
+
+    @Override
+    public void close() {
+        this.exec.shutdown();
+    }
+
+    /**
+     * Records finished status of the package and forgets the oldest finished statuses
+     * over the limit.
+     * @param key Package key
+     * @param status Finished status
+     */
+    private void finish(final String key, final Status status) {
+        synchronized (this.lock) {
+            this.statuses.put(key, status);
+            this.finished.remove(key);
+            this.finished.add(key);
+            final Iterator<String> oldest = this.finished.iterator();
+            while (this.finished.size() > this.limit) {
+                final String old = oldest.next();
+                oldest.remove();
+                this.statuses.computeIfPresent(
+                    old, (name, stat) -> IndexingQueue.queued(stat)
+                );
+            }
+        }
+    }
+
+    /**
+     * Keeps status only if package is queued again.
+     * @param status Status
+     * @return Status if it is queued, null otherwise
+     */
+    private static Status queued(final Status status) {
+        Status res = null;
+        if (Status.QUEUED.equals(status.name())) {
+            res = status;
+        }
+        return res;
+    }
+
+    /**
+     * Package indexing status.
+     * @since 0.9
+     */
+    public static final class Status {
+
+        /**
+         * Package is waiting to be indexed.
+         */
+        public static final String QUEUED = "queued";
+
+        /**
+         * Package was indexed.
+         */
+        public static final String INDEXED = "indexed";
+
+        /**
+         * Package indexing failed.
+         */
+        public static final String FAILED = "failed";
+
+        /**
+         * Status name.
+         */
+        private final String title;
+
+        /**
+         * Failure message, empty if indexing did not fail.
+         */
+        private final String msg;
+
+        /**
+         * Ctor.
+         * @param name Status name
+         * @param msg Failure message, empty if indexing did not fail
+         */
+        Status(final String name, final String msg) {
+            this.title = name;
+            this.msg = msg;
+        }
+
+        /**
+         * Status name: {@link #QUEUED}, {@link #INDEXED} or {@link #FAILED}.
+         * @return Name
+         */
+        public String name() {
+            return this.title;
+        }
+
+        /**
+         * Failure message.
+         * @return Message, empty if indexing did not fail
+         */
+        public String message() {
+            return this.msg;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.StandardRs;
+import com.artipie.http.slice.KeyFromPath;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.reactivestreams.Publisher;
+
+/**
+ * Slice to report background indexing status of the uploaded package, package is identified
+ * by the request path after {@link #PATH} prefix. Status is returned in the control file
+ * format with `Package`, `Status` and, for failed indexing, `Message` fields.
+ * @since 0.9
+ */
+public final class IndexingStatusSlice implements Slice {
+
+    /**
+     * Status path prefix.
+     */
+    static final String PATH = ".indexing";
+
+    /**
+     * Indexing queue.
+     */
+    private final IndexingQueue queue;
+
+    /**
+     * Ctor.
+     * @param queue Indexing queue
+     */
+    public IndexingStatusSlice(final IndexingQueue queue) {
+        this.queue = queue;
+    }
+
+    @Override
+    public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body) {
+        final String path = new RequestLineFrom(line).uri().getPath()
+            .replaceFirst(String.format("^/?%s/", Pattern.quote(IndexingStatusSlice.PATH)), "");
+        return this.queue.status(new KeyFromPath(path)).<Response>map(
+            status -> {
+                final StringBuilder res = new StringBuilder()
+                    .append("Package: ").append(new KeyFromPath(path).string()).append('\n')
+                    .append("Status: ").append(status.name()).append('\n');
+                if (!status.message().isEmpty()) {
+                    res.append("Message: ")
+                        .append(status.message().replace('\n', ' ')).append('\n');
+                }
+                return new RsWithBody(StandardRs.OK, res, StandardCharsets.UTF_8);
+            }
+        ).orElse(StandardRs.NOT_FOUND);
+    }
+}
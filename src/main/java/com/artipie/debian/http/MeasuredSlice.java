@@ -0,0 +1,79 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import com.artipie.debian.metrics.Metrics;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import org.reactivestreams.Publisher;
+
+/**
+ * Slice which records route metrics, names are prefixed with the route name:
+ * `requests` counter, `bytes.in` and `bytes.out` counters of request and response body
+ * bytes and `latency` timer from the request until the response is sent.
+ * @since 0.9
+ */
+public final class MeasuredSlice implements Slice {
+
+    /**
+     * Origin slice.
+     */
+    private final Slice origin;
+
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Route name.
+     */
+    private final String route;
+
+    /**
+     * Ctor.
+     * @param origin Origin slice
+     * @param metrics Metrics
+     * @param route Route name
+     */
+    public MeasuredSlice(final Slice origin, final Metrics metrics, final String route) {
+        this.origin = origin;
+        this.metrics = metrics;
+        this.route = route;
+    }
+
+    @Override
+    public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body) {
+        final long start = System.nanoTime();
+        this.metrics.count(String.format("%s.requests", this.route), 1);
+        final Response res = this.origin.response(
+            line, headers, this.counted(body, String.format("%s.bytes.in", this.route))
+        );
+        return connection -> res.send(
+            (status, rsheaders, rsbody) -> connection.accept(
+                status, rsheaders, this.counted(rsbody, String.format("%s.bytes.out", this.route))
+            )
+        ).whenComplete(
+            (nothing, err) -> this.metrics.time(
+                String.format("%s.latency", this.route), System.nanoTime() - start
+            )
+        );
+    }
+
+    /**
+     * Counts body bytes while body is sent.
+     * @param body Body
+     * @param name Counter name
+     * @return Counted body
+     */
+    private Publisher<ByteBuffer> counted(final Publisher<ByteBuffer> body, final String name) {
+        return Flowable.fromPublisher(body)
+            .doOnNext(buf -> this.metrics.count(name, buf.remaining()));
+    }
+}
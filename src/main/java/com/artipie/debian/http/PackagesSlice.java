@@ -0,0 +1,256 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.FailedCompletionStage;
+import com.artipie.asto.Key;
+import com.artipie.asto.Remaining;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ValueNotFoundException;
+import com.artipie.asto.ext.Digests;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.debian.misc.InflatedContent;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.StandardRs;
+import com.artipie.http.slice.KeyFromPath;
+import io.reactivex.Flowable;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
+
+/**
+ * Slice to serve uncompressed Packages index: Packages.gz stored next to the requested index
+ * is inflated on the fly right into the response, uncompressed copy is never saved to the
+ * storage. Recently served small indexes are kept in memory with the SHA-256 digest of
+ * Packages.gz they were inflated from, cached index is used while the digest of Packages.gz
+ * does not change. Packages.gz is read with the single storage call per request.
+ * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class PackagesSlice implements Slice {
+
+    /**
+     * Default number of cached indexes.
+     */
+    private static final int ENTRIES = 8;
+
+    /**
+     * Default max size of the cached index.
+     */
+    private static final int LIMIT = 4 * 1024 * 1024;
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Max number of cached indexes.
+     */
+    private final int entries;
+
+    /**
+     * Max size of the cached index.
+     */
+    private final int limit;
+
+    /**
+     * Cached indexes by Packages.gz key.
+     */
+    private final Map<String, Cached> cache;
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     */
+    public PackagesSlice(final Storage asto) {
+        this(asto, PackagesSlice.ENTRIES, PackagesSlice.LIMIT);
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param entries Max number of cached indexes, 0 to disable cache
+     * @param limit Max size of the cached index in bytes
+     */
+    public PackagesSlice(final Storage asto, final int entries, final int limit) {
+        this.asto = asto;
+        this.limit = limit;
+        this.entries = entries;
+        this.cache = new ConcurrentHashMap<>(entries);
+    }
+
+    @Override
+    public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body) {
+        final Key packed = new Key.From(
+            String.format(
+                "%s.gz", new KeyFromPath(new RequestLineFrom(line).uri().getPath()).string()
+            )
+        );
+        return new AsyncResponse(
+            this.asto.value(packed).thenCompose(content -> this.index(packed, content)).handle(
+                (rsp, err) -> {
+                    final CompletionStage<Response> res;
+                    if (err == null) {
+                        res = CompletableFuture.completedFuture(rsp);
+                    } else if (err.getCause() instanceof ValueNotFoundException) {
+                        res = CompletableFuture.completedFuture(StandardRs.NOT_FOUND);
+                    } else {
+                        res = new FailedCompletionStage<>(err);
+                    }
+                    return res;
+                }
+            ).thenCompose(Function.identity())
+        );
+    }
+
+    /**
+     * Responds with uncompressed index from cache or inflates Packages.gz. Cached index is
+     * checked only if Packages.gz fits the size limit, so it can be read to memory to
+     * calculate the digest.
+     * @param packed Packages.gz key
+     * @param content Packages.gz content
+     * @return Completion action with the response
+     */
+    private CompletionStage<Response> index(final Key packed, final Content content) {
+        final Cached cached = this.cache.get(packed.string());
+        final CompletionStage<Response> res;
+        if (cached != null && content.size().filter(size -> size <= this.limit).isPresent()) {
+            res = new PublisherAs(content).bytes().thenApply(
+                bytes -> {
+                    final Response rsp;
+                    if (cached.matches(Digests.SHA256.get().digest(bytes))) {
+                        cached.used.set(System.nanoTime());
+                        rsp = new RsWithBody(StandardRs.OK, cached.index);
+                    } else {
+                        rsp = new RsWithBody(
+                            StandardRs.OK, this.caching(packed, new Content.From(bytes))
+                        );
+                    }
+                    return rsp;
+                }
+            );
+        } else {
+            res = CompletableFuture.completedFuture(
+                new RsWithBody(StandardRs.OK, this.caching(packed, content))
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Inflates Packages.gz and copies inflated index to the cache while it is sent, if it
+     * fits the size limit. The digest of Packages.gz is calculated on the way.
+     * @param packed Packages.gz key
+     * @param content Packages.gz content
+     * @return Inflated index publisher
+     */
+    private Publisher<ByteBuffer> caching(final Key packed, final Publisher<ByteBuffer> content) {
+        return Flowable.defer(
+            () -> {
+                final MessageDigest digest = Digests.SHA256.get();
+                final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+                final AtomicBoolean fits = new AtomicBoolean(true);
+                return Flowable.fromPublisher(
+                    new InflatedContent(
+                        Flowable.fromPublisher(content)
+                            .doOnNext(buf -> digest.update(buf.duplicate()))
+                    )
+                ).doOnNext(
+                    buf -> {
+                        if (fits.get() && copy.size() + buf.remaining() <= this.limit) {
+                            copy.write(new Remaining(buf, true).bytes());
+                        } else {
+                            fits.set(false);
+                            copy.reset();
+                        }
+                    }
+                ).doOnComplete(
+                    () -> {
+                        if (fits.get()) {
+                            this.remember(
+                                packed.string(), new Cached(digest.digest(), copy.toByteArray())
+                            );
+                        }
+                    }
+                );
+            }
+        );
+    }
+
+    /**
+     * Puts index to the cache evicting least recently used index if cache is full.
+     * @param key Packages.gz key
+     * @param index Uncompressed index
+     */
+    private void remember(final String key, final Cached index) {
+        if (this.entries > 0) {
+            while (this.cache.size() >= this.entries && !this.cache.containsKey(key)) {
+                this.cache.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().used.get()))
+                    .ifPresent(entry -> this.cache.remove(entry.getKey(), entry.getValue()));
+            }
+            this.cache.put(key, index);
+        }
+    }
+
+    /**
+     * Cached uncompressed index.
+     * @since 0.9
+     */
+    private static final class Cached {
+
+        /**
+         * SHA-256 digest of Packages.gz the index was inflated from.
+         */
+        private final byte[] digest;
+
+        /**
+         * Uncompressed index.
+         */
+        private final byte[] index;
+
+        /**
+         * Last time the index was used, nanoseconds.
+         */
+        private final AtomicLong used;
+
+        /**
+         * Ctor.
+         * @param digest SHA-256 digest of Packages.gz the index was inflated from
+         * @param index Uncompressed index
+         */
+        @SuppressWarnings("PMD.ArrayIsStoredDirectly")
+        Cached(final byte[] digest, final byte[] index) {
+            this.digest = digest;
+            this.index = index;
+            this.used = new AtomicLong(System.nanoTime());
+        }
+
+        /**
+         * Checks that the index was inflated from Packages.gz with the digest.
+         * @param other SHA-256 digest of Packages.gz
+         * @return True if digests are equal
+         */
+        boolean matches(final byte[] other) {
+            return MessageDigest.isEqual(this.digest, other);
+        }
+    }
+}
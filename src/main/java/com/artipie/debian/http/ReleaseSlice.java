@@ -8,19 +8,32 @@ import com.artipie.asto.Storage;
 import com.artipie.debian.Config;
 import com.artipie.debian.metadata.InRelease;
 import com.artipie.debian.metadata.Release;
+import com.artipie.debian.metrics.Metrics;
+import com.artipie.debian.metrics.Timed;
+import com.artipie.debian.misc.Signer;
 import com.artipie.http.Response;
 import com.artipie.http.Slice;
 import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.slice.KeyFromPath;
 import java.nio.ByteBuffer;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
 import org.reactivestreams.Publisher;
 
 /**
  * Release slice decorator.
- * Checks, whether Release index exists and creates it if necessary.
+ * Checks, whether Release index exists and creates it if necessary. Once Release is
+ * observed or created, the slice remembers it and does not check the storage anymore until
+ * the write request to the Release key (which can replace or remove it) is processed.
+ * Concurrent requests to the repository without Release share one in-flight bootstrap,
+ * so Release and InRelease are created and signed once.
  * @since 0.2
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 public final class ReleaseSlice implements Slice {
 
@@ -44,6 +57,17 @@ public final class ReleaseSlice implements Slice {
      */
     private final InRelease inrelease;
 
+    /**
+     * Release bootstrap: empty if Release state is unknown, in-flight future while Release is
+     * being checked and created, completed future if Release is known to exist.
+     */
+    private final AtomicReference<CompletableFuture<Void>> bootstrap;
+
+    /**
+     * Metrics, `release.bootstrap` timer records the duration of Release bootstrap.
+     */
+    private final Metrics metrics;
+
     /**
      * Ctor.
      * @param origin Origin
@@ -54,10 +78,7 @@ public final class ReleaseSlice implements Slice {
      */
     public ReleaseSlice(final Slice origin, final Storage asto, final Release release,
         final InRelease inrelease) {
-        this.origin = origin;
-        this.release = release;
-        this.storage = asto;
-        this.inrelease = inrelease;
+        this(origin, asto, release, inrelease, new AtomicReference<>());
     }
 
     /**
@@ -67,7 +88,91 @@ public final class ReleaseSlice implements Slice {
      * @param config Repository configuration
      */
     public ReleaseSlice(final Slice origin, final Storage asto, final Config config) {
-        this(origin, asto, new Release.Asto(asto, config), new InRelease.Asto(asto, config));
+        this(origin, asto, config, config.gpg().map(Signer.Gpg::new));
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin
+     * @param asto Storage
+     * @param config Repository configuration
+     * @param signer Indexes signer, empty if indexes should not be signed
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public ReleaseSlice(final Slice origin, final Storage asto, final Config config,
+        final Optional<Signer> signer) {
+        this(origin, asto, config, signer, new AtomicReference<>());
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin
+     * @param asto Storage
+     * @param config Repository configuration
+     * @param signer Indexes signer, empty if indexes should not be signed
+     * @param bootstrap Release bootstrap, shared by the slices of the same repository
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    ReleaseSlice(final Slice origin, final Storage asto, final Config config,
+        final Optional<Signer> signer,
+        final AtomicReference<CompletableFuture<Void>> bootstrap) {
+        this(origin, asto, config, signer, bootstrap, new Metrics.Noop());
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin
+     * @param asto Storage
+     * @param config Repository configuration
+     * @param signer Indexes signer, empty if indexes should not be signed
+     * @param bootstrap Release bootstrap, shared by the slices of the same repository
+     * @param metrics Metrics
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    ReleaseSlice(final Slice origin, final Storage asto, final Config config,
+        final Optional<Signer> signer,
+        final AtomicReference<CompletableFuture<Void>> bootstrap, final Metrics metrics) {
+        this(
+            origin, asto,
+            new Release.Asto(asto, config, signer), new InRelease.Asto(asto, config, signer),
+            bootstrap, metrics
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin
+     * @param asto Storage
+     * @param release Release index
+     * @param inrelease InRelease index
+     * @param bootstrap Release bootstrap
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    ReleaseSlice(final Slice origin, final Storage asto, final Release release,
+        final InRelease inrelease,
+        final AtomicReference<CompletableFuture<Void>> bootstrap) {
+        this(origin, asto, release, inrelease, bootstrap, new Metrics.Noop());
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin
+     * @param asto Storage
+     * @param release Release index
+     * @param inrelease InRelease index
+     * @param bootstrap Release bootstrap
+     * @param metrics Metrics
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    ReleaseSlice(final Slice origin, final Storage asto, final Release release,
+        final InRelease inrelease,
+        final AtomicReference<CompletableFuture<Void>> bootstrap, final Metrics metrics) {
+        this.origin = origin;
+        this.metrics = metrics;
+        this.release = release;
+        this.storage = asto;
+        this.inrelease = inrelease;
+        this.bootstrap = bootstrap;
     }
 
     @Override
@@ -76,24 +181,101 @@ public final class ReleaseSlice implements Slice {
         final Iterable<Map.Entry<String, String>> headers,
         final Publisher<ByteBuffer> body
     ) {
-        return new AsyncResponse(
-            this.storage.exists(this.release.key()).thenCompose(
-                exists -> {
-                    final CompletionStage<Response> res;
-                    if (exists) {
-                        res = CompletableFuture.completedFuture(
-                            this.origin.response(line, headers, body)
-                        );
-                    } else {
-                        res = this.release.create().thenCompose(
-                            nothing ->  this.inrelease.generate(this.release.key())
-                        ).thenApply(
-                            nothing -> this.origin.response(line, headers, body)
-                        );
-                    }
-                    return res;
+        final Response res;
+        if (this.removes(line)) {
+            res = new AsyncResponse(
+                this.ensure().thenApply(
+                    nothing -> connection -> this.origin.response(line, headers, body)
+                        .send(connection)
+                        .thenRun(() -> this.bootstrap.set(null))
+                )
+            );
+        } else if (this.known()) {
+            res = this.origin.response(line, headers, body);
+        } else {
+            res = new AsyncResponse(
+                this.ensure().thenApply(nothing -> this.origin.response(line, headers, body))
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Whether Release index is known to exist.
+     * @return True if Release bootstrap is completed
+     */
+    private boolean known() {
+        final CompletableFuture<Void> current = this.bootstrap.get();
+        return current != null && current.isDone() && !current.isCompletedExceptionally();
+    }
+
+    /**
+     * Makes sure Release index exists: joins in-flight bootstrap or starts the new one.
+     * @return Completion action
+     */
+    private CompletionStage<Void> ensure() {
+        final CompletableFuture<Void> res;
+        final CompletableFuture<Void> current = this.bootstrap.get();
+        if (current == null) {
+            final CompletableFuture<Void> fresh = new CompletableFuture<>();
+            if (this.bootstrap.compareAndSet(null, fresh)) {
+                this.start(fresh);
+                res = fresh;
+            } else {
+                res = this.ensure().toCompletableFuture();
+            }
+        } else {
+            res = current;
+        }
+        return res;
+    }
+
+    /**
+     * Runs Release bootstrap, forgets it on failure so that the next request could retry.
+     * @param fresh Bootstrap future to complete
+     */
+    private void start(final CompletableFuture<Void> fresh) {
+        new Timed(this.metrics, "release.bootstrap").measured(this::create).whenComplete(
+            (nothing, err) -> {
+                if (err == null) {
+                    fresh.complete(null);
+                } else {
+                    this.bootstrap.compareAndSet(fresh, null);
+                    fresh.completeExceptionally(err);
                 }
-            )
+            }
         );
     }
+
+    /**
+     * Checks whether Release index exists, creates Release and InRelease if it does not.
+     * @return Completion action
+     */
+    private CompletionStage<Void> create() {
+        return this.storage.exists(this.release.key()).thenCompose(
+            exists -> {
+                final CompletionStage<Void> res;
+                if (exists) {
+                    res = CompletableFuture.allOf();
+                } else {
+                    res = this.release.create().thenCompose(
+                        nothing -> this.inrelease.generate(this.release.key())
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Whether request is a write to the Release key, which can replace or remove the index.
+     * @param line Request line
+     * @return True if request can remove Release index
+     */
+    private boolean removes(final String line) {
+        final RequestLineFrom rqline = new RequestLineFrom(line);
+        return rqline.method() != RqMethod.GET && rqline.method() != RqMethod.HEAD
+            && new KeyFromPath(rqline.uri().getPath()).string()
+                .equals(this.release.key().string());
+    }
 }
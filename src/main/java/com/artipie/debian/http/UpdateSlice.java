@@ -4,7 +4,9 @@
  */
 package com.artipie.debian.http;
 
+import com.artipie.ArtipieException;
 import com.artipie.asto.Content;
+import com.artipie.asto.FailedCompletionStage;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.ext.PublisherAs;
@@ -15,17 +17,29 @@ import com.artipie.debian.metadata.InRelease;
 import com.artipie.debian.metadata.PackagesItem;
 import com.artipie.debian.metadata.Release;
 import com.artipie.debian.metadata.UniquePackage;
+import com.artipie.debian.metrics.Metrics;
+import com.artipie.debian.metrics.Timed;
+import com.artipie.debian.misc.ContentHead;
+import com.artipie.debian.misc.DebHead;
+import com.artipie.debian.misc.Gzip;
+import com.artipie.debian.misc.Signer;
+import com.artipie.debian.tracing.Exporter;
+import com.artipie.debian.tracing.Trace;
+import com.artipie.debian.tracing.TracedStorage;
 import com.artipie.http.Response;
 import com.artipie.http.Slice;
 import com.artipie.http.async.AsyncResponse;
 import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rq.RqHeaders;
 import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithHeaders;
 import com.artipie.http.rs.RsWithStatus;
 import com.artipie.http.rs.StandardRs;
 import com.artipie.http.slice.KeyFromPath;
 import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.function.Function;
@@ -35,11 +49,21 @@ import org.reactivestreams.Publisher;
 
 /**
  * Debian update slice adds uploaded slice to the storage and updates Packages index.
+ * Package control file is read from the head of the request body before the package is
+ * saved, so the package with not supported architecture is rejected without saving.
+ * Optionally, indexing is performed in background by {@link IndexingQueue}.
  * @since 0.1
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle ClassFanOutComplexityCheck (500 lines)
  */
+@SuppressWarnings("PMD.TooManyMethods")
 public final class UpdateSlice implements Slice {
 
+    /**
+     * Control file reading timer name.
+     */
+    private static final String CONTROL_TIMER = "upload.control";
+
     /**
      * Abstract storage.
      */
@@ -50,81 +74,475 @@ public final class UpdateSlice implements Slice {
      */
     private final Config config;
 
+    /**
+     * Release and InRelease indexes signer, empty if indexes should not be signed.
+     */
+    private final Optional<Signer> signer;
+
+    /**
+     * Background indexing queue, empty if package should be indexed before the response.
+     */
+    private final Optional<IndexingQueue> queue;
+
+    /**
+     * Metrics, upload stages durations are recorded to `upload.*` timers.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Exporter of the upload trace spans.
+     */
+    private final Exporter exporter;
+
+    /**
+     * Packages index compression.
+     */
+    private final Gzip gzip;
+
+    /**
+     * Index writes performed before the response, used if there is no queue.
+     */
+    private final IndexWrites writes;
+
     /**
      * Ctor.
      * @param asto Abstract storage
      * @param config Repository configuration
      */
     public UpdateSlice(final Storage asto, final Config config) {
+        this(asto, config, config.gpg().map(Signer.Gpg::new));
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param signer Indexes signer, empty if indexes should not be signed
+     */
+    public UpdateSlice(final Storage asto, final Config config, final Optional<Signer> signer) {
+        this(asto, config, signer, Optional.empty());
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param signer Indexes signer, empty if indexes should not be signed
+     * @param queue Background indexing queue: if present, the response `202 Accepted` with
+     *  the indexing status location is sent as soon as the package is saved, and the
+     *  package is indexed in background
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public UpdateSlice(final Storage asto, final Config config, final Optional<Signer> signer,
+        final Optional<IndexingQueue> queue) {
+        this(asto, config, signer, queue, new Metrics.Noop());
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param signer Indexes signer, empty if indexes should not be signed
+     * @param queue Background indexing queue, empty if package should be indexed before
+     *  the response is sent
+     * @param metrics Metrics to record the duration of upload stages: `upload.store`,
+     *  `upload.control`, `upload.digest`, `upload.index`, `upload.release` and `upload.sign`
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public UpdateSlice(final Storage asto, final Config config, final Optional<Signer> signer,
+        final Optional<IndexingQueue> queue, final Metrics metrics) {
+        this(asto, config, signer, queue, metrics, new Exporter.Noop());
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param signer Indexes signer, empty if indexes should not be signed
+     * @param queue Background indexing queue, empty if package should be indexed before
+     *  the response is sent
+     * @param metrics Metrics to record the duration of upload stages
+     * @param exporter Exporter of the upload trace: the root `upload` span, nested spans of
+     *  the upload stages with the same names as the timers, spans of the indexes updates
+     *  and `storage.*` spans of the storage operations performed by each stage
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public UpdateSlice(final Storage asto, final Config config, final Optional<Signer> signer,
+        final Optional<IndexingQueue> queue, final Metrics metrics, final Exporter exporter) {
+        this(asto, config, signer, queue, metrics, exporter, Gzip.STANDARD);
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param signer Indexes signer, empty if indexes should not be signed
+     * @param queue Background indexing queue, empty if package should be indexed before
+     *  the response is sent
+     * @param metrics Metrics to record the duration of upload stages
+     * @param exporter Exporter of the upload trace
+     * @param gzip Packages index compression
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public UpdateSlice(final Storage asto, final Config config, final Optional<Signer> signer,
+        final Optional<IndexingQueue> queue, final Metrics metrics, final Exporter exporter,
+        final Gzip gzip) {
+        this(asto, config, signer, queue, metrics, exporter, gzip, new IndexWrites());
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param config Repository configuration
+     * @param signer Indexes signer, empty if indexes should not be signed
+     * @param queue Background indexing queue, empty if package should be indexed before
+     *  the response is sent
+     * @param metrics Metrics to record the duration of upload stages
+     * @param exporter Exporter of the upload trace
+     * @param gzip Packages index compression
+     * @param writes Index writes of the repository, packages are indexed through them
+     *  if there is no queue
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public UpdateSlice(final Storage asto, final Config config, final Optional<Signer> signer,
+        final Optional<IndexingQueue> queue, final Metrics metrics, final Exporter exporter,
+        final Gzip gzip, final IndexWrites writes) {
         this.asto = asto;
         this.config = config;
+        this.signer = signer;
+        this.queue = queue;
+        this.metrics = metrics;
+        this.exporter = exporter;
+        this.gzip = gzip;
+        this.writes = writes;
     }
 
     @Override
     public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
         final Publisher<ByteBuffer> body) {
-        final Key key = new KeyFromPath(new RequestLineFrom(line).uri().getPath());
+        final String path = new RequestLineFrom(line).uri().getPath();
+        final Key key = new KeyFromPath(path);
+        final String location = UpdateSlice.location(path, headers, key);
+        final ContentHead content = new ContentHead(body, new DebHead());
         return new AsyncResponse(
-            this.asto.save(key, new Content.From(body))
-                .thenCompose(nothing -> this.asto.value(key))
-                .thenCompose(content -> new PublisherAs(content).bytes())
-                .thenApply(bytes -> new Control.FromBinary(bytes).asString())
-                .thenCompose(
-                    control -> {
-                        final List<String> common = new ControlField.Architecture().value(control)
-                            .stream().filter(item -> this.config.archs().contains(item))
-                            .collect(Collectors.toList());
+            new Trace(this.exporter).span(
+                "upload",
+                trace -> content.head().handle(
+                    (head, throwable) -> {
                         final CompletionStage<Response> res;
-                        if (common.isEmpty()) {
-                            res = this.asto.delete(key).thenApply(
-                                nothing -> new RsWithStatus(RsStatus.BAD_REQUEST)
-                            );
+                        if (throwable == null) {
+                            res = this.accept(key, content, head, location, trace);
                         } else {
-                            res = this.generateIndexes(key, control, common)
-                                .thenApply(nothing -> StandardRs.OK);
+                            content.cancel();
+                            res = CompletableFuture.completedFuture(
+                                new RsWithStatus(RsStatus.BAD_REQUEST)
+                            );
                         }
                         return res;
                     }
-                ).handle(
-                    (resp, throwable) -> {
-                        final CompletionStage<Response> res;
-                        if (throwable == null) {
-                            res = CompletableFuture.completedFuture(resp);
+                ).thenCompose(Function.identity())
+            )
+        );
+    }
+
+    /**
+     * Reads control file from the package head and uploads the package if its architecture
+     * is supported.
+     * @param key Deb package key
+     * @param content Package content
+     * @param head Package head
+     * @param location Indexing status location
+     * @param trace Upload trace context
+     * @return Completion action with the response
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<Response> accept(final Key key, final ContentHead content,
+        final byte[] head, final String location, final Trace trace) {
+        return this.stage(
+            UpdateSlice.CONTROL_TIMER, trace,
+            nested -> CompletableFuture.completedFuture(UpdateSlice.control(head))
+        ).thenCompose(
+            control -> {
+                final CompletionStage<Response> res;
+                if (control.isPresent() && this.archs(control.get()).isEmpty()) {
+                    content.cancel();
+                    res = CompletableFuture.completedFuture(
+                        new RsWithStatus(RsStatus.BAD_REQUEST)
+                    );
+                } else {
+                    res = this.upload(key, content, control, location, trace);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Saves package and indexes it or adds it to the background indexing queue.
+     * @param key Deb package key
+     * @param content Package content
+     * @param control Control file content, empty if control was not read from package head
+     * @param location Indexing status location
+     * @param trace Upload trace context
+     * @return Completion action with the response
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<Response> upload(final Key key, final Publisher<ByteBuffer> content,
+        final Optional<String> control, final String location, final Trace trace) {
+        final CompletionStage<Response> res;
+        if (this.queue.isPresent()) {
+            res = this.store(key, content, trace).thenApply(
+                nothing -> {
+                    this.queue.get().add(
+                        key,
+                        () -> new Trace(this.exporter).span(
+                            "indexing", nested -> this.indexInBackground(key, control, nested)
+                        )
+                    );
+                    return new RsWithHeaders(
+                        new RsWithStatus(RsStatus.ACCEPTED), "Location", location
+                    );
+                }
+            );
+        } else {
+            res = this.store(key, content, trace)
+                .thenCompose(
+                    nothing -> this.writes.submit(() -> this.index(key, control, trace))
+                )
+                .thenApply(
+                    indexed -> {
+                        final Response rsp;
+                        if (indexed) {
+                            rsp = StandardRs.OK;
                         } else {
-                            res = this.asto.delete(key)
-                                .thenApply(nothing -> new RsWithStatus(RsStatus.INTERNAL_ERROR));
+                            rsp = new RsWithStatus(RsStatus.BAD_REQUEST);
                         }
-                        return res;
+                        return rsp;
                     }
-            ).thenCompose(Function.identity())
+                );
+        }
+        return res.handle(
+            (resp, throwable) -> {
+                final CompletionStage<Response> rsp;
+                if (throwable == null) {
+                    rsp = CompletableFuture.completedFuture(resp);
+                } else {
+                    rsp = this.asto.delete(key)
+                        .thenApply(nothing -> new RsWithStatus(RsStatus.INTERNAL_ERROR));
+                }
+                return rsp;
+            }
+        ).thenCompose(Function.identity());
+    }
+
+    /**
+     * Indexes saved package: reads control file if it was not read from package head, checks
+     * package architecture and generates indexes. Package is removed if the architecture
+     * is not supported by the repository.
+     * @param key Deb package key
+     * @param head Control file content, empty if control was not read from package head
+     * @param trace Upload trace context
+     * @return Completion action with true if package was indexed and false if
+     *  the architecture is not supported
+     */
+    private CompletionStage<Boolean> index(final Key key, final Optional<String> head,
+        final Trace trace) {
+        return head.<CompletionStage<String>>map(CompletableFuture::completedFuture).orElseGet(
+            () -> this.stage(
+                UpdateSlice.CONTROL_TIMER, trace,
+                nested -> new TracedStorage(this.asto, nested).value(key)
+                    .thenCompose(content -> new PublisherAs(content).bytes())
+                    .thenApply(bytes -> new Control.FromBinary(bytes).asString())
+            )
+        ).thenCompose(
+            control -> {
+                final List<String> common = this.archs(control);
+                final CompletionStage<Boolean> res;
+                if (common.isEmpty()) {
+                    res = this.asto.delete(key).thenApply(nothing -> false);
+                } else {
+                    res = this.generateIndexes(key, control, common, trace)
+                        .thenApply(nothing -> true);
+                }
+                return res;
+            }
         );
     }
 
+    /**
+     * Indexes saved package in background, removes the package if indexing failed.
+     * @param key Deb package key
+     * @param head Control file content, empty if control was not read from package head
+     * @param trace Upload trace context
+     * @return Completion action, failed if package was not indexed
+     */
+    private CompletionStage<Void> indexInBackground(final Key key, final Optional<String> head,
+        final Trace trace) {
+        return this.index(key, head, trace).handle(
+            (indexed, throwable) -> {
+                final CompletionStage<Void> res;
+                if (throwable == null && indexed) {
+                    res = CompletableFuture.allOf();
+                } else if (throwable == null) {
+                    res = new FailedCompletionStage<>(
+                        new ArtipieException(
+                            "Package architecture is not supported by the repository"
+                        )
+                    );
+                } else {
+                    res = this.asto.delete(key).thenCompose(
+                        nothing -> new FailedCompletionStage<>(throwable)
+                    );
+                }
+                return res;
+            }
+        ).thenCompose(Function.identity());
+    }
+
+    /**
+     * Package architectures supported by the repository.
+     * @param control Control file content
+     * @return Supported architectures
+     */
+    private List<String> archs(final String control) {
+        return new ControlField.Architecture().value(control).stream()
+            .filter(item -> this.config.archs().contains(item))
+            .collect(Collectors.toList());
+    }
+
     /**
      * Generates Packages, Release and InRelease indexes.
      * @param key Deb package key
      * @param control Control file content
      * @param archs Architectures
+     * @param trace Upload trace context
      * @return Completion action
+     * @checkstyle ParameterNumberCheck (5 lines)
      */
     private CompletionStage<Void> generateIndexes(final Key key, final String control,
-        final List<String> archs) {
-        final Release release = new Release.Asto(this.asto, this.config);
-        return new PackagesItem.Asto(this.asto).format(control, key).thenCompose(
-            item -> CompletableFuture.allOf(
-                archs.stream().map(
-                    arc -> String.format(
-                        "dists/%s/main/binary-%s/Packages.gz",
-                        this.config.codename(), arc
-                    )
-                ).map(
-                    index -> new UniquePackage(this.asto)
-                        .add(new ListOf<>(item), new Key.From(index))
-                        .thenCompose(nothing -> release.update(new Key.From(index)))
-                ).toArray(CompletableFuture[]::new)
-            ).thenCompose(
-                nothing -> new InRelease.Asto(this.asto, this.config).generate(release.key())
+        final List<String> archs, final Trace trace) {
+        final Optional<Signer> measured = this.signer.map(
+            sgn -> new Signer.Measured(sgn, this.metrics, "upload.sign")
+        );
+        final List<Key> indexes = archs.stream().map(
+            arc -> new Key.From(
+                String.format("dists/%s/main/binary-%s/Packages.gz", this.config.codename(), arc)
+            )
+        ).collect(Collectors.toList());
+        return this.stage(
+            "upload.digest", trace,
+            nested -> new PackagesItem.Asto(new TracedStorage(this.asto, nested), this.metrics)
+                .format(control, key)
+        ).thenCompose(
+            item -> this.stage(
+                "upload.index", trace,
+                nested -> CompletableFuture.allOf(
+                    indexes.stream().map(
+                        index -> new UniquePackage(
+                            new TracedStorage(this.asto, nested), this.gzip,
+                            this.metrics, nested
+                        ).add(new ListOf<>(item), index)
+                    ).toArray(CompletableFuture[]::new)
+                )
+            )
+        ).thenCompose(
+            nothing -> this.stage(
+                "upload.release", trace,
+                nested -> this.release(indexes, measured, nested)
+            )
+        );
+    }
+
+    /**
+     * Updates Release index and generates InRelease index.
+     * @param indexes Updated Packages indexes
+     * @param signing Indexes signer, empty if indexes should not be signed
+     * @param trace Trace context
+     * @return Completion action
+     */
+    private CompletionStage<Void> release(final List<Key> indexes,
+        final Optional<Signer> signing, final Trace trace) {
+        return trace.span(
+            "release.update",
+            nested -> {
+                final Release release = new Release.Asto(
+                    new TracedStorage(this.asto, nested), this.config, signing, this.metrics
+                );
+                return release.update(indexes).thenApply(nothing -> release.key());
+            }
+        ).thenCompose(
+            key -> trace.span(
+                "inrelease.generate",
+                nested -> new InRelease.Asto(
+                    new TracedStorage(this.asto, nested), this.config, signing, this.metrics
+                ).generate(key)
             )
         );
     }
+
+    /**
+     * Saves package to the storage.
+     * @param key Deb package key
+     * @param content Package content
+     * @param trace Upload trace context
+     * @return Completion action
+     */
+    private CompletionStage<Void> store(final Key key, final Publisher<ByteBuffer> content,
+        final Trace trace) {
+        return this.stage(
+            "upload.store", trace,
+            nested -> new TracedStorage(this.asto, nested).save(key, new Content.From(content))
+        );
+    }
+
+    /**
+     * Starts the upload stage in the span nested into the trace context and records the stage
+     * duration to the timer with the same name.
+     * @param name Stage name
+     * @param trace Trace context
+     * @param stage Stage to start, accepts the context of the stage span
+     * @param <T> Stage result type
+     * @return Stage completion
+     */
+    private <T> CompletionStage<T> stage(final String name, final Trace trace,
+        final Function<Trace, CompletionStage<T>> stage) {
+        return trace.span(
+            name,
+            nested -> new Timed(this.metrics, name).measured(() -> stage.apply(nested))
+        );
+    }
+
+    /**
+     * Indexing status location of the package. If the slice is mounted under the repository
+     * name, the repository path prefix is taken from the full request path.
+     * @param path Request path
+     * @param headers Request headers
+     * @param key Deb package key
+     * @return Status location
+     */
+    private static String location(final String path,
+        final Iterable<Map.Entry<String, String>> headers, final Key key) {
+        final String full = new RqHeaders(headers, "X-FullPath").stream().findFirst()
+            .orElse(path);
+        String prefix = "";
+        if (full.endsWith(path)) {
+            prefix = full.substring(0, full.length() - path.length());
+        }
+        return String.format("%s/%s/%s", prefix, IndexingStatusSlice.PATH, key.string());
+    }
+
+    /**
+     * Reads control file from package head.
+     * @param head Package head
+     * @return Control file content, empty if control can not be read from the head
+     */
+    private static Optional<String> control(final byte[] head) {
+        Optional<String> res;
+        try {
+            res = Optional.of(new Control.FromBinary(head).asString());
+        } catch (final IllegalStateException ex) {
+            res = Optional.empty();
+        }
+        return res;
+    }
 }
@@ -9,8 +9,10 @@ import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.ext.PublisherAs;
 import com.artipie.debian.Config;
-import com.artipie.debian.GpgConfig;
-import com.artipie.debian.misc.GpgClearsign;
+import com.artipie.debian.metrics.Metrics;
+import com.artipie.debian.metrics.Timed;
+import com.artipie.debian.misc.Signer;
+import java.util.Optional;
 import java.util.concurrent.CompletionStage;
 
 /**
@@ -35,7 +37,8 @@ public interface InRelease {
     Key key();
 
     /**
-     * Implementation of {@link InRelease} from abstract storage.
+     * Implementation of {@link InRelease} from abstract storage. Records to metrics the
+     * `inrelease.generate` timer.
      * @since 0.4
      */
     final class Asto implements InRelease {
@@ -50,28 +53,76 @@ public interface InRelease {
          */
         private final Config config;
 
+        /**
+         * InRelease index signer, empty if the index should not be signed.
+         */
+        private final Optional<Signer> signer;
+
+        /**
+         * Metrics.
+         */
+        private final Metrics metrics;
+
         /**
          * Ctor.
          * @param asto Abstract storage
          * @param config Repository config
          */
         public Asto(final Storage asto, final Config config) {
+            this(asto, config, config.gpg().map(Signer.Gpg::new));
+        }
+
+        /**
+         * Ctor.
+         * @param asto Abstract storage
+         * @param config Repository config
+         * @param signer InRelease index signer, empty if the index should not be signed
+         */
+        public Asto(final Storage asto, final Config config, final Optional<Signer> signer) {
+            this(asto, config, signer, new Metrics.Noop());
+        }
+
+        /**
+         * Ctor.
+         * @param asto Abstract storage
+         * @param config Repository config
+         * @param signer InRelease index signer, empty if the index should not be signed
+         * @param metrics Metrics
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        public Asto(final Storage asto, final Config config, final Optional<Signer> signer,
+            final Metrics metrics) {
             this.asto = asto;
             this.config = config;
+            this.signer = signer;
+            this.metrics = metrics;
         }
 
         @Override
         public CompletionStage<Void> generate(final Key release) {
+            return new Timed(this.metrics, "inrelease.generate").measured(
+                () -> this.generated(release)
+            );
+        }
+
+        @Override
+        public Key key() {
+            return new Key.From("dists", this.config.codename(), "InRelease");
+        }
+
+        /**
+         * Generates InRelease index.
+         * @param release Release index key
+         * @return Completion action
+         */
+        private CompletionStage<Void> generated(final Key release) {
             final CompletionStage<Void> res;
-            if (this.config.gpg().isPresent()) {
-                final GpgConfig gpg = this.config.gpg().get();
+            if (this.signer.isPresent()) {
+                final Signer sign = this.signer.get();
                 res = this.asto.value(release).thenApply(PublisherAs::new)
                     .thenCompose(PublisherAs::bytes)
-                    .thenCompose(
-                        bytes -> gpg.key().thenApply(
-                            key -> new GpgClearsign(bytes).signedContent(key, gpg.password())
-                        )
-                    ).thenCompose(bytes -> this.asto.save(this.key(), new Content.From(bytes)));
+                    .thenCompose(sign::signedContent)
+                    .thenCompose(bytes -> this.asto.save(this.key(), new Content.From(bytes)));
             } else {
                 res = this.asto.value(release).thenCompose(
                     content -> this.asto.save(this.key(), content)
@@ -79,10 +130,5 @@ public interface InRelease {
             }
             return res;
         }
-
-        @Override
-        public Key key() {
-            return new Key.From("dists", this.config.codename(), "InRelease");
-        }
     }
 }
@@ -9,6 +9,7 @@ import com.artipie.asto.Copy;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.fs.FileStorage;
+import com.artipie.debian.misc.Gzip;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
@@ -20,7 +21,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.concurrent.CompletionStage;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.apache.commons.io.FileUtils;
 import org.cactoos.list.ListOf;
 
@@ -55,12 +55,27 @@ public interface Package {
          */
         private final Storage asto;
 
+        /**
+         * Index compression.
+         */
+        private final Gzip gzip;
+
         /**
          * Ctor.
          * @param asto Storage
          */
         public Asto(final Storage asto) {
+            this(asto, Gzip.STANDARD);
+        }
+
+        /**
+         * Ctor.
+         * @param asto Storage
+         * @param gzip Index compression
+         */
+        public Asto(final Storage asto, final Gzip gzip) {
             this.asto = asto;
+            this.gzip = gzip;
         }
 
         @Override
@@ -77,7 +92,7 @@ public interface Package {
                                 .copy(new FileStorage(temp))
                                 .thenAccept(
                                     nothing -> decompressAppendCompress(
-                                        temp.resolve(index.string()), latest, bytes
+                                        temp.resolve(index.string()), latest, bytes, this.gzip
                                     )
                                 ).thenCompose(
                                     nothing -> new FileStorage(temp)
@@ -90,7 +105,7 @@ public interface Package {
                             throw new IllegalStateException("Failed to create temp dir", err);
                         }
                     } else {
-                        res = this.asto.save(index, new Content.From(compress(bytes)));
+                        res = this.asto.save(index, new Content.From(compress(bytes, this.gzip)));
                     }
                     return res;
                 }
@@ -103,18 +118,19 @@ public interface Package {
          * @param decompress File to decompress
          * @param res Where to write the result
          * @param append New bytes to append
+         * @param gzip Compression
+         * @checkstyle ParameterNumberCheck (5 lines)
          */
         @SuppressWarnings("PMD.AssignmentInOperand")
         private static void decompressAppendCompress(
-            final Path decompress, final Path res, final byte[] append
+            final Path decompress, final Path res, final byte[] append, final Gzip gzip
         ) {
             try (
                 OutputStream baos = new BufferedOutputStream(Files.newOutputStream(res));
                 GzipCompressorInputStream gcis = new GzipCompressorInputStream(
                     new BufferedInputStream(Files.newInputStream(decompress))
                 );
-                GzipCompressorOutputStream gcos =
-                    new GzipCompressorOutputStream(new BufferedOutputStream(baos))
+                OutputStream gcos = gzip.compressing(new BufferedOutputStream(baos))
             ) {
                 // @checkstyle MagicNumberCheck (1 line)
                 final byte[] buf = new byte[1024];
@@ -132,13 +148,12 @@ public interface Package {
         /**
          * Compress text for new Package index.
          * @param bytes Bytes to compress
+         * @param gzip Compression
          * @return Compressed bytes
          */
-        private static byte[] compress(final byte[] bytes) {
+        private static byte[] compress(final byte[] bytes, final Gzip gzip) {
             final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            try (GzipCompressorOutputStream gcos =
-                new GzipCompressorOutputStream(new BufferedOutputStream(baos))
-                ) {
+            try (OutputStream gcos = gzip.compressing(new BufferedOutputStream(baos))) {
                 gcos.write(bytes);
             } catch (final IOException err) {
                 throw new UncheckedIOException(err);
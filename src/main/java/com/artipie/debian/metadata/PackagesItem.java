@@ -6,11 +6,17 @@ package com.artipie.debian.metadata;
 
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
-import com.artipie.asto.ext.ContentDigest;
 import com.artipie.asto.ext.Digests;
+import com.artipie.debian.metrics.Metrics;
+import com.artipie.debian.metrics.Timed;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import io.reactivex.Flowable;
+import java.security.MessageDigest;
 import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import org.apache.commons.codec.binary.Hex;
 
 /**
  * Packages index item.
@@ -27,72 +33,97 @@ public interface PackagesItem {
     CompletionStage<String> format(String content, Key key);
 
     /**
-     * {@link PackagesItem} from abstract storage.
+     * {@link PackagesItem} from abstract storage. Package is read from the storage once, all
+     * the checksums are calculated in one pass. Records to metrics the `item.format` timer and
+     * `item.digested` counter of the package bytes read.
      * @since 0.1
      */
     final class Asto implements PackagesItem {
 
+        /**
+         * Checksum fields in the order of the calculated digests.
+         */
+        private static final String[] FIELDS = {"MD5sum", "SHA1", "SHA256"};
+
         /**
          * Abstract storage.
          */
         private final Storage asto;
 
+        /**
+         * Metrics.
+         */
+        private final Metrics metrics;
+
         /**
          * Ctor.
          * @param asto Storage
          */
         public Asto(final Storage asto) {
+            this(asto, new Metrics.Noop());
+        }
+
+        /**
+         * Ctor.
+         * @param asto Storage
+         * @param metrics Metrics
+         */
+        public Asto(final Storage asto, final Metrics metrics) {
             this.asto = asto;
+            this.metrics = metrics;
         }
 
         @Override
         public CompletionStage<String> format(final String control, final Key deb) {
-            return this.asto.value(deb).thenApply(
-                val -> Asto.addSizeAndFilename(
-                    val.size().orElseThrow(
-                        () -> new IllegalStateException("Content size unknown")
-                    ), deb.string(), control
-                )
-            )
-            .thenCompose(
-                res -> this.digests(deb, Digests.MD5)
-                    .thenApply(hex -> Asto.addDigest(res, "MD5sum", hex))
-            )
-            .thenCompose(
-                res -> this.digests(deb, Digests.SHA1)
-                    .thenApply(hex -> Asto.addDigest(res, "SHA1", hex))
-            )
-            .thenCompose(
-                res -> this.digests(deb, Digests.SHA256)
-                    .thenApply(hex -> Asto.addDigest(res, "SHA256", hex))
-            )
-            .thenApply(Asto::sort);
+            return new Timed(this.metrics, "item.format").measured(
+                () -> this.formatted(control, deb)
+            );
         }
 
         /**
-         * Calculates digest for the given algorithm.
-         * @param deb Debian package key
-         * @param alg Algorithm
-         * @return Digest hex
+         * Formats packages item.
+         * @param control Control file
+         * @param deb Deb package key
+         * @return Completion action with formatted package item
          */
-        private CompletionStage<String> digests(final Key deb, final Digests alg) {
+        private CompletionStage<String> formatted(final String control, final Key deb) {
             return this.asto.value(deb).thenCompose(
-                val -> new ContentDigest(val, alg).hex()
-            );
+                val -> {
+                    final String item = Asto.addSizeAndFilename(
+                        val.size().orElseThrow(
+                            () -> new IllegalStateException("Content size unknown")
+                        ), deb.string(), control
+                    );
+                    final MessageDigest[] digests = {
+                        Digests.MD5.get(), Digests.SHA1.get(), Digests.SHA256.get(),
+                    };
+                    return Flowable.fromPublisher(val).doOnNext(
+                        buf -> {
+                            this.metrics.count("item.digested", buf.remaining());
+                            for (final MessageDigest digest : digests) {
+                                digest.update(buf.duplicate());
+                            }
+                        }
+                    ).ignoreElements().to(CompletableInterop.await()).thenApply(
+                        nothing -> Asto.addDigests(item, digests)
+                    );
+                }
+            ).thenApply(Asto::sort);
         }
 
         /**
-         * Adds digest to control.
+         * Adds MD5sum, SHA1 and SHA256 digests to control.
          * @param control Control to append info to
-         * @param alg Algorithm
-         * @param hex Hex
-         * @return Control with digest
+         * @param digests MD5, SHA1 and SHA256 digests of the package content
+         * @return Control with digests
          */
-        private static String addDigest(final String control, final String alg, final String hex) {
+        private static String addDigests(final String control, final MessageDigest... digests) {
             return Stream.concat(
                 Stream.of(control.split("\n")),
-                Stream.of(
-                    String.format("%s: %s", alg, hex)
+                IntStream.range(0, digests.length).mapToObj(
+                    idx -> String.format(
+                        "%s: %s", Asto.FIELDS[idx], Hex.encodeHexString(digests[idx].digest())
+                    )
                 )
             ).collect(Collectors.joining("\n"));
         }
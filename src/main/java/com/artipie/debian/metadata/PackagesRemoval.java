@@ -0,0 +1,193 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metadata;
+
+import com.artipie.asto.Copy;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.fs.FileStorage;
+import com.artipie.debian.misc.Gzip;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.io.FileUtils;
+import org.cactoos.list.ListOf;
+
+/**
+ * Removal of the items from the packages index: index is read once, items with the given
+ * `Filename` field are skipped while the rest of the items are written into the new index.
+ * Index is replaced only if any item was removed.
+ * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class PackagesRemoval {
+
+    /**
+     * Filename field prefix.
+     */
+    private static final String FILENAME = "Filename: ";
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Index compression.
+     */
+    private final Gzip gzip;
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     */
+    public PackagesRemoval(final Storage asto) {
+        this(asto, Gzip.STANDARD);
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param gzip Index compression
+     */
+    public PackagesRemoval(final Storage asto, final Gzip gzip) {
+        this.asto = asto;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Removes items of the packages from the index.
+     * @param index Package index key
+     * @param debs Keys of the packages to remove
+     * @return Completion action with true if any item was removed, false if the index
+     *  does not exist or does not contain the packages
+     */
+    public CompletionStage<Boolean> remove(final Key index, final Collection<Key> debs) {
+        return this.asto.exists(index).thenCompose(
+            exists -> {
+                final CompletionStage<Boolean> res;
+                if (exists) {
+                    res = this.rewrite(index, debs);
+                } else {
+                    res = CompletableFuture.completedFuture(false);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Rewrites the index without the items of the packages.
+     * @param index Package index key
+     * @param debs Keys of the packages to remove
+     * @return Completion action with true if any item was removed
+     */
+    private CompletionStage<Boolean> rewrite(final Key index, final Collection<Key> debs) {
+        final Path temp;
+        final Path latest;
+        try {
+            temp = Files.createTempDirectory("packages-");
+            latest = Files.createTempFile(temp, "latest-", ".gz");
+        } catch (final IOException err) {
+            throw new IllegalStateException("Failed to create temp dir", err);
+        }
+        return new Copy(this.asto, new ListOf<>(index)).copy(new FileStorage(temp)).thenApply(
+            nothing -> PackagesRemoval.decompressFilterCompress(
+                temp.resolve(index.string()), latest, debs, this.gzip
+            )
+        ).thenCompose(
+            removed -> {
+                final CompletionStage<Void> res;
+                if (removed) {
+                    res = new FileStorage(temp)
+                        .move(new Key.From(latest.getFileName().toString()), index)
+                        .thenCompose(
+                            nothing -> new Copy(new FileStorage(temp), new ListOf<>(index))
+                                .copy(this.asto)
+                        );
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res.thenApply(nothing -> removed);
+            }
+        ).whenComplete((removed, throwable) -> FileUtils.deleteQuietly(temp.toFile()));
+    }
+
+    /**
+     * Decompresses Packages.gz file, skips the items of the packages and writes compressed
+     * result into new file.
+     * @param decompress File to decompress
+     * @param res Where to write the result
+     * @param debs Keys of the packages to remove
+     * @param gzip Compression
+     * @return True if any item was skipped
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    @SuppressWarnings("PMD.AssignmentInOperand")
+    private static boolean decompressFilterCompress(
+        final Path decompress, final Path res, final Collection<Key> debs, final Gzip gzip
+    ) {
+        final Set<String> names = debs.stream()
+            .map(key -> PackagesRemoval.FILENAME + key.string()).collect(Collectors.toSet());
+        boolean removed = false;
+        try (
+            GZIPInputStream gis = new GZIPInputStream(Files.newInputStream(decompress));
+            BufferedReader rdr =
+                new BufferedReader(new InputStreamReader(gis, StandardCharsets.UTF_8));
+            OutputStream gop =
+                gzip.compressing(new BufferedOutputStream(Files.newOutputStream(res)))
+        ) {
+            final StringBuilder item = new StringBuilder();
+            boolean skip = false;
+            String line;
+            while ((line = rdr.readLine()) != null) {
+                if (line.isEmpty()) {
+                    removed = PackagesRemoval.flush(item, skip, gop) || removed;
+                    skip = false;
+                } else {
+                    skip = skip || names.contains(line);
+                    item.append(line).append('\n');
+                }
+            }
+            removed = PackagesRemoval.flush(item, skip, gop) || removed;
+        } catch (final IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+        return removed;
+    }
+
+    /**
+     * Writes collected item unless it should be skipped, clears the item.
+     * @param item Collected item
+     * @param skip Should the item be skipped?
+     * @param out Where to write
+     * @return True if non-empty item was skipped
+     * @throws IOException On error
+     */
+    private static boolean flush(final StringBuilder item, final boolean skip,
+        final OutputStream out) throws IOException {
+        boolean res = false;
+        if (item.length() > 0) {
+            if (!skip) {
+                out.write(item.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+            }
+            res = skip;
+            item.setLength(0);
+        }
+        return res;
+    }
+}
@@ -12,26 +12,39 @@ import com.artipie.asto.ext.Digests;
 import com.artipie.asto.ext.PublisherAs;
 import com.artipie.asto.rx.RxStorageWrapper;
 import com.artipie.debian.Config;
-import com.artipie.debian.GpgConfig;
-import com.artipie.debian.misc.GpgClearsign;
-import com.artipie.debian.misc.RosUnpackedContent;
+import com.artipie.debian.metrics.Metrics;
+import com.artipie.debian.metrics.Timed;
+import com.artipie.debian.misc.InflatedContent;
+import com.artipie.debian.misc.Signer;
 import hu.akarnokd.rxjava2.interop.SingleInterop;
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
+import org.reactivestreams.Publisher;
 
 /**
  * Release metadata file.
  * @since 0.2
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
-@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+@SuppressWarnings({"PMD.AvoidDuplicateLiterals", "PMD.TooManyMethods"})
 public interface Release {
 
     /**
@@ -47,6 +60,14 @@ public interface Release {
      */
     CompletionStage<Void> update(Key pckg);
 
+    /**
+     * Updates (or adds) info of several packages indexes at once, Release index is
+     * saved and signed only once.
+     * @param pckgs Package indexes keys to update/add
+     * @return Completed action
+     */
+    CompletionStage<Void> update(Collection<Key> pckgs);
+
     /**
      * Release index file storage key.
      * @return Item key
@@ -60,7 +81,9 @@ public interface Release {
     Key gpgSignatureKey();
 
     /**
-     * Implementation of {@link Release} from abstract storage.
+     * Implementation of {@link Release} from abstract storage. Records to metrics the
+     * `release.update` timer, `release.size` gauge of the Release index bytes and
+     * `unpack.deflated` and `unpack.inflated` counters of the Packages indexes unpacking.
      * @since 0.2
      */
     final class Asto implements Release {
@@ -75,14 +98,49 @@ public interface Release {
          */
         private final Config config;
 
+        /**
+         * Release index signer, empty if the index should not be signed.
+         */
+        private final Optional<Signer> signer;
+
+        /**
+         * Metrics.
+         */
+        private final Metrics metrics;
+
         /**
          * Ctor.
          * @param asto Abstract storage
          * @param config Repository config
          */
         public Asto(final Storage asto, final Config config) {
+            this(asto, config, config.gpg().map(Signer.Gpg::new));
+        }
+
+        /**
+         * Ctor.
+         * @param asto Abstract storage
+         * @param config Repository config
+         * @param signer Release index signer, empty if the index should not be signed
+         */
+        public Asto(final Storage asto, final Config config, final Optional<Signer> signer) {
+            this(asto, config, signer, new Metrics.Noop());
+        }
+
+        /**
+         * Ctor.
+         * @param asto Abstract storage
+         * @param config Repository config
+         * @param signer Release index signer, empty if the index should not be signed
+         * @param metrics Metrics
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        public Asto(final Storage asto, final Config config, final Optional<Signer> signer,
+            final Metrics metrics) {
             this.asto = asto;
             this.config = config;
+            this.signer = signer;
+            this.metrics = metrics;
         }
 
         @Override
@@ -111,20 +169,12 @@ public interface Release {
 
         @Override
         public CompletionStage<Void> update(final Key pckg) {
-            final String key = pckg.string().replace(this.subDir(), "");
-            return this.packageData(pckg).thenCompose(
-                pair -> this.asto.value(this.key()).thenCompose(
-                    content -> new PublisherAs(content).asciiString().thenApply(
-                        str -> Asto.addReplace(str, key, pair.getLeft())
-                    ).thenApply(
-                        str -> Asto.addReplace(str, key.replace(".gz", ""), pair.getRight())
-                    )
-                )
-            ).thenApply(str -> str.getBytes(StandardCharsets.UTF_8))
-                .thenCompose(
-                    bytes -> this.asto.save(this.key(), new Content.From(bytes))
-                        .thenCompose(nothing -> this.handleGpg(bytes))
-            );
+            return this.update(Collections.singletonList(pckg));
+        }
+
+        @Override
+        public CompletionStage<Void> update(final Collection<Key> pckgs) {
+            return new Timed(this.metrics, "release.update").measured(() -> this.updated(pckgs));
         }
 
         @Override
@@ -137,6 +187,42 @@ public interface Release {
             return new Key.From(String.format("dists/%s/Release.gpg", this.config.codename()));
         }
 
+        /**
+         * Updates Package indexes records in the Release index.
+         * @param pckgs Packages indexes keys
+         * @return Completion action
+         */
+        private CompletionStage<Void> updated(final Collection<Key> pckgs) {
+            final List<CompletableFuture<Pair<String, Pair<String, String>>>> data = pckgs.stream()
+                .map(
+                    pckg -> this.packageData(pckg).<Pair<String, Pair<String, String>>>thenApply(
+                        pair -> new ImmutablePair<>(
+                            pckg.string().replace(this.subDir(), ""), pair
+                        )
+                    ).toCompletableFuture()
+                ).collect(Collectors.toList());
+            return CompletableFuture.allOf(data.toArray(new CompletableFuture<?>[0])).thenCompose(
+                nothing -> this.asto.value(this.key())
+            ).thenCompose(content -> new PublisherAs(content).asciiString()).thenApply(
+                str -> {
+                    String res = str;
+                    for (final CompletableFuture<Pair<String, Pair<String, String>>> item : data) {
+                        final String key = item.join().getLeft();
+                        final Pair<String, String> pair = item.join().getRight();
+                        res = Asto.addReplace(res, key, pair.getLeft());
+                        res = Asto.addReplace(res, key.replace(".gz", ""), pair.getRight());
+                    }
+                    return res.getBytes(StandardCharsets.UTF_8);
+                }
+            ).thenCompose(
+                bytes -> {
+                    this.metrics.gauge("release.size", bytes.length);
+                    return this.asto.save(this.key(), new Content.From(bytes))
+                        .thenCompose(nothing -> this.handleGpg(bytes));
+                }
+            );
+        }
+
         /**
          * Handles gpg clearsign: generates the signature if corresponding settings are provided or
          * removes the .gpg file if it is present and settings are not provided.
@@ -145,11 +231,8 @@ public interface Release {
          */
         private CompletionStage<Void> handleGpg(final byte[] release) {
             final CompletionStage<Void> res;
-            if (this.config.gpg().isPresent()) {
-                final GpgConfig gpg = this.config.gpg().get();
-                res = gpg.key().thenApply(
-                    key -> new GpgClearsign(release).signature(key, gpg.password())
-                ).thenCompose(
+            if (this.signer.isPresent()) {
+                res = this.signer.get().signature(release).thenCompose(
                     sign -> this.asto.save(this.gpgSignatureKey(), new Content.From(sign))
                 );
             } else {
@@ -209,7 +292,7 @@ public interface Release {
                 content -> new ContentDigest(content, Digests.SHA256).hex()
             ).thenCompose(
                 hex -> this.asto.value(pkg).thenCompose(
-                    content -> new RosUnpackedContent(content).sizeAndDigest().thenApply(
+                    content -> this.sizeAndDigest(content).thenApply(
                         data -> new ImmutablePair<>(
                             String.format(
                                 " %s %d %s", hex,
@@ -228,6 +311,38 @@ public interface Release {
             );
         }
 
+        /**
+         * Calculates size and digest of the gz packed content, the content is inflated
+         * with {@link InflatedContent} as it is read, so no thread is blocked waiting for
+         * the storage.
+         * @param content Packed content
+         * @return Completion action with size and digest of the unpacked content
+         */
+        private CompletionStage<Pair<Long, String>> sizeAndDigest(
+            final Publisher<ByteBuffer> content) {
+            final MessageDigest digest = DigestUtils.getSha256Digest();
+            final AtomicLong packed = new AtomicLong();
+            return Flowable.fromPublisher(
+                new InflatedContent(
+                    Flowable.fromPublisher(content)
+                        .doOnNext(buf -> packed.addAndGet(buf.remaining()))
+                )
+            ).reduce(
+                0L,
+                (size, buf) -> {
+                    final long len = buf.remaining();
+                    digest.update(buf);
+                    return size + len;
+                }
+            ).<Pair<Long, String>>map(
+                size -> {
+                    this.metrics.count("unpack.deflated", packed.get());
+                    this.metrics.count("unpack.inflated", size);
+                    return new ImmutablePair<>(size, Hex.encodeHexString(digest.digest()));
+                }
+            ).to(SingleInterop.get());
+        }
+
         /**
          * Adds or replaces Package index line in Release index.
          * @param origin Release index
@@ -8,53 +8,126 @@ import com.artipie.asto.Copy;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.fs.FileStorage;
+import com.artipie.debian.metrics.Metrics;
+import com.artipie.debian.metrics.Timed;
+import com.artipie.debian.misc.Gzip;
+import com.artipie.debian.misc.Stanzas;
+import com.artipie.debian.misc.UniqueHashes;
+import com.artipie.debian.tracing.Exporter;
+import com.artipie.debian.tracing.Trace;
 import java.io.BufferedOutputStream;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.UncheckedIOException;
-import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.StreamSupport;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.cactoos.list.ListOf;
 
 /**
- * Implementation of {@link Package} that checks uniqueness of the packages index records.
+ * Implementation of {@link Package} that checks uniqueness of the packages index records:
+ * existing records with the same `Package` and `Version` fields values as the added ones
+ * are replaced. Records to metrics the `packages.add` timer, `packages.stanzas` (existing
+ * records scanned), `packages.duplicates` (records replaced), `packages.inflated` and
+ * `packages.deflated` (uncompressed bytes read from and written to the index) counters and
+ * `packages.items` gauge (records in the updated index).
  * @since 0.5
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  * @checkstyle ExecutableStatementCountCheck (500 lines)
  */
 public final class UniquePackage implements Package {
 
+    /**
+     * Items separator.
+     */
+    private static final String SEPARATOR = "\n\n";
+
     /**
      * Abstract storage.
      */
     private final Storage asto;
 
+    /**
+     * Index compression.
+     */
+    private final Gzip gzip;
+
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Trace context.
+     */
+    private final Trace trace;
+
     /**
      * Ctor.
      * @param asto Abstract storage
      */
     public UniquePackage(final Storage asto) {
+        this(asto, Gzip.STANDARD);
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param gzip Index compression
+     */
+    public UniquePackage(final Storage asto, final Gzip gzip) {
+        this(asto, gzip, new Metrics.Noop());
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param gzip Index compression
+     * @param metrics Metrics
+     */
+    public UniquePackage(final Storage asto, final Gzip gzip, final Metrics metrics) {
+        this(asto, gzip, metrics, new Trace(new Exporter.Noop()));
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param gzip Index compression
+     * @param metrics Metrics
+     * @param trace Trace context to record `packages.copy`, `packages.merge` and
+     *  `packages.save` spans (or `packages.create` if the index does not exist) into
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public UniquePackage(final Storage asto, final Gzip gzip, final Metrics metrics,
+        final Trace trace) {
         this.asto = asto;
+        this.gzip = gzip;
+        this.metrics = metrics;
+        this.trace = trace;
     }
 
     @Override
     public CompletionStage<Void> add(final Iterable<String> items, final Key index) {
+        return new Timed(this.metrics, "packages.add").measured(() -> this.merge(items, index));
+    }
+
+    /**
+     * Adds items to the index replacing the duplicates.
+     * @param items Items to add
+     * @param index Index key
+     * @return Completion action
+     */
+    private CompletionStage<Void> merge(final Iterable<String> items, final Key index) {
         return this.asto.exists(index).thenCompose(
             exists -> {
                 final CompletionStage<Void> res;
@@ -62,26 +135,41 @@ public final class UniquePackage implements Package {
                     try {
                         final Path temp = Files.createTempDirectory("packages-");
                         final Path latest = Files.createTempFile(temp, "latest-", ".gz");
-                        res = new Copy(this.asto, new ListOf<>(index))
-                            .copy(new FileStorage(temp))
-                            .thenApply(
-                                nothing -> decompressAppendCompress(
-                                    temp.resolve(index.string()), latest, items
+                        res = this.trace.span(
+                            "packages.copy",
+                            nested -> new Copy(this.asto, new ListOf<>(index))
+                                .copy(new FileStorage(temp))
+                        ).thenCompose(
+                            nothing -> this.trace.span(
+                                "packages.merge",
+                                nested -> CompletableFuture.completedFuture(
+                                    this.decompressAppendCompress(
+                                        temp.resolve(index.string()), latest, items
+                                    )
                                 )
-                            ).thenCompose(
-                                this::remove
-                            ).thenCompose(
-                                nothing -> new FileStorage(temp)
-                                    .move(new Key.From(latest.getFileName().toString()), index)
-                            ).thenCompose(
-                                nothing -> new Copy(new FileStorage(temp), new ListOf<>(index))
-                                    .copy(this.asto)
-                            ).thenAccept(nothing -> FileUtils.deleteQuietly(temp.toFile()));
+                            )
+                        ).thenCompose(
+                            duplicates -> this.trace.span(
+                                "packages.save",
+                                nested -> this.remove(duplicates).thenCompose(
+                                    nothing -> new FileStorage(temp).move(
+                                        new Key.From(latest.getFileName().toString()), index
+                                    )
+                                ).thenCompose(
+                                    nothing -> new Copy(
+                                        new FileStorage(temp), new ListOf<>(index)
+                                    ).copy(this.asto)
+                                )
+                            )
+                        ).thenAccept(nothing -> FileUtils.deleteQuietly(temp.toFile()));
                     } catch (final IOException err) {
                         throw new IllegalStateException("Failed to create temp dir", err);
                     }
                 } else {
-                    res = new Package.Asto(this.asto).add(items, index);
+                    res = this.trace.span(
+                        "packages.create",
+                        nested -> new Package.Asto(this.asto, this.gzip).add(items, index)
+                    );
                 }
                 return res;
             }
@@ -114,51 +202,52 @@ public final class UniquePackage implements Package {
 
     /**
      * Decompresses Packages.gz file, checks the duplicates, appends information and writes
-     * compressed result into new file.
+     * compressed result into new file. Existing items are read as raw bytes by
+     * {@link Stanzas} and are checked against the off-heap table of the new packages hashes,
+     * so no strings are created for the items which are not duplicated.
      * @param decompress File to decompress
      * @param res Where to write the result
      * @param items Items to append
      * @return List of the `Filename`s fields of the duplicated packages.
      */
-    @SuppressWarnings({"PMD.AssignmentInOperand", "PMD.CyclomaticComplexity"})
-    private static List<String> decompressAppendCompress(
+    private List<String> decompressAppendCompress(
         final Path decompress, final Path res, final Iterable<String> items
     ) {
-        final byte[] bytes = String.join("\n\n", items).getBytes(StandardCharsets.UTF_8);
-        final Set<Pair<String, String>> newbies = StreamSupport.stream(items.spliterator(), false)
-            .<Pair<String, String>>map(
-                item -> new ImmutablePair<>(
-                    new ControlField.Package().value(item).get(0),
-                    new ControlField.Version().value(item).get(0)
-                )
-            ).collect(Collectors.toSet());
+        final byte[] bytes =
+            String.join(UniquePackage.SEPARATOR, items).getBytes(StandardCharsets.UTF_8);
         final List<String> duplicates = new ArrayList<>(5);
+        final AtomicLong scanned = new AtomicLong();
         try (
-            GZIPInputStream gis = new GZIPInputStream(Files.newInputStream(decompress));
-            BufferedReader rdr =
-                new BufferedReader(new InputStreamReader(gis, StandardCharsets.UTF_8));
-            GZIPOutputStream gop =
-                new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(res)))
+            CountingInputStream gis = new CountingInputStream(
+                new GZIPInputStream(Files.newInputStream(decompress))
+            );
+            CountingOutputStream gop = new CountingOutputStream(
+                this.gzip.compressing(new BufferedOutputStream(Files.newOutputStream(res)))
+            )
         ) {
-            String line;
-            StringBuilder item = new StringBuilder();
-            do {
-                line = rdr.readLine();
-                if ((line == null || line.isEmpty()) && item.length() > 0) {
-                    final Optional<String> dupl = UniquePackage.duplicate(item.toString(), newbies);
-                    if (dupl.isPresent()) {
-                        duplicates.add(dupl.get());
+            final UniqueHashes newbies = UniquePackage.newbies(items);
+            new Stanzas(gis).read(
+                stanza -> {
+                    scanned.incrementAndGet();
+                    if (newbies.contains(stanza.high(), stanza.low())) {
+                        duplicates.add(
+                            new ControlField.Filename().value(
+                                new String(stanza.bytes(), StandardCharsets.UTF_8)
+                            ).get(0)
+                        );
                     } else {
-                        gop.write(item.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+                        stanza.writeTo(gop);
                     }
-                    item = new StringBuilder();
-                } else if (line != null && !line.isEmpty()) {
-                    item.append(line).append('\n');
                 }
-            } while (line != null);
+            );
             gop.write(bytes);
-        } catch (final UnsupportedEncodingException err) {
-            throw new IllegalStateException(err);
+            this.metrics.count("packages.stanzas", scanned.get());
+            this.metrics.count("packages.duplicates", duplicates.size());
+            this.metrics.count("packages.inflated", gis.getByteCount());
+            this.metrics.count("packages.deflated", gop.getByteCount());
+            this.metrics.gauge(
+                "packages.items", scanned.get() - duplicates.size() + newbies.size()
+            );
         } catch (final IOException ioe) {
             throw new UncheckedIOException(ioe);
         }
@@ -166,23 +255,26 @@ public final class UniquePackage implements Package {
     }
 
     /**
-     * Checks whether item is present in the list of new packages to add. If so, returns package
-     * `Filename` field.
-     * @param item Packages item to check
-     * @param newbies Newly added packages names and versions
-     * @return Filename field value if package is a duplicate
+     * Hashes of the newly added packages names and versions, the set is presized for the
+     * number of items.
+     * @param items Items to add
+     * @return Hashes
+     * @throws IOException On error
      */
-    private static Optional<String> duplicate(
-        final String item, final Set<Pair<String, String>> newbies
-    ) {
-        final Pair<String, String> pair = new ImmutablePair<>(
-            new ControlField.Package().value(item).get(0),
-            new ControlField.Version().value(item).get(0)
+    private static UniqueHashes newbies(final Iterable<String> items) throws IOException {
+        final UniqueHashes res = new UniqueHashes(
+            (int) StreamSupport.stream(items.spliterator(), false).count()
+        );
+        final Stanzas.Parser parser = new Stanzas.Parser(
+            stanza -> res.add(stanza.high(), stanza.low())
         );
-        Optional<String> res = Optional.empty();
-        if (newbies.contains(pair)) {
-            res = Optional.of(new ControlField.Filename().value(item).get(0));
+        final ByteBuffer separator =
+            ByteBuffer.wrap(UniquePackage.SEPARATOR.getBytes(StandardCharsets.US_ASCII));
+        for (final String item : items) {
+            parser.feed(ByteBuffer.wrap(item.getBytes(StandardCharsets.UTF_8)));
+            parser.feed(separator);
         }
+        parser.finish();
         return res;
     }
 }
@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative values with power of two buckets: value is counted
+ * in the bucket of its highest bit, so percentiles are precise up to the factor of two.
+ * @since 0.9
+ */
+public final class Histogram {
+
+    /**
+     * Number of buckets: one for zero and one per value bit of the non-negative long.
+     */
+    private static final int BUCKETS = Long.SIZE;
+
+    /**
+     * Counts of the values by bucket.
+     */
+    private final AtomicLongArray buckets;
+
+    /**
+     * Number of values.
+     */
+    private final AtomicLong cnt;
+
+    /**
+     * Sum of values.
+     */
+    private final AtomicLong total;
+
+    /**
+     * Max value.
+     */
+    private final AtomicLong top;
+
+    /**
+     * Ctor.
+     */
+    public Histogram() {
+        this.buckets = new AtomicLongArray(Histogram.BUCKETS);
+        this.cnt = new AtomicLong();
+        this.total = new AtomicLong();
+        this.top = new AtomicLong();
+    }
+
+    /**
+     * Records the value, negative values are recorded as zero.
+     * @param value Value
+     */
+    public void record(final long value) {
+        final long val = Math.max(0, value);
+        this.buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(val));
+        this.cnt.incrementAndGet();
+        this.total.addAndGet(val);
+        this.top.accumulateAndGet(val, Math::max);
+    }
+
+    /**
+     * Number of recorded values.
+     * @return Count
+     */
+    public long count() {
+        return this.cnt.get();
+    }
+
+    /**
+     * Sum of recorded values.
+     * @return Sum
+     */
+    public long sum() {
+        return this.total.get();
+    }
+
+    /**
+     * Max recorded value.
+     * @return Max value, zero if nothing was recorded
+     */
+    public long max() {
+        return this.top.get();
+    }
+
+    /**
+     * Approximate percentile: upper bound of the bucket which contains the percentile,
+     * but not greater than the max recorded value.
+     * @param pct Percentile from 0 to 100
+     * @return Percentile value, zero if nothing was recorded
+     */
+    public long percentile(final double pct) {
+        final long rank = (long) Math.ceil(this.cnt.get() * pct / 100);
+        long seen = this.buckets.get(0);
+        int idx = 0;
+        while (seen < rank && idx < Histogram.BUCKETS - 1) {
+            idx = idx + 1;
+            seen = seen + this.buckets.get(idx);
+        }
+        return Math.min((1L << idx) - 1, this.top.get());
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metrics;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Repository metrics: named counters, timers and gauges. Implementations should be thread-safe
+ * and cheap, metrics are recorded on the request path.
+ * @since 0.9
+ */
+public interface Metrics {
+
+    /**
+     * Adds the value to the counter.
+     * @param name Counter name
+     * @param value Value to add
+     */
+    void count(String name, long value);
+
+    /**
+     * Records the duration to the timer.
+     * @param name Timer name
+     * @param nanos Duration in nanoseconds
+     */
+    void time(String name, long nanos);
+
+    /**
+     * Sets the gauge to the value.
+     * @param name Gauge name
+     * @param value Current value
+     */
+    void gauge(String name, long value);
+
+    /**
+     * Metrics which record nothing, used when metrics are not required.
+     * @since 0.9
+     */
+    final class Noop implements Metrics {
+
+        @Override
+        public void count(final String name, final long value) {
+            // nothing to record
+        }
+
+        @Override
+        public void time(final String name, final long nanos) {
+            // nothing to record
+        }
+
+        @Override
+        public void gauge(final String name, final long value) {
+            // nothing to record
+        }
+    }
+
+    /**
+     * Metrics kept in memory: counters are summed up, timer durations are collected
+     * into histograms, gauges keep the last value.
+     * @since 0.9
+     */
+    final class InMemory implements Metrics {
+
+        /**
+         * Counters by name.
+         */
+        private final Map<String, AtomicLong> counters;
+
+        /**
+         * Timers by name.
+         */
+        private final Map<String, Histogram> timers;
+
+        /**
+         * Gauges by name.
+         */
+        private final Map<String, AtomicLong> gauges;
+
+        /**
+         * Ctor.
+         */
+        public InMemory() {
+            this.counters = new ConcurrentHashMap<>();
+            this.timers = new ConcurrentHashMap<>();
+            this.gauges = new ConcurrentHashMap<>();
+        }
+
+        @Override
+        public void count(final String name, final long value) {
+            this.counters.computeIfAbsent(name, key -> new AtomicLong()).addAndGet(value);
+        }
+
+        @Override
+        public void time(final String name, final long nanos) {
+            this.timers.computeIfAbsent(name, key -> new Histogram()).record(nanos);
+        }
+
+        @Override
+        public void gauge(final String name, final long value) {
+            this.gauges.computeIfAbsent(name, key -> new AtomicLong()).set(value);
+        }
+
+        /**
+         * Counter value.
+         * @param name Counter name
+         * @return Value, zero if nothing was counted
+         */
+        public long counter(final String name) {
+            return Optional.ofNullable(this.counters.get(name)).map(AtomicLong::get).orElse(0L);
+        }
+
+        /**
+         * Timer durations.
+         * @param name Timer name
+         * @return Histogram of durations in nanoseconds, empty if nothing was recorded
+         */
+        public Histogram timer(final String name) {
+            return Optional.ofNullable(this.timers.get(name)).orElseGet(Histogram::new);
+        }
+
+        /**
+         * Gauge value.
+         * @param name Gauge name
+         * @return Last value, zero if nothing was set
+         */
+        public long gauge(final String name) {
+            return Optional.ofNullable(this.gauges.get(name)).map(AtomicLong::get).orElse(0L);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metrics;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous action timed from the start until the completion, the duration is recorded
+ * to the timer both on success and on failure.
+ * @since 0.9
+ */
+public final class Timed {
+
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Timer name.
+     */
+    private final String name;
+
+    /**
+     * Ctor.
+     * @param metrics Metrics
+     * @param name Timer name
+     */
+    public Timed(final Metrics metrics, final String name) {
+        this.metrics = metrics;
+        this.name = name;
+    }
+
+    /**
+     * Starts the action and records its duration.
+     * @param action Action to start
+     * @param <T> Action result type
+     * @return Action completion
+     */
+    public <T> CompletionStage<T> measured(final Supplier<CompletionStage<T>> action) {
+        final long start = System.nanoTime();
+        return action.get().whenComplete(
+            (res, err) -> this.metrics.time(this.name, System.nanoTime() - start)
+        );
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import hu.akarnokd.rxjava2.interop.SingleInterop;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Content with the head read in advance: origin chunks are requested one by one until the
+ * head is complete or the head size limit is reached, the rest of the origin is requested
+ * only when this content is subscribed. The origin is subscribed once, so the content
+ * can be subscribed once too. Head chunks are appended to one growing buffer, the check
+ * receives the read-only view of the bytes read so far, so they are not copied for each
+ * chunk. If the check fails, the origin is cancelled and the head fails.
+ * @since 0.9
+ */
+public final class ContentHead implements Publisher<ByteBuffer> {
+
+    /**
+     * Default head size limit.
+     */
+    private static final int LIMIT = 1024 * 1024;
+
+    /**
+     * Origin content.
+     */
+    private final Publisher<ByteBuffer> origin;
+
+    /**
+     * Origin subscriber which reads the head.
+     */
+    private final Splitter splitter;
+
+    /**
+     * Is origin subscribed?
+     */
+    private final AtomicBoolean started;
+
+    /**
+     * Ctor.
+     * @param origin Origin content
+     * @param complete Checks whether bytes read so far make the complete head
+     */
+    public ContentHead(final Publisher<ByteBuffer> origin, final Predicate<ByteBuffer> complete) {
+        this(origin, complete, ContentHead.LIMIT);
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin content
+     * @param complete Checks whether bytes read so far make the complete head
+     * @param limit Head size limit
+     */
+    public ContentHead(final Publisher<ByteBuffer> origin, final Predicate<ByteBuffer> complete,
+        final int limit) {
+        this.origin = origin;
+        this.splitter = new Splitter(complete, limit);
+        this.started = new AtomicBoolean(false);
+    }
+
+    /**
+     * Reads the head of the content.
+     * @return Completion action with the head, the head is the whole content if the
+     *  content is shorter than the head
+     */
+    public CompletionStage<byte[]> head() {
+        if (this.started.compareAndSet(false, true)) {
+            this.origin.subscribe(this.splitter);
+        }
+        return this.splitter.head;
+    }
+
+    /**
+     * Cancels the origin, the rest of the content is not read.
+     */
+    public void cancel() {
+        this.splitter.cancel();
+    }
+
+    @Override
+    public void subscribe(final Subscriber<? super ByteBuffer> subscriber) {
+        SingleInterop.fromFuture(this.head()).flatMapPublisher(
+            head -> Flowable.concat(Flowable.just(ByteBuffer.wrap(head)), this.splitter)
+        ).subscribe(subscriber);
+    }
+
+    /**
+     * Origin subscriber which reads the head and then passes the rest of the origin
+     * to the subscriber of the tail.
+     * @since 0.9
+     */
+    private static final class Splitter implements Subscriber<ByteBuffer>, Publisher<ByteBuffer> {
+
+        /**
+         * Content head.
+         */
+        private final CompletableFuture<byte[]> head;
+
+        /**
+         * Head bytes buffer, grows twice when it is full.
+         */
+        private byte[] bytes;
+
+        /**
+         * Number of head bytes received so far.
+         */
+        private int count;
+
+        /**
+         * Checks whether the head is complete.
+         */
+        private final Predicate<ByteBuffer> complete;
+
+        /**
+         * Head size limit.
+         */
+        private final int limit;
+
+        /**
+         * Lock for the tail subscriber and termination state.
+         */
+        private final Object lock;
+
+        /**
+         * Origin subscription.
+         */
+        private volatile Subscription upstream;
+
+        /**
+         * Tail subscriber.
+         */
+        private volatile Subscriber<? super ByteBuffer> downstream;
+
+        /**
+         * Is origin terminated?
+         */
+        private boolean done;
+
+        /**
+         * Origin error, null if origin completed successfully.
+         */
+        private Throwable error;
+
+        /**
+         * Is termination delivered to the tail subscriber?
+         */
+        private boolean delivered;
+
+        /**
+         * Ctor.
+         * @param complete Checks whether the head is complete
+         * @param limit Head size limit
+         */
+        Splitter(final Predicate<ByteBuffer> complete, final int limit) {
+            this.complete = complete;
+            this.limit = limit;
+            this.head = new CompletableFuture<>();
+            this.bytes = new byte[0];
+            this.lock = new Object();
+        }
+
+        @Override
+        public void onSubscribe(final Subscription subscription) {
+            this.upstream = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(final ByteBuffer item) {
+            if (this.head.isDone()) {
+                this.downstream.onNext(item);
+            } else {
+                final int len = item.remaining();
+                if (this.count + len > this.bytes.length) {
+                    this.bytes = Arrays.copyOf(
+                        this.bytes, Math.max(this.bytes.length * 2, this.count + len)
+                    );
+                }
+                item.get(this.bytes, this.count, len);
+                this.count += len;
+                this.check();
+            }
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            if (this.head.isDone()) {
+                this.terminate(throwable);
+            } else {
+                this.head.completeExceptionally(throwable);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            this.terminate(null);
+            this.head.complete(Arrays.copyOf(this.bytes, this.count));
+        }
+
+        @Override
+        public void subscribe(final Subscriber<? super ByteBuffer> subscriber) {
+            synchronized (this.lock) {
+                this.downstream = subscriber;
+                subscriber.onSubscribe(
+                    new Subscription() {
+                        @Override
+                        public void request(final long num) {
+                            Splitter.this.upstream.request(num);
+                        }
+
+                        @Override
+                        public void cancel() {
+                            Splitter.this.cancel();
+                        }
+                    }
+                );
+                if (this.done) {
+                    this.deliver();
+                }
+            }
+        }
+
+        /**
+         * Cancels origin subscription.
+         */
+        void cancel() {
+            if (this.upstream != null) {
+                this.upstream.cancel();
+            }
+        }
+
+        /**
+         * Completes the head if it is complete or the limit is reached, requests the next
+         * chunk otherwise. Cancels the origin and fails the head if the check fails.
+         * @checkstyle IllegalCatchCheck (20 lines)
+         */
+        @SuppressWarnings("PMD.AvoidCatchingGenericException")
+        private void check() {
+            boolean full;
+            try {
+                full = this.count >= this.limit || this.complete.test(
+                    ByteBuffer.wrap(this.bytes, 0, this.count).asReadOnlyBuffer()
+                );
+            } catch (final RuntimeException ex) {
+                this.upstream.cancel();
+                this.head.completeExceptionally(ex);
+                full = false;
+            }
+            if (full) {
+                this.head.complete(Arrays.copyOf(this.bytes, this.count));
+            } else if (!this.head.isDone()) {
+                this.upstream.request(1);
+            }
+        }
+
+        /**
+         * Terminates tail, termination is delivered as soon as the tail is subscribed.
+         * @param throwable Origin error, null if origin completed successfully
+         */
+        private void terminate(final Throwable throwable) {
+            synchronized (this.lock) {
+                this.done = true;
+                this.error = throwable;
+                if (this.downstream != null) {
+                    this.deliver();
+                }
+            }
+        }
+
+        /**
+         * Delivers termination to the tail subscriber once.
+         */
+        private void deliver() {
+            if (!this.delivered && this.error == null) {
+                this.downstream.onComplete();
+            } else if (!this.delivered) {
+                this.downstream.onError(this.error);
+            }
+            this.delivered = true;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Predicate;
+
+/**
+ * Checks whether the head of debian binary package contains complete `control` archive.
+ * Debian package is `ar` archive, `control` archive is one of its first members, so
+ * package control file can be read from the head of the package.
+ * Check <a href="https://manpages.debian.org/deb.5">deb format</a>.
+ * If bytes are not the `ar` archive, the head is considered complete.
+ * @since 0.9
+ * @checkstyle MagicNumberCheck (100 lines)
+ */
+public final class DebHead implements Predicate<ByteBuffer> {
+
+    /**
+     * Ar archive magic string.
+     */
+    private static final String MAGIC = "!<arch>\n";
+
+    /**
+     * Ar member header length.
+     */
+    private static final int HEADER = 60;
+
+    @Override
+    public boolean test(final ByteBuffer head) {
+        final ByteBuffer bytes = head.slice();
+        final boolean res;
+        if (bytes.remaining() < DebHead.MAGIC.length()) {
+            res = false;
+        } else if (DebHead.MAGIC.equals(DebHead.ascii(bytes, 0, DebHead.MAGIC.length()))) {
+            res = DebHead.control(bytes);
+        } else {
+            res = true;
+        }
+        return res;
+    }
+
+    /**
+     * Looks for `control` member of the ar archive.
+     * @param bytes Ar archive head
+     * @return True if `control` member is complete or member header is malformed
+     */
+    private static boolean control(final ByteBuffer bytes) {
+        long pos = DebHead.MAGIC.length();
+        long end = -1;
+        try {
+            while (end < 0 && pos + DebHead.HEADER <= bytes.remaining()) {
+                final int start = (int) pos;
+                final long size = Long.parseLong(DebHead.ascii(bytes, start + 48, 10).trim());
+                if (size < 0) {
+                    end = 0;
+                } else if (DebHead.ascii(bytes, start, 16).startsWith("control")) {
+                    end = pos + DebHead.HEADER + size;
+                } else {
+                    pos = pos + DebHead.HEADER + size + size % 2;
+                }
+            }
+        } catch (final NumberFormatException ex) {
+            end = 0;
+        }
+        return end >= 0 && bytes.remaining() >= end;
+    }
+
+    /**
+     * Reads ASCII string from the buffer.
+     * @param bytes Buffer
+     * @param start Start index
+     * @param len Number of bytes
+     * @return String
+     */
+    private static String ascii(final ByteBuffer bytes, final int start, final int len) {
+        final byte[] arr = new byte[len];
+        for (int idx = 0; idx < len; idx = idx + 1) {
+            arr[idx] = bytes.get(start + idx);
+        }
+        return new String(arr, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.Remaining;
+import io.reactivex.Flowable;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+/**
+ * Content compressed to gz on the fly: every chunk of the origin publisher is deflated as
+ * soon as it is received, the origin is requested only when the subscriber requests more data,
+ * so the whole content is never kept in memory. The result is a single gz member.
+ * @since 0.9
+ */
+public final class DeflatedContent implements Publisher<ByteBuffer> {
+
+    /**
+     * Content to compress.
+     */
+    private final Publisher<ByteBuffer> origin;
+
+    /**
+     * Ctor.
+     * @param origin Content to compress
+     */
+    public DeflatedContent(final Publisher<ByteBuffer> origin) {
+        this.origin = origin;
+    }
+
+    @Override
+    public void subscribe(final Subscriber<? super ByteBuffer> subscriber) {
+        Flowable.defer(
+            () -> {
+                final Encoder encoder = new Encoder();
+                return Flowable.fromPublisher(this.origin)
+                    .concatMapIterable(encoder::feed)
+                    .concatWith(Flowable.fromCallable(encoder::finish))
+                    .doFinally(encoder::release);
+            }
+        ).subscribe(subscriber);
+    }
+
+    /**
+     * Stateful gz encoder. Deflater is released on cancel, which can happen while the chunk
+     * is deflated in another thread, so deflater is used and released under the encoder lock,
+     * nothing is deflated once it is released.
+     * @since 0.9
+     * @checkstyle MagicNumberCheck (200 lines)
+     */
+    private static final class Encoder {
+
+        /**
+         * Gz header: magic, deflate method, no flags, no mtime, no extra flags, unknown OS.
+         */
+        private static final byte[] HEADER = {
+            (byte) 0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff,
+        };
+
+        /**
+         * Deflated chunk size.
+         */
+        private static final int CHUNK = 64 * 1024;
+
+        /**
+         * Deflater.
+         */
+        private final Deflater deflater;
+
+        /**
+         * Checksum of the content.
+         */
+        private final CRC32 crc;
+
+        /**
+         * Deflate output buffer, produced bytes are copied out of it.
+         */
+        private final byte[] buffer;
+
+        /**
+         * Lock for the deflater and the released state.
+         */
+        private final Object lock;
+
+        /**
+         * Was the header sent?
+         */
+        private boolean started;
+
+        /**
+         * Was the deflater released?
+         */
+        private boolean ended;
+
+        /**
+         * Ctor.
+         */
+        Encoder() {
+            this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            this.crc = new CRC32();
+            this.buffer = new byte[Encoder.CHUNK];
+            this.lock = new Object();
+        }
+
+        /**
+         * Deflates next chunk of content.
+         * @param chunk Content chunk
+         * @return Deflated data, empty if the deflater was released
+         */
+        List<ByteBuffer> feed(final ByteBuffer chunk) {
+            synchronized (this.lock) {
+                final List<ByteBuffer> res = new ArrayList<>(1);
+                if (!this.ended) {
+                    final byte[] bytes = new Remaining(chunk).bytes();
+                    this.crc.update(bytes);
+                    this.deflater.setInput(bytes);
+                    this.start(res);
+                    while (!this.deflater.needsInput()) {
+                        this.deflateNext(res);
+                    }
+                }
+                return res;
+            }
+        }
+
+        /**
+         * Finishes deflate data and appends gz trailer.
+         * @return The rest of deflated data with the trailer, empty if the deflater was
+         *  released
+         */
+        ByteBuffer finish() {
+            synchronized (this.lock) {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                if (!this.ended) {
+                    final List<ByteBuffer> res = new ArrayList<>(1);
+                    this.start(res);
+                    this.deflater.finish();
+                    while (!this.deflater.finished()) {
+                        this.deflateNext(res);
+                    }
+                    for (final ByteBuffer buf : res) {
+                        out.write(
+                            buf.array(), buf.arrayOffset() + buf.position(), buf.remaining()
+                        );
+                    }
+                    Encoder.writeInt(out, this.crc.getValue());
+                    Encoder.writeInt(out, this.deflater.getBytesRead());
+                }
+                return ByteBuffer.wrap(out.toByteArray());
+            }
+        }
+
+        /**
+         * Releases deflater resources.
+         */
+        void release() {
+            synchronized (this.lock) {
+                if (!this.ended) {
+                    this.ended = true;
+                    this.deflater.end();
+                }
+            }
+        }
+
+        /**
+         * Adds header, if it was not sent yet.
+         * @param res Where to add the header
+         */
+        private void start(final List<ByteBuffer> res) {
+            if (!this.started) {
+                this.started = true;
+                res.add(ByteBuffer.wrap(Encoder.HEADER.clone()));
+            }
+        }
+
+        /**
+         * Deflates next portion of data.
+         * @param res Where to add deflated data
+         */
+        private void deflateNext(final List<ByteBuffer> res) {
+            final int cnt = this.deflater.deflate(this.buffer);
+            if (cnt > 0) {
+                res.add(ByteBuffer.wrap(Arrays.copyOf(this.buffer, cnt)));
+            }
+        }
+
+        /**
+         * Writes four bytes of the value in little-endian order.
+         * @param out Output
+         * @param value Value
+         */
+        private static void writeInt(final ByteArrayOutputStream out, final long value) {
+            out.write((int) value);
+            out.write((int) (value >> 8));
+            out.write((int) (value >> 16));
+            out.write((int) (value >> 24));
+        }
+    }
+}
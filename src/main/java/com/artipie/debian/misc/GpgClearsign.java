@@ -6,6 +6,7 @@ package com.artipie.debian.misc;
 
 import com.artipie.ArtipieException;
 import com.artipie.asto.ArtipieIOException;
+import com.artipie.debian.metrics.Metrics;
 import com.jcabi.log.Logger;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
@@ -17,8 +18,11 @@ import java.security.Security;
 import java.util.Iterator;
 import org.bouncycastle.bcpg.ArmoredOutputStream;
 import org.bouncycastle.bcpg.BCPGOutputStream;
+import org.bouncycastle.bcpg.HashAlgorithmTags;
+import org.bouncycastle.bcpg.PublicKeyAlgorithmTags;
 import org.bouncycastle.openpgp.PGPException;
 import org.bouncycastle.openpgp.PGPPrivateKey;
+import org.bouncycastle.openpgp.PGPPublicKey;
 import org.bouncycastle.openpgp.PGPSecretKey;
 import org.bouncycastle.openpgp.PGPSecretKeyRing;
 import org.bouncycastle.openpgp.PGPSecretKeyRingCollection;
@@ -31,7 +35,8 @@ import org.bouncycastle.openpgp.operator.jcajce.JcaPGPContentSignerBuilder;
 import org.bouncycastle.openpgp.operator.jcajce.JcePBESecretKeyDecryptorBuilder;
 
 /**
- * Gpg signature.
+ * Gpg signature. Records to metrics `gpg.clearsign` and `gpg.signature` timers of signing
+ * duration and `gpg.signed` counter of the signed bytes.
  * @since 0.4
  * @checkstyle ExecutableStatementCountCheck (500 lines)
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
@@ -52,12 +57,27 @@ public final class GpgClearsign {
      */
     private final byte[] content;
 
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
     /**
      * Ctor.
      * @param content Bytes content to sign
      */
     public GpgClearsign(final byte[] content) {
+        this(content, new Metrics.Noop());
+    }
+
+    /**
+     * Ctor.
+     * @param content Bytes content to sign
+     * @param metrics Metrics
+     */
+    public GpgClearsign(final byte[] content, final Metrics metrics) {
         this.content = content;
+        this.metrics = metrics;
     }
 
     /**
@@ -69,6 +89,7 @@ public final class GpgClearsign {
      * @throws ArtipieException On problems with GPG
      */
     public byte[] signedContent(final byte[] key, final String pass) {
+        final long start = System.nanoTime();
         try {
             final ByteArrayOutputStream out = new ByteArrayOutputStream();
             final ArmoredOutputStream armored = new ArmoredOutputStream(out);
@@ -78,8 +99,10 @@ public final class GpgClearsign {
                 );
                 ByteArrayOutputStream line = new ByteArrayOutputStream()
             ) {
-                final PGPSignatureGenerator sgen = GpgClearsign.prepareGenerator(key, pass);
-                armored.beginClearText(PGPUtil.SHA256);
+                final PGPSecretKey skey = GpgClearsign.readSecretKey(new ByteArrayInputStream(key));
+                final int hash = GpgClearsign.hashAlgorithm(skey.getPublicKey());
+                final PGPSignatureGenerator sgen = GpgClearsign.prepareGenerator(skey, pass, hash);
+                armored.beginClearText(hash);
                 int ahead = readInputLine(line, input);
                 GpgClearsign.processLine(armored, sgen, line.toByteArray());
                 if (ahead != -1) {
@@ -95,6 +118,8 @@ public final class GpgClearsign {
                 final BCPGOutputStream bout = new BCPGOutputStream(armored);
                 sgen.generate().encode(bout);
                 armored.close();
+                this.metrics.time("gpg.clearsign", System.nanoTime() - start);
+                this.metrics.count("gpg.signed", this.content.length);
                 return out.toByteArray();
             }
         } catch (final PGPException err) {
@@ -115,6 +140,7 @@ public final class GpgClearsign {
      * @throws ArtipieException On problems with GPG
      */
     public byte[] signature(final byte[] key, final String pass) {
+        final long start = System.nanoTime();
         try {
             final ByteArrayOutputStream out = new ByteArrayOutputStream();
             final ArmoredOutputStream armored = new ArmoredOutputStream(out);
@@ -124,7 +150,10 @@ public final class GpgClearsign {
                 )
             ) {
                 armored.setHeader(ArmoredOutputStream.VERSION_HDR, null);
-                final PGPSignatureGenerator sgen = prepareGenerator(key, pass);
+                final PGPSecretKey skey = GpgClearsign.readSecretKey(new ByteArrayInputStream(key));
+                final PGPSignatureGenerator sgen = GpgClearsign.prepareGenerator(
+                    skey, pass, GpgClearsign.hashAlgorithm(skey.getPublicKey())
+                );
                 int sym;
                 while ((sym = input.read()) >= 0) {
                     sgen.update((byte) sym);
@@ -132,6 +161,8 @@ public final class GpgClearsign {
                 final BCPGOutputStream res = new BCPGOutputStream(armored);
                 sgen.generate().encode(res);
                 armored.close();
+                this.metrics.time("gpg.signature", System.nanoTime() - start);
+                this.metrics.count("gpg.signed", this.content.length);
                 return out.toByteArray();
             }
         } catch (final PGPException err) {
@@ -145,33 +176,53 @@ public final class GpgClearsign {
 
     /**
      * Prepares signature generator.
-     * @param key Private key
+     * @param skey Secret key
      * @param pass Password
+     * @param hash Hash algorithm
      * @return Instance of PGPSignatureGenerator
-     * @throws IOException On error
      * @throws PGPException On problems with signing
      */
-    private static PGPSignatureGenerator prepareGenerator(final byte[] key, final String pass)
-        throws IOException, PGPException {
+    private static PGPSignatureGenerator prepareGenerator(final PGPSecretKey skey,
+        final String pass, final int hash) throws PGPException {
         Security.addProvider(new org.bouncycastle.jce.provider.BouncyCastleProvider());
-        final PGPSecretKey skey = readSecretKey(new ByteArrayInputStream(key));
         final PGPPrivateKey pkey = skey.extractPrivateKey(
             new JcePBESecretKeyDecryptorBuilder().setProvider("BC").build(pass.toCharArray())
         );
         final PGPSignatureGenerator sgen = new PGPSignatureGenerator(
-            new JcaPGPContentSignerBuilder(skey.getPublicKey().getAlgorithm(), PGPUtil.SHA256)
+            new JcaPGPContentSignerBuilder(skey.getPublicKey().getAlgorithm(), hash)
                 .setProvider("BC")
         );
         final PGPSignatureSubpacketGenerator ssgen = new PGPSignatureSubpacketGenerator();
         sgen.init(PGPSignature.CANONICAL_TEXT_DOCUMENT, pkey);
         final Iterator<String> ids = skey.getPublicKey().getUserIDs();
         if (ids.hasNext()) {
-            ssgen.setSignerUserID(false, ids.next());
+            ssgen.addSignerUserID(false, ids.next());
             sgen.setHashedSubpackets(ssgen.generate());
         }
         return sgen;
     }
 
+    /**
+     * Hash algorithm to sign with the key. RSA and EdDSA keys use SHA256, ECDSA keys require
+     * the hash to be at least as long as the curve (see RFC 6637 Section 13), so SHA384 and
+     * SHA512 are chosen for P-384 and P-521 curves correspondingly.
+     * @param key Public key
+     * @return Hash algorithm tag
+     */
+    private static int hashAlgorithm(final PGPPublicKey key) {
+        final int res;
+        // @checkstyle MagicNumberCheck (5 lines)
+        if (key.getAlgorithm() == PublicKeyAlgorithmTags.ECDSA && key.getBitStrength() > 384) {
+            res = HashAlgorithmTags.SHA512;
+        } else if (key.getAlgorithm() == PublicKeyAlgorithmTags.ECDSA
+            && key.getBitStrength() > 256) {
+            res = HashAlgorithmTags.SHA384;
+        } else {
+            res = HashAlgorithmTags.SHA256;
+        }
+        return res;
+    }
+
     /**
      * Reads secret key from provided input stream.
      * @param input Input stream to read stream from
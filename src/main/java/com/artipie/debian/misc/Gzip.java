@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip compression of the indexes.
+ * @since 0.9
+ */
+public interface Gzip {
+
+    /**
+     * Standard single-threaded gzip compression.
+     */
+    Gzip STANDARD = GZIPOutputStream::new;
+
+    /**
+     * Wraps the stream to compress the data written into it. Closing of the returned stream
+     * finishes the compression and closes the origin stream.
+     * @param origin Stream to write compressed data to
+     * @return Compressing stream
+     * @throws IOException On error
+     */
+    OutputStream compressing(OutputStream origin) throws IOException;
+
+    /**
+     * Parallel gzip compression, check {@link ParallelGzipOutputStream}.
+     * @since 0.9
+     */
+    final class Parallel implements Gzip {
+
+        /**
+         * Default block size, 128 KiB as in pigz.
+         */
+        private static final int BLOCK = 128 * 1024;
+
+        /**
+         * Executor to deflate blocks in.
+         */
+        private final Executor exec;
+
+        /**
+         * Block size.
+         */
+        private final int block;
+
+        /**
+         * Max number of blocks being deflated at the same time.
+         */
+        private final int inflight;
+
+        /**
+         * Ctor with the common pool.
+         */
+        public Parallel() {
+            this(ForkJoinPool.commonPool());
+        }
+
+        /**
+         * Ctor.
+         * @param exec Executor to deflate blocks in
+         */
+        public Parallel(final Executor exec) {
+            this(exec, Parallel.BLOCK, Runtime.getRuntime().availableProcessors() * 2);
+        }
+
+        /**
+         * Ctor.
+         * @param exec Executor to deflate blocks in
+         * @param block Block size, blocks less than 32 KiB are extended to 32 KiB
+         * @param inflight Max number of blocks being deflated at the same time, limits
+         *  the memory used by the compression
+         */
+        public Parallel(final Executor exec, final int block, final int inflight) {
+            this.exec = exec;
+            this.block = block;
+            this.inflight = inflight;
+        }
+
+        @Override
+        public OutputStream compressing(final OutputStream origin) throws IOException {
+            return new ParallelGzipOutputStream(origin, this.exec, this.block, this.inflight);
+        }
+    }
+}
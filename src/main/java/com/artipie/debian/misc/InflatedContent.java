@@ -0,0 +1,454 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.Remaining;
+import io.reactivex.Flowable;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+/**
+ * Gz content inflated on the fly: every chunk of the origin publisher is inflated as soon as
+ * it is received, the origin is requested only when the subscriber requests more data, so
+ * the whole content is never kept in memory. Concatenated gz members are supported,
+ * CRC and size of each member are verified. As {@link java.util.zip.GZIPInputStream} does,
+ * bytes after the complete member which do not start the new member (for example, zero
+ * padding) are ignored.
+ * @since 0.9
+ */
+public final class InflatedContent implements Publisher<ByteBuffer> {
+
+    /**
+     * Gz content.
+     */
+    private final Publisher<ByteBuffer> origin;
+
+    /**
+     * Ctor.
+     * @param origin Gz content
+     */
+    public InflatedContent(final Publisher<ByteBuffer> origin) {
+        this.origin = origin;
+    }
+
+    @Override
+    public void subscribe(final Subscriber<? super ByteBuffer> subscriber) {
+        Flowable.defer(
+            () -> {
+                final Decoder decoder = new Decoder();
+                return Flowable.fromPublisher(this.origin)
+                    .concatMapIterable(decoder::feed)
+                    .concatWith(Flowable.fromCallable(decoder::finish).ignoreElements())
+                    .doFinally(decoder::release);
+            }
+        ).subscribe(subscriber);
+    }
+
+    /**
+     * Stateful gz decoder.
+     * @since 0.9
+     */
+    private static final class Decoder {
+
+        /**
+         * Gz header is expected.
+         */
+        private static final int HEADER = 0;
+
+        /**
+         * Deflate data is expected.
+         */
+        private static final int BODY = 1;
+
+        /**
+         * Gz trailer is expected.
+         */
+        private static final int TRAILER = 2;
+
+        /**
+         * Trailing garbage after the last member is skipped.
+         */
+        private static final int TRAILING = 3;
+
+        /**
+         * Gz trailer length.
+         */
+        private static final int TRAILER_LENGTH = 8;
+
+        /**
+         * Inflated chunk size.
+         */
+        private static final int CHUNK = 64 * 1024;
+
+        /**
+         * Inflater.
+         */
+        private final Inflater inflater;
+
+        /**
+         * Checksum of the current member.
+         */
+        private final CRC32 crc;
+
+        /**
+         * Received bytes of the current header which did not fit in the previous chunks, or
+         * received bytes of the current trailer.
+         */
+        private final ByteArrayOutputStream pending;
+
+        /**
+         * Buffer to inflate data to, reused for every portion of the inflated data.
+         */
+        private final byte[] buffer;
+
+        /**
+         * Current state.
+         */
+        private int state;
+
+        /**
+         * Number of the completely decoded members.
+         */
+        private int members;
+
+        /**
+         * Ctor.
+         */
+        Decoder() {
+            this.inflater = new Inflater(true);
+            this.crc = new CRC32();
+            this.pending = new ByteArrayOutputStream();
+            this.buffer = new byte[Decoder.CHUNK];
+            this.state = Decoder.HEADER;
+        }
+
+        /**
+         * Decodes next chunk of gz content.
+         * @param chunk Gz content chunk
+         * @return Inflated data
+         */
+        List<ByteBuffer> feed(final ByteBuffer chunk) {
+            final byte[] bytes = new Remaining(chunk).bytes();
+            final List<ByteBuffer> res = new ArrayList<>(1);
+            int pos = 0;
+            while (pos < bytes.length) {
+                if (this.state == Decoder.HEADER) {
+                    pos = this.open(bytes, pos);
+                } else if (this.state == Decoder.BODY) {
+                    pos = this.inflate(bytes, pos, res);
+                } else if (this.state == Decoder.TRAILER) {
+                    pos = this.close(bytes, pos);
+                } else {
+                    pos = bytes.length;
+                }
+            }
+            return res;
+        }
+
+        /**
+         * Checks that gz content is complete: at least one member was decoded and the last
+         * member is not cut, incomplete header after the last member is ignored.
+         * @return Number of decoded gz members
+         */
+        int finish() {
+            if (this.state == Decoder.BODY || this.state == Decoder.TRAILER
+                || this.members == 0) {
+                throw new ArtipieIOException("Unexpected end of gz content");
+            }
+            return this.members;
+        }
+
+        /**
+         * Releases inflater resources.
+         */
+        void release() {
+            this.inflater.end();
+        }
+
+        /**
+         * Reads gz member header in place, only the bytes of the header which is not complete
+         * at the end of the chunk are kept until the next chunk.
+         * @param bytes Bytes
+         * @param pos Position to read from
+         * @return Position after the header or the end of bytes if header is not complete yet
+         */
+        private int open(final byte[] bytes, final int pos) {
+            final byte[] head = this.pending.toByteArray();
+            final Header header = new Header(head, bytes, pos);
+            final int res;
+            if (this.members > 0 && !header.magic()) {
+                res = bytes.length;
+                this.pending.reset();
+                this.state = Decoder.TRAILING;
+            } else {
+                res = this.opened(bytes, pos, pos + header.length() - head.length);
+            }
+            return res;
+        }
+
+        /**
+         * Starts the member body if the header is complete, keeps the received header bytes
+         * otherwise.
+         * @param bytes Bytes
+         * @param pos Position the header bytes of this chunk start from
+         * @param end Position after the header, less than the position the header bytes
+         *  start from if header is not complete
+         * @return Position after the header or the end of bytes if header is not complete yet
+         */
+        private int opened(final byte[] bytes, final int pos, final int end) {
+            final int res;
+            if (end < pos) {
+                this.pending.write(bytes, pos, bytes.length - pos);
+                res = bytes.length;
+            } else {
+                res = end;
+                this.pending.reset();
+                this.inflater.reset();
+                this.crc.reset();
+                this.state = Decoder.BODY;
+            }
+            return res;
+        }
+
+        /**
+         * Inflates deflate data of gz member.
+         * @param bytes Bytes
+         * @param pos Position to read from
+         * @param res Where to add inflated data
+         * @return Position after consumed bytes
+         */
+        private int inflate(final byte[] bytes, final int pos, final List<ByteBuffer> res) {
+            this.inflater.setInput(bytes, pos, bytes.length - pos);
+            while (!this.inflater.finished() && !this.inflater.needsInput()) {
+                this.inflateNext(res);
+            }
+            final int next;
+            if (this.inflater.finished()) {
+                next = bytes.length - this.inflater.getRemaining();
+                this.state = Decoder.TRAILER;
+            } else {
+                next = bytes.length;
+            }
+            return next;
+        }
+
+        /**
+         * Inflates next portion of data.
+         * @param res Where to add inflated data
+         */
+        private void inflateNext(final List<ByteBuffer> res) {
+            final int cnt;
+            try {
+                cnt = this.inflater.inflate(this.buffer);
+            } catch (final DataFormatException err) {
+                throw new ArtipieIOException("Invalid gz content", err);
+            }
+            if (cnt > 0) {
+                this.crc.update(this.buffer, 0, cnt);
+                res.add(ByteBuffer.wrap(Arrays.copyOf(this.buffer, cnt)));
+            } else if (!this.inflater.finished() && !this.inflater.needsInput()) {
+                throw new ArtipieIOException("Unsupported gz content");
+            }
+        }
+
+        /**
+         * Reads and verifies gz member trailer.
+         * @param bytes Bytes
+         * @param pos Position to read from
+         * @return Position after consumed bytes
+         * @checkstyle MagicNumberCheck (20 lines)
+         */
+        private int close(final byte[] bytes, final int pos) {
+            final int cnt = Math.min(
+                Decoder.TRAILER_LENGTH - this.pending.size(), bytes.length - pos
+            );
+            this.pending.write(bytes, pos, cnt);
+            if (this.pending.size() == Decoder.TRAILER_LENGTH) {
+                final byte[] trailer = this.pending.toByteArray();
+                final boolean crcok = Decoder.uint(trailer, 0) == this.crc.getValue();
+                final boolean sizeok =
+                    Decoder.uint(trailer, 4) == (this.inflater.getBytesWritten() & 0xFFFFFFFFL);
+                if (!crcok || !sizeok) {
+                    throw new ArtipieIOException("Corrupted gz content: checksum mismatch");
+                }
+                this.pending.reset();
+                this.members = this.members + 1;
+                this.state = Decoder.HEADER;
+            }
+            return pos + cnt;
+        }
+
+        /**
+         * Reads little-endian unsigned int.
+         * @param bytes Bytes
+         * @param pos Position
+         * @return Unsigned int value
+         * @checkstyle MagicNumberCheck (10 lines)
+         */
+        private static long uint(final byte[] bytes, final int pos) {
+            long res = 0;
+            for (int idx = 3; idx >= 0; idx = idx - 1) {
+                res = res << 8 | bytes[pos + idx] & 0xFFL;
+            }
+            return res;
+        }
+    }
+
+    /**
+     * Gz member header, read from the header bytes received in the previous chunks followed
+     * by the bytes of the current chunk without copying them.
+     * @since 0.9
+     * @checkstyle MagicNumberCheck (200 lines)
+     */
+    private static final class Header {
+
+        /**
+         * Fixed part length.
+         */
+        private static final int FIXED = 10;
+
+        /**
+         * Header bytes received in the previous chunks.
+         */
+        private final byte[] head;
+
+        /**
+         * Current chunk bytes.
+         */
+        private final byte[] bytes;
+
+        /**
+         * Position the header bytes of the current chunk start from.
+         */
+        private final int start;
+
+        /**
+         * Ctor.
+         * @param head Header bytes received in the previous chunks
+         * @param bytes Current chunk bytes
+         * @param start Position the header bytes of the current chunk start from
+         */
+        @SuppressWarnings("PMD.ArrayIsStoredDirectly")
+        Header(final byte[] head, final byte[] bytes, final int start) {
+            this.head = head;
+            this.bytes = bytes;
+            this.start = start;
+        }
+
+        /**
+         * Checks that received bytes start with gz magic and deflate method.
+         * @return False if the received bytes can not start gz member
+         */
+        boolean magic() {
+            final byte[] expected = {(byte) 0x1F, (byte) 0x8B, 8};
+            boolean res = true;
+            for (int idx = 0; idx < Math.min(expected.length, this.size()); idx = idx + 1) {
+                res = res && this.byteAt(idx) == expected[idx];
+            }
+            return res;
+        }
+
+        /**
+         * Calculates header length.
+         * @return Header length or -1 if header is not complete
+         */
+        int length() {
+            int res = -1;
+            if (this.size() >= Header.FIXED) {
+                if (this.byteAt(0) != (byte) 0x1F || this.byteAt(1) != (byte) 0x8B
+                    || this.byteAt(2) != 8) {
+                    throw new ArtipieIOException("Not in gz format");
+                }
+                final int len = this.optional();
+                if (this.size() >= len) {
+                    res = len;
+                }
+            }
+            return res;
+        }
+
+        /**
+         * Number of the header bytes received so far.
+         * @return Number of bytes
+         */
+        private int size() {
+            return this.head.length + this.bytes.length - this.start;
+        }
+
+        /**
+         * Header byte.
+         * @param idx Byte index from the header start
+         * @return Byte
+         */
+        private byte byteAt(final int idx) {
+            final byte res;
+            if (idx < this.head.length) {
+                res = this.head[idx];
+            } else {
+                res = this.bytes[this.start + idx - this.head.length];
+            }
+            return res;
+        }
+
+        /**
+         * Skips optional header fields.
+         * @return Position after optional fields
+         */
+        private int optional() {
+            final int flags = this.byteAt(3);
+            int len = Header.FIXED;
+            if ((flags & 4) != 0) {
+                len = this.extra(len);
+            }
+            if ((flags & 8) != 0) {
+                len = this.string(len);
+            }
+            if ((flags & 16) != 0) {
+                len = this.string(len);
+            }
+            if ((flags & 2) != 0) {
+                len = len + 2;
+            }
+            return len;
+        }
+
+        /**
+         * Skips extra field.
+         * @param from Extra field start position
+         * @return Position after the extra field or after the received bytes if
+         *  extra field length is not received yet
+         */
+        private int extra(final int from) {
+            int res = from + 2;
+            if (this.size() >= res) {
+                res = res + ((this.byteAt(from) & 0xFF) | (this.byteAt(from + 1) & 0xFF) << 8);
+            }
+            return res;
+        }
+
+        /**
+         * Skips zero-terminated string.
+         * @param from String start position
+         * @return Position after the string or after the received bytes if
+         *  string is not complete
+         */
+        private int string(final int from) {
+            int pos = from;
+            while (pos < this.size() && this.byteAt(pos) != 0) {
+                pos = pos + 1;
+            }
+            return pos + 1;
+        }
+    }
+}
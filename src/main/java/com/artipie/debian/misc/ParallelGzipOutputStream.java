@@ -0,0 +1,254 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.ArtipieIOException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip output stream which deflates blocks of the input concurrently, the way pigz does.
+ * Input is split into blocks, each block is deflated in the executor independently with
+ * the last 32 KiB of the previous block as a preset dictionary and is ended with the sync
+ * flush, so the deflated blocks are concatenated into a single deflate stream. The result is
+ * a standard single member gzip stream which can be read by any gzip decoder. Checksum is
+ * calculated in the writing thread, deflated blocks are written to the origin stream in order.
+ * Closing this stream finishes gzip member and closes the origin stream.
+ * @since 0.9
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+public final class ParallelGzipOutputStream extends OutputStream {
+
+    /**
+     * Gzip header: magic, deflate method, no flags, no mtime, no extra flags, unknown OS.
+     */
+    private static final byte[] HEADER = {
+        (byte) 0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff,
+    };
+
+    /**
+     * Deflate window size, also the size of the preset dictionary.
+     */
+    private static final int WINDOW = 32 * 1024;
+
+    /**
+     * Origin stream.
+     */
+    private final OutputStream origin;
+
+    /**
+     * Executor to deflate blocks in.
+     */
+    private final Executor exec;
+
+    /**
+     * Max number of blocks being deflated at the same time.
+     */
+    private final int inflight;
+
+    /**
+     * Blocks being deflated, in the input order.
+     */
+    private final Deque<CompletableFuture<byte[]>> pending;
+
+    /**
+     * Input checksum.
+     */
+    private final CRC32 crc;
+
+    /**
+     * Current block.
+     */
+    private final byte[] block;
+
+    /**
+     * Number of bytes in current block.
+     */
+    private int size;
+
+    /**
+     * Dictionary for the current block: the tail of the previous block.
+     */
+    private byte[] dict;
+
+    /**
+     * Total input length.
+     */
+    private long length;
+
+    /**
+     * Was gzip header written?
+     */
+    private boolean started;
+
+    /**
+     * Is the stream closed?
+     */
+    private boolean closed;
+
+    /**
+     * Ctor.
+     * @param origin Origin stream
+     * @param exec Executor to deflate blocks in
+     * @param block Block size, blocks less than 32 KiB are extended to 32 KiB
+     * @param inflight Max number of blocks being deflated at the same time
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public ParallelGzipOutputStream(final OutputStream origin, final Executor exec,
+        final int block, final int inflight) {
+        super();
+        this.origin = origin;
+        this.exec = exec;
+        this.inflight = Math.max(1, inflight);
+        this.pending = new ArrayDeque<>(this.inflight);
+        this.crc = new CRC32();
+        this.block = new byte[Math.max(block, ParallelGzipOutputStream.WINDOW)];
+        this.dict = new byte[0];
+    }
+
+    @Override
+    public void write(final int value) throws IOException {
+        this.write(new byte[] {(byte) value}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int off, final int len) throws IOException {
+        if (this.closed) {
+            throw new IOException("Stream is closed");
+        }
+        this.start();
+        this.crc.update(bytes, off, len);
+        this.length = this.length + len;
+        int pos = off;
+        final int end = off + len;
+        while (pos < end) {
+            final int cnt = Math.min(end - pos, this.block.length - this.size);
+            System.arraycopy(bytes, pos, this.block, this.size, cnt);
+            this.size = this.size + cnt;
+            pos = pos + cnt;
+            if (this.size == this.block.length) {
+                this.submit(false);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!this.closed) {
+            this.closed = true;
+            try {
+                this.start();
+                this.submit(true);
+                while (!this.pending.isEmpty()) {
+                    this.origin.write(ParallelGzipOutputStream.join(this.pending.poll()));
+                }
+                this.origin.write(ParallelGzipOutputStream.littleEndian(this.crc.getValue()));
+                this.origin.write(ParallelGzipOutputStream.littleEndian(this.length));
+            } finally {
+                this.origin.close();
+            }
+        }
+    }
+
+    /**
+     * Writes gzip header if it was not written yet.
+     * @throws IOException On error
+     */
+    private void start() throws IOException {
+        if (!this.started) {
+            this.started = true;
+            this.origin.write(ParallelGzipOutputStream.HEADER);
+        }
+    }
+
+    /**
+     * Submits current block to deflate, writes deflated blocks if too many blocks are pending.
+     * @param last Is it the last block?
+     * @throws IOException On error
+     */
+    private void submit(final boolean last) throws IOException {
+        final byte[] input = Arrays.copyOf(this.block, this.size);
+        final byte[] preset = this.dict;
+        this.dict = Arrays.copyOfRange(
+            input, Math.max(0, input.length - ParallelGzipOutputStream.WINDOW), input.length
+        );
+        this.size = 0;
+        this.pending.add(
+            CompletableFuture.supplyAsync(
+                () -> ParallelGzipOutputStream.deflate(input, preset, last), this.exec
+            )
+        );
+        while (this.pending.size() > this.inflight) {
+            this.origin.write(ParallelGzipOutputStream.join(this.pending.poll()));
+        }
+    }
+
+    /**
+     * Deflates the block.
+     * @param input Block bytes
+     * @param preset Preset dictionary
+     * @param last Is it the last block?
+     * @return Raw deflated bytes, ended with sync flush or with the final block
+     */
+    private static byte[] deflate(final byte[] input, final byte[] preset, final boolean last) {
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            if (preset.length > 0) {
+                deflater.setDictionary(preset);
+            }
+            deflater.setInput(input);
+            final ByteArrayOutputStream res = new ByteArrayOutputStream(input.length / 2 + 64);
+            final byte[] buf = new byte[16 * 1024];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    res.write(buf, 0, deflater.deflate(buf));
+                }
+            } else {
+                int cnt;
+                do {
+                    cnt = deflater.deflate(buf, 0, buf.length, Deflater.SYNC_FLUSH);
+                    res.write(buf, 0, cnt);
+                } while (cnt == buf.length);
+            }
+            return res.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Waits for the block to be deflated.
+     * @param future Deflated block future
+     * @return Deflated block
+     */
+    private static byte[] join(final CompletableFuture<byte[]> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException err) {
+            throw new ArtipieIOException(err);
+        }
+    }
+
+    /**
+     * Four bytes of the value in little-endian order.
+     * @param value Value
+     * @return Bytes
+     */
+    private static byte[] littleEndian(final long value) {
+        return new byte[] {
+            (byte) value, (byte) (value >> 8), (byte) (value >> 16), (byte) (value >> 24),
+        };
+    }
+}
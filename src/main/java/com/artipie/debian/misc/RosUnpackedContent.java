@@ -4,6 +4,7 @@
  */
 package com.artipie.debian.misc;
 
+import com.artipie.debian.metrics.Metrics;
 import java.io.IOException;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
@@ -14,6 +15,7 @@ import java.security.NoSuchAlgorithmException;
 import java.util.concurrent.CompletionStage;
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.io.input.CountingInputStream;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.cqfn.rio.WriteGreed;
@@ -21,8 +23,10 @@ import org.cqfn.rio.stream.ReactiveOutputStream;
 import org.reactivestreams.Publisher;
 
 /**
- * Unpacked content that uses {@link ReactiveOutputStream}.
+ * Unpacked content that uses {@link ReactiveOutputStream}. Records to metrics `unpack.deflated`
+ * and `unpack.inflated` counters of the packed bytes read and the unpacked bytes.
  * @since 0.6
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 public final class RosUnpackedContent {
 
@@ -31,12 +35,27 @@ public final class RosUnpackedContent {
      */
     private final Publisher<ByteBuffer> content;
 
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
     /**
      * Ctor.
      * @param content Content
      */
     public RosUnpackedContent(final Publisher<ByteBuffer> content) {
+        this(content, new Metrics.Noop());
+    }
+
+    /**
+     * Ctor.
+     * @param content Content
+     * @param metrics Metrics
+     */
+    public RosUnpackedContent(final Publisher<ByteBuffer> content, final Metrics metrics) {
         this.content = content;
+        this.metrics = metrics;
     }
 
     /**
@@ -53,7 +72,10 @@ public final class RosUnpackedContent {
             final CompletionStage<Void> ros =
                 new ReactiveOutputStream(out).write(this.content, WriteGreed.SYSTEM);
             long size = 0;
-            try (GzipCompressorInputStream gcis = new GzipCompressorInputStream(in)) {
+            try (
+                CountingInputStream packed = new CountingInputStream(in);
+                GzipCompressorInputStream gcis = new GzipCompressorInputStream(packed)
+            ) {
                 // @checkstyle MagicNumberCheck (1 line)
                 final byte[] buf = new byte[1024];
                 int cnt;
@@ -61,6 +83,8 @@ public final class RosUnpackedContent {
                     digest.update(buf, 0, cnt);
                     size = size + cnt;
                 }
+                this.metrics.count("unpack.deflated", packed.getByteCount());
+                this.metrics.count("unpack.inflated", size);
                 final ImmutablePair<Long, String> pair =
                     new ImmutablePair<>(size, Hex.encodeHexString(digest.digest()));
                 return ros.thenApply(nothing -> pair);
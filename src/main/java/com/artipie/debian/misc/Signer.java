@@ -0,0 +1,120 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.debian.GpgConfig;
+import com.artipie.debian.metrics.Metrics;
+import com.artipie.debian.metrics.Timed;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Signer of the repository indexes: generates detached signature for Release.gpg and
+ * clearsigned content for InRelease.
+ * @since 0.9
+ */
+public interface Signer {
+
+    /**
+     * Generates armored detached GPG signature of the content.
+     * @param content Content to sign
+     * @return Completion action with the signature bytes
+     */
+    CompletionStage<byte[]> signature(byte[] content);
+
+    /**
+     * Signs content with GPG clearsign signature.
+     * @param content Content to sign
+     * @return Completion action with the content along with the signature
+     */
+    CompletionStage<byte[]> signedContent(byte[] content);
+
+    /**
+     * In-process {@link Signer} that signs content with the key from {@link GpgConfig}.
+     * @since 0.9
+     */
+    final class Gpg implements Signer {
+
+        /**
+         * Gpg configuration.
+         */
+        private final GpgConfig gpg;
+
+        /**
+         * Metrics.
+         */
+        private final Metrics metrics;
+
+        /**
+         * Ctor.
+         * @param gpg Gpg configuration
+         */
+        public Gpg(final GpgConfig gpg) {
+            this(gpg, new Metrics.Noop());
+        }
+
+        /**
+         * Ctor.
+         * @param gpg Gpg configuration
+         * @param metrics Metrics to record signing with {@link GpgClearsign}
+         */
+        public Gpg(final GpgConfig gpg, final Metrics metrics) {
+            this.gpg = gpg;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public CompletionStage<byte[]> signature(final byte[] content) {
+            return this.gpg.key().thenApply(
+                key -> new GpgClearsign(content, this.metrics).signature(key, this.gpg.password())
+            );
+        }
+
+        @Override
+        public CompletionStage<byte[]> signedContent(final byte[] content) {
+            return this.gpg.key().thenApply(
+                key -> new GpgClearsign(content, this.metrics)
+                    .signedContent(key, this.gpg.password())
+            );
+        }
+    }
+
+    /**
+     * {@link Signer} that records signing duration to the metrics timer.
+     * @since 0.9
+     */
+    final class Measured implements Signer {
+
+        /**
+         * Origin signer.
+         */
+        private final Signer origin;
+
+        /**
+         * Signing timer.
+         */
+        private final Timed timed;
+
+        /**
+         * Ctor.
+         * @param origin Origin signer
+         * @param metrics Metrics
+         * @param name Timer name
+         */
+        public Measured(final Signer origin, final Metrics metrics, final String name) {
+            this.origin = origin;
+            this.timed = new Timed(metrics, name);
+        }
+
+        @Override
+        public CompletionStage<byte[]> signature(final byte[] content) {
+            return this.timed.measured(() -> this.origin.signature(content));
+        }
+
+        @Override
+        public CompletionStage<byte[]> signedContent(final byte[] content) {
+            return this.timed.measured(() -> this.origin.signedContent(content));
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.jcabi.log.Logger;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Local signing agent: serves {@link SocketSigner} requests on the loopback interface
+ * and signs content with the origin {@link Signer}. Stands in for the separate signing
+ * process in tests and local setups. Requests of one connection are processed in order,
+ * responses are flushed when there are no more pending requests in the connection.
+ * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class SigningAgent implements Closeable {
+
+    /**
+     * Origin signer.
+     */
+    private final Signer origin;
+
+    /**
+     * Port to listen, 0 to choose any free port.
+     */
+    private final int port;
+
+    /**
+     * Threads to accept and serve connections.
+     */
+    private final ExecutorService exec;
+
+    /**
+     * Server socket.
+     */
+    private final AtomicReference<ServerSocket> server;
+
+    /**
+     * Open client connections.
+     */
+    private final Set<Socket> clients;
+
+    /**
+     * Ctor.
+     * @param origin Origin signer
+     */
+    public SigningAgent(final Signer origin) {
+        this(origin, 0);
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin signer
+     * @param port Port to listen, 0 to choose any free port
+     */
+    public SigningAgent(final Signer origin, final int port) {
+        this.origin = origin;
+        this.port = port;
+        this.exec = Executors.newCachedThreadPool(
+            runnable -> {
+                final Thread thread = new Thread(runnable, "debian-signing-agent");
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        this.server = new AtomicReference<>();
+        this.clients = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Starts the agent.
+     * @return Port the agent listens on
+     * @throws IOException On IO error
+     */
+    public int start() throws IOException {
+        final ServerSocket socket = new ServerSocket(
+            this.port, 0, InetAddress.getLoopbackAddress()
+        );
+        if (!this.server.compareAndSet(null, socket)) {
+            socket.close();
+            throw new IllegalStateException("Signing agent is already started");
+        }
+        this.exec.execute(() -> this.accept(socket));
+        return socket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        final ServerSocket socket = this.server.getAndSet(null);
+        if (socket != null) {
+            socket.close();
+        }
+        for (final Socket client : this.clients) {
+            client.close();
+        }
+        this.exec.shutdown();
+    }
+
+    /**
+     * Accepts connections until server socket is closed.
+     * @param socket Server socket
+     */
+    private void accept(final ServerSocket socket) {
+        while (!socket.isClosed()) {
+            try {
+                final Socket client = socket.accept();
+                this.clients.add(client);
+                this.exec.execute(() -> this.serve(client));
+            } catch (final IOException err) {
+                if (!socket.isClosed()) {
+                    Logger.warn(this, "Failed to accept connection:\n%s", err.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Serves client connection.
+     * @param client Client socket
+     */
+    @SuppressWarnings("PMD.AssignmentInOperand")
+    private void serve(final Socket client) {
+        try (
+            Socket sock = client;
+            DataInputStream in = new DataInputStream(
+                new BufferedInputStream(sock.getInputStream())
+            );
+            DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(sock.getOutputStream())
+            )
+        ) {
+            int operation;
+            while ((operation = in.read()) >= 0) {
+                final byte[] content = new byte[SocketSigner.length(in)];
+                in.readFully(content);
+                byte status = SocketSigner.OK;
+                byte[] res;
+                try {
+                    res = this.sign(operation, content).toCompletableFuture().join();
+                } catch (final CompletionException err) {
+                    status = SocketSigner.FAILED;
+                    res = String.valueOf(err.getCause().getMessage())
+                        .getBytes(StandardCharsets.UTF_8);
+                }
+                out.writeByte(status);
+                out.writeInt(res.length);
+                out.write(res);
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (final IOException err) {
+            if (this.server.get() != null) {
+                Logger.warn(this, "Signing connection failed:\n%s", err.getMessage());
+            }
+        } finally {
+            this.clients.remove(client);
+        }
+    }
+
+    /**
+     * Signs content with the origin signer.
+     * @param operation Operation
+     * @param content Content to sign
+     * @return Completion action with the result
+     */
+    private CompletionStage<byte[]> sign(final int operation, final byte[] content) {
+        final CompletionStage<byte[]> res;
+        if (operation == SocketSigner.DETACHED) {
+            res = this.origin.signature(content);
+        } else if (operation == SocketSigner.CLEARSIGN) {
+            res = this.origin.signedContent(content);
+        } else {
+            throw new CompletionException(
+                new IllegalArgumentException(
+                    String.format("Unknown signing operation %d", operation)
+                )
+            );
+        }
+        return res;
+    }
+}
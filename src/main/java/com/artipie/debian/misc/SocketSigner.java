@@ -0,0 +1,333 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.ArtipieIOException;
+import com.jcabi.log.Logger;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link Signer} that sends content to the separate signing process (for example,
+ * {@link SigningAgent}) over the socket. One connection is kept open, all the requests
+ * accumulated while the previous batch was in flight are written at once and their responses
+ * are read back in the same order, so several signing requests share one round trip.
+ * <p>
+ * Request frame is the operation byte ({@link #DETACHED} or {@link #CLEARSIGN}), four bytes of
+ * the content length and the content. Response frame is the status byte ({@link #OK} or
+ * {@link #FAILED}), four bytes of the payload length and the payload: signing result or
+ * UTF-8 error message.
+ * <p>
+ * Connect and read operations are limited by the timeout, so the hung signing process fails
+ * the pending requests instead of blocking the signer thread and all the requests behind it.
+ * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class SocketSigner implements Signer, Closeable {
+
+    /**
+     * Detached signature operation.
+     */
+    static final byte DETACHED = 1;
+
+    /**
+     * Clearsign operation.
+     */
+    static final byte CLEARSIGN = 2;
+
+    /**
+     * Successful response status.
+     */
+    static final byte OK = 0;
+
+    /**
+     * Failed response status.
+     */
+    static final byte FAILED = 1;
+
+    /**
+     * Default connect and read timeout in milliseconds.
+     */
+    private static final int TIMEOUT = 30_000;
+
+    /**
+     * Signing process address.
+     */
+    private final InetSocketAddress address;
+
+    /**
+     * Connect and read timeout in milliseconds.
+     */
+    private final int timeout;
+
+    /**
+     * Requests waiting to be sent.
+     */
+    private final BlockingQueue<Request> queue;
+
+    /**
+     * Single thread to talk to the signing process.
+     */
+    private final ExecutorService exec;
+
+    /**
+     * Current connection.
+     */
+    private final AtomicReference<Connection> conn;
+
+    /**
+     * Ctor.
+     * @param host Signing process host
+     * @param port Signing process port
+     */
+    public SocketSigner(final String host, final int port) {
+        this(new InetSocketAddress(host, port));
+    }
+
+    /**
+     * Ctor.
+     * @param address Signing process address
+     */
+    public SocketSigner(final InetSocketAddress address) {
+        this(address, SocketSigner.TIMEOUT);
+    }
+
+    /**
+     * Ctor.
+     * @param address Signing process address, resolved on each connection if unresolved
+     * @param timeout Connect and read timeout in milliseconds
+     */
+    public SocketSigner(final InetSocketAddress address, final int timeout) {
+        this.address = address;
+        this.timeout = timeout;
+        this.queue = new LinkedBlockingQueue<>();
+        this.exec = Executors.newSingleThreadExecutor(
+            runnable -> {
+                final Thread thread = new Thread(runnable, "debian-socket-signer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        this.conn = new AtomicReference<>();
+    }
+
+    @Override
+    public CompletionStage<byte[]> signature(final byte[] content) {
+        return this.request(SocketSigner.DETACHED, content);
+    }
+
+    @Override
+    public CompletionStage<byte[]> signedContent(final byte[] content) {
+        return this.request(SocketSigner.CLEARSIGN, content);
+    }
+
+    @Override
+    public void close() {
+        this.exec.shutdown();
+        final Connection current = this.conn.getAndSet(null);
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    /**
+     * Reads frame length.
+     * @param input Where to read from
+     * @return Frame length
+     * @throws IOException On IO error or if length is invalid
+     */
+    static int length(final DataInputStream input) throws IOException {
+        final int res = input.readInt();
+        if (res < 0) {
+            throw new IOException(String.format("Invalid frame length %d", res));
+        }
+        return res;
+    }
+
+    /**
+     * Enqueues signing request.
+     * @param operation Operation
+     * @param content Content to sign
+     * @return Completion action with the result, failed if the signer is closed
+     */
+    private CompletionStage<byte[]> request(final byte operation, final byte[] content) {
+        final Request req = new Request(operation, content);
+        if (this.exec.isShutdown()) {
+            req.result.completeExceptionally(
+                new RejectedExecutionException("Socket signer is closed")
+            );
+        } else {
+            this.queue.add(req);
+            try {
+                this.exec.execute(this::flush);
+            } catch (final RejectedExecutionException err) {
+                this.queue.remove(req);
+                req.result.completeExceptionally(err);
+            }
+        }
+        return req.result;
+    }
+
+    /**
+     * Sends all the pending requests as one batch and reads the responses.
+     */
+    private void flush() {
+        final List<Request> batch = new ArrayList<>(this.queue.size());
+        this.queue.drainTo(batch);
+        if (!batch.isEmpty()) {
+            try {
+                final Connection current = this.connection();
+                for (final Request req : batch) {
+                    current.output.writeByte(req.operation);
+                    current.output.writeInt(req.content.length);
+                    current.output.write(req.content);
+                }
+                current.output.flush();
+                for (final Request req : batch) {
+                    final byte status = current.input.readByte();
+                    final byte[] payload = new byte[SocketSigner.length(current.input)];
+                    current.input.readFully(payload);
+                    if (status == SocketSigner.OK) {
+                        req.result.complete(payload);
+                    } else {
+                        req.result.completeExceptionally(
+                            new ArtipieException(new String(payload, StandardCharsets.UTF_8))
+                        );
+                    }
+                }
+            } catch (final IOException err) {
+                final Connection broken = this.conn.getAndSet(null);
+                if (broken != null) {
+                    broken.close();
+                }
+                batch.forEach(req -> req.result.completeExceptionally(new ArtipieIOException(err)));
+            }
+        }
+    }
+
+    /**
+     * Opens connection if it is not opened yet.
+     * @return Connection
+     * @throws IOException On IO error
+     */
+    private Connection connection() throws IOException {
+        Connection res = this.conn.get();
+        if (res == null) {
+            InetSocketAddress target = this.address;
+            if (target.isUnresolved()) {
+                target = new InetSocketAddress(target.getHostString(), target.getPort());
+            }
+            final Socket socket = new Socket();
+            try {
+                socket.connect(target, this.timeout);
+                socket.setSoTimeout(this.timeout);
+                res = new Connection(socket);
+            } catch (final IOException err) {
+                socket.close();
+                throw err;
+            }
+            this.conn.set(res);
+        }
+        return res;
+    }
+
+    /**
+     * Signing request.
+     * @since 0.9
+     */
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly")
+    private static final class Request {
+
+        /**
+         * Operation.
+         */
+        private final byte operation;
+
+        /**
+         * Content to sign.
+         */
+        private final byte[] content;
+
+        /**
+         * Signing result.
+         */
+        private final CompletableFuture<byte[]> result;
+
+        /**
+         * Ctor.
+         * @param operation Operation
+         * @param content Content to sign
+         */
+        Request(final byte operation, final byte[] content) {
+            this.operation = operation;
+            this.content = content;
+            this.result = new CompletableFuture<>();
+        }
+    }
+
+    /**
+     * Connection to the signing process.
+     * @since 0.9
+     */
+    private static final class Connection {
+
+        /**
+         * Socket.
+         */
+        private final Socket socket;
+
+        /**
+         * Socket input.
+         */
+        private final DataInputStream input;
+
+        /**
+         * Socket output.
+         */
+        private final DataOutputStream output;
+
+        /**
+         * Ctor.
+         * @param socket Socket
+         * @throws IOException On IO error
+         */
+        Connection(final Socket socket) throws IOException {
+            this.socket = socket;
+            this.input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.output = new DataOutputStream(
+                new BufferedOutputStream(socket.getOutputStream())
+            );
+        }
+
+        /**
+         * Closes connection quietly.
+         */
+        void close() {
+            try {
+                this.socket.close();
+            } catch (final IOException err) {
+                Logger.debug(this, "Failed to close signer connection:\n%s", err.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,436 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Stanzas sorted by {@link Stanzas.Stanza#sortKey()} with bounded memory (external sort).
+ * Stanzas are collected in memory until the memory budget is exceeded, then collected stanzas
+ * are sorted and spilled to the temp file as a sorted run. On write, the runs are merged
+ * with k-way merge. At most fan-in runs are opened at once, each with its own I/O buffer:
+ * if there are more runs, they are merged by batches into intermediate runs until the number
+ * of runs fits the fan-in. Stanzas with equal keys are ordered by the order they were added
+ * in, only the first of them is written. Close the instance to remove temp files.
+ * @since 0.9
+ */
+public final class SortedStanzas implements Closeable {
+
+    /**
+     * Approximate memory overhead of one collected stanza.
+     */
+    private static final int OVERHEAD = 64;
+
+    /**
+     * I/O buffer size.
+     */
+    private static final int BUFFER = 64 * 1024;
+
+    /**
+     * Default max number of runs merged at once, their buffers take 4 MiB.
+     */
+    private static final int FAN_IN = 64;
+
+    /**
+     * Entries order: sort key, then order of addition.
+     */
+    private static final Comparator<Entry> ORDER =
+        Comparator.<Entry, byte[]>comparing(entry -> entry.key, Stanzas.KEYS)
+            .thenComparingLong(entry -> entry.seq);
+
+    /**
+     * Memory budget in bytes.
+     */
+    private final long budget;
+
+    /**
+     * Max number of runs merged at once.
+     */
+    private final int fanin;
+
+    /**
+     * Collected entries.
+     */
+    private final List<Entry> entries;
+
+    /**
+     * Sorted runs files.
+     */
+    private final List<Path> runs;
+
+    /**
+     * Temp directory for sorted runs, created on the first spill.
+     */
+    private Path temp;
+
+    /**
+     * Memory used by collected entries.
+     */
+    private long used;
+
+    /**
+     * Number of run files created, spilled and intermediate ones.
+     */
+    private int files;
+
+    /**
+     * Number of runs spilled to disk.
+     */
+    private int spills;
+
+    /**
+     * Number of added stanzas.
+     */
+    private long seq;
+
+    /**
+     * Ctor.
+     * @param budget Memory budget in bytes for the collected stanzas
+     */
+    public SortedStanzas(final long budget) {
+        this(budget, SortedStanzas.FAN_IN);
+    }
+
+    /**
+     * Ctor.
+     * @param budget Memory budget in bytes for the collected stanzas
+     * @param fanin Max number of runs merged at once, at least two
+     */
+    public SortedStanzas(final long budget, final int fanin) {
+        this.budget = budget;
+        this.fanin = SortedStanzas.checked(fanin);
+        this.entries = new ArrayList<>(0);
+        this.runs = new ArrayList<>(0);
+    }
+
+    /**
+     * Adds stanza, spills collected stanzas to disk if memory budget is exceeded.
+     * @param stanza Stanza
+     * @throws IOException On error
+     */
+    public void add(final Stanzas.Stanza stanza) throws IOException {
+        final Entry entry = new Entry(stanza.sortKey(), this.seq, stanza.bytes());
+        this.seq = this.seq + 1;
+        this.entries.add(entry);
+        this.used = this.used + entry.key.length + entry.bytes.length + SortedStanzas.OVERHEAD;
+        if (this.used > this.budget) {
+            this.spill();
+        }
+    }
+
+    /**
+     * Writes sorted unique stanzas, each stanza is followed by empty line.
+     * @param out Output stream
+     * @throws IOException On error
+     */
+    public void writeTo(final OutputStream out) throws IOException {
+        if (this.runs.isEmpty()) {
+            this.entries.sort(SortedStanzas.ORDER);
+            byte[] last = null;
+            for (final Entry entry : this.entries) {
+                last = entry.writeTo(out, last);
+            }
+            this.entries.clear();
+        } else {
+            this.spill();
+            this.merge(out);
+        }
+    }
+
+    /**
+     * Number of sorted runs spilled to disk.
+     * @return Number of runs
+     */
+    public int spilled() {
+        return this.spills;
+    }
+
+    @Override
+    public void close() {
+        if (this.temp != null) {
+            FileUtils.deleteQuietly(this.temp.toFile());
+        }
+    }
+
+    /**
+     * Sorts collected entries and writes them to the new run file, duplicates are skipped.
+     * @throws IOException On error
+     */
+    private void spill() throws IOException {
+        if (!this.entries.isEmpty()) {
+            final Path run = this.file();
+            this.entries.sort(SortedStanzas.ORDER);
+            try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(run), SortedStanzas.BUFFER)
+            )) {
+                byte[] last = null;
+                for (final Entry entry : this.entries) {
+                    if (last == null || Stanzas.KEYS.compare(last, entry.key) != 0) {
+                        entry.save(out);
+                        last = entry.key;
+                    }
+                }
+            }
+            this.runs.add(run);
+            this.spills = this.spills + 1;
+            this.entries.clear();
+            this.used = 0;
+        }
+    }
+
+    /**
+     * Checks the fan-in.
+     * @param fanin Max number of runs merged at once
+     * @return Fan-in if it is at least two
+     */
+    private static int checked(final int fanin) {
+        if (fanin < 2) {
+            throw new IllegalArgumentException(
+                String.format("Fan-in should be at least 2, got %d", fanin)
+            );
+        }
+        return fanin;
+    }
+
+    /**
+     * Creates the path of the new run file in the temp directory.
+     * @return Run file path
+     * @throws IOException On error
+     */
+    private Path file() throws IOException {
+        if (this.temp == null) {
+            this.temp = Files.createTempDirectory("packages-sort-");
+        }
+        final Path res = this.temp.resolve(String.format("run-%d", this.files));
+        this.files = this.files + 1;
+        return res;
+    }
+
+    /**
+     * Merges sorted runs into the output stream, duplicates are skipped. While there are
+     * more runs than the fan-in, runs are merged by batches into intermediate runs.
+     * @param out Output stream
+     * @throws IOException On error
+     */
+    private void merge(final OutputStream out) throws IOException {
+        while (this.runs.size() > this.fanin) {
+            final List<Path> merged = new ArrayList<>(this.runs.size() / this.fanin + 1);
+            for (int idx = 0; idx < this.runs.size(); idx = idx + this.fanin) {
+                final List<Path> batch =
+                    this.runs.subList(idx, Math.min(idx + this.fanin, this.runs.size()));
+                if (batch.size() == 1) {
+                    merged.add(batch.get(0));
+                } else {
+                    final Path run = this.file();
+                    try (DataOutputStream dos = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(run), SortedStanzas.BUFFER)
+                    )) {
+                        SortedStanzas.merge(batch, entry -> entry.save(dos));
+                    }
+                    for (final Path path : batch) {
+                        Files.delete(path);
+                    }
+                    merged.add(run);
+                }
+            }
+            this.runs.clear();
+            this.runs.addAll(merged);
+        }
+        SortedStanzas.merge(this.runs, entry -> out.write(entry.bytes));
+    }
+
+    /**
+     * Merges sorted runs with k-way merge, only the first entry of the equal keys is passed
+     * to the target.
+     * @param paths Run files
+     * @param target Target of the merged entries
+     * @throws IOException On error
+     */
+    private static void merge(final List<Path> paths, final Target target) throws IOException {
+        final PriorityQueue<Run> queue = new PriorityQueue<>(
+            paths.size(), Comparator.comparing(run -> run.head, SortedStanzas.ORDER)
+        );
+        final List<Run> opened = new ArrayList<>(paths.size());
+        try {
+            for (final Path path : paths) {
+                final Run run = new Run(path);
+                opened.add(run);
+                if (run.next()) {
+                    queue.add(run);
+                }
+            }
+            byte[] last = null;
+            while (!queue.isEmpty()) {
+                final Run run = queue.poll();
+                if (last == null || Stanzas.KEYS.compare(last, run.head.key) != 0) {
+                    target.accept(run.head);
+                    last = run.head.key;
+                }
+                if (run.next()) {
+                    queue.add(run);
+                }
+            }
+        } finally {
+            for (final Run run : opened) {
+                run.close();
+            }
+        }
+    }
+
+    /**
+     * Target of the merged entries.
+     * @since 0.9
+     */
+    private interface Target {
+
+        /**
+         * Accepts the entry.
+         * @param entry Entry
+         * @throws IOException On error
+         */
+        void accept(Entry entry) throws IOException;
+    }
+
+    /**
+     * Collected stanza.
+     * @since 0.9
+     */
+    private static final class Entry {
+
+        /**
+         * Sort key.
+         */
+        private final byte[] key;
+
+        /**
+         * Order of addition.
+         */
+        private final long seq;
+
+        /**
+         * Stanza bytes.
+         */
+        private final byte[] bytes;
+
+        /**
+         * Ctor.
+         * @param key Sort key
+         * @param seq Order of addition
+         * @param bytes Stanza bytes
+         */
+        @SuppressWarnings("PMD.ArrayIsStoredDirectly")
+        Entry(final byte[] key, final long seq, final byte[] bytes) {
+            this.key = key;
+            this.seq = seq;
+            this.bytes = bytes;
+        }
+
+        /**
+         * Writes stanza bytes unless its key equals to the last written key.
+         * @param out Output stream
+         * @param last Last written key, null if nothing was written
+         * @return Last written key
+         * @throws IOException On error
+         */
+        byte[] writeTo(final OutputStream out, final byte[] last) throws IOException {
+            byte[] res = last;
+            if (last == null || Stanzas.KEYS.compare(last, this.key) != 0) {
+                out.write(this.bytes);
+                res = this.key;
+            }
+            return res;
+        }
+
+        /**
+         * Saves entry to the run file.
+         * @param out Run output
+         * @throws IOException On error
+         */
+        void save(final DataOutputStream out) throws IOException {
+            out.writeInt(this.key.length);
+            out.write(this.key);
+            out.writeLong(this.seq);
+            out.writeInt(this.bytes.length);
+            out.write(this.bytes);
+        }
+
+        /**
+         * Loads entry from the run file.
+         * @param inp Run input
+         * @return Entry
+         * @throws IOException On error
+         */
+        static Entry load(final DataInputStream inp) throws IOException {
+            final byte[] key = new byte[inp.readInt()];
+            inp.readFully(key);
+            final long seq = inp.readLong();
+            final byte[] bytes = new byte[inp.readInt()];
+            inp.readFully(bytes);
+            return new Entry(key, seq, bytes);
+        }
+    }
+
+    /**
+     * Sorted run reader.
+     * @since 0.9
+     */
+    private static final class Run implements Closeable {
+
+        /**
+         * Run input.
+         */
+        private final DataInputStream inp;
+
+        /**
+         * Current entry.
+         */
+        private Entry head;
+
+        /**
+         * Ctor.
+         * @param path Run file
+         * @throws IOException On error
+         */
+        Run(final Path path) throws IOException {
+            this.inp = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path), SortedStanzas.BUFFER)
+            );
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.inp.close();
+        }
+
+        /**
+         * Reads next entry.
+         * @return True if entry was read, false on the end of the run
+         * @throws IOException On error
+         */
+        boolean next() throws IOException {
+            boolean res = true;
+            try {
+                this.head = Entry.load(this.inp);
+            } catch (final EOFException ex) {
+                res = false;
+            }
+            return res;
+        }
+    }
+}
@@ -0,0 +1,564 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Stanzas (paragraphs separated by empty lines) of the control-like file read as raw bytes.
+ * Stanzas are read into the reusable buffer and are passed to the visitor one by one via
+ * the reusable {@link Stanza} instance, so no objects are allocated per stanza. Stanza is
+ * valid only inside the {@link Visitor#visit(Stanza)} call.
+ * @since 0.9
+ */
+public final class Stanzas {
+
+    /**
+     * Sort keys order: keys are compared as unsigned bytes.
+     */
+    public static final Comparator<byte[]> KEYS = Stanzas::compare;
+
+    /**
+     * Initial buffer size.
+     */
+    private static final int SIZE = 64 * 1024;
+
+    /**
+     * Line feed.
+     */
+    private static final byte LF = '\n';
+
+    /**
+     * Input stream.
+     */
+    private final InputStream inp;
+
+    /**
+     * Ctor.
+     * @param inp Input stream with decompressed control-like file
+     */
+    public Stanzas(final InputStream inp) {
+        this.inp = inp;
+    }
+
+    /**
+     * Reads stanzas and passes them to the visitor.
+     * @param visitor Stanzas visitor
+     * @throws IOException On error
+     */
+    public void read(final Visitor visitor) throws IOException {
+        final Reader rdr = new Reader(visitor);
+        boolean eof = false;
+        while (!eof) {
+            rdr.lines();
+            rdr.compact();
+            eof = rdr.fill(this.inp);
+        }
+        rdr.lines();
+        rdr.flush();
+    }
+
+    /**
+     * Compares sort keys as unsigned bytes.
+     * @param first First key
+     * @param second Second key
+     * @return Comparison result
+     * @checkstyle MagicNumberCheck (10 lines)
+     */
+    private static int compare(final byte[] first, final byte[] second) {
+        final int len = Math.min(first.length, second.length);
+        int res = 0;
+        for (int idx = 0; res == 0 && idx < len; idx = idx + 1) {
+            res = Integer.compare(first[idx] & 0xff, second[idx] & 0xff);
+        }
+        if (res == 0) {
+            res = Integer.compare(first.length, second.length);
+        }
+        return res;
+    }
+
+    /**
+     * Stanzas visitor.
+     * @since 0.9
+     */
+    @FunctionalInterface
+    public interface Visitor {
+
+        /**
+         * Visits the stanza.
+         * @param stanza Stanza, valid only during this call
+         * @throws IOException On error
+         */
+        void visit(Stanza stanza) throws IOException;
+    }
+
+    /**
+     * Stanza bytes: lines of the stanza, each line ends with line feed, without empty lines.
+     * Stanza key is a 128-bit hash of `Package` and `Version` fields values.
+     * @since 0.9
+     */
+    public static final class Stanza {
+
+        /**
+         * Package field name.
+         */
+        private static final byte[] PACKAGE = "Package:".getBytes(StandardCharsets.US_ASCII);
+
+        /**
+         * Version field name.
+         */
+        private static final byte[] VERSION = "Version:".getBytes(StandardCharsets.US_ASCII);
+
+        /**
+         * Buffer.
+         */
+        private byte[] buf;
+
+        /**
+         * Stanza start in the buffer.
+         */
+        private int start;
+
+        /**
+         * Stanza end in the buffer, exclusive.
+         */
+        private int end;
+
+        /**
+         * High 64 bits of the key.
+         */
+        private long hhigh;
+
+        /**
+         * Low 64 bits of the key.
+         */
+        private long hlow;
+
+        /**
+         * Bounds of `Package` field value: start in the high half, end in the low half.
+         */
+        private long pckg;
+
+        /**
+         * Bounds of `Version` field value: start in the high half, end in the low half.
+         */
+        private long version;
+
+        /**
+         * High 64 bits of the 128-bit hash of `Package` and `Version` fields values.
+         * @return Hash bits
+         */
+        public long high() {
+            return this.hhigh;
+        }
+
+        /**
+         * Low 64 bits of the 128-bit hash of `Package` and `Version` fields values.
+         * @return Hash bits
+         */
+        public long low() {
+            return this.hlow;
+        }
+
+        /**
+         * Writes stanza followed by empty line.
+         * @param out Output stream
+         * @throws IOException On error
+         */
+        public void writeTo(final OutputStream out) throws IOException {
+            out.write(this.buf, this.start, this.end - this.start);
+            out.write(Stanzas.LF);
+        }
+
+        /**
+         * Copy of stanza bytes followed by empty line.
+         * @return Bytes
+         */
+        public byte[] bytes() {
+            final byte[] res = Arrays.copyOfRange(this.buf, this.start, this.end + 1);
+            res[res.length - 1] = Stanzas.LF;
+            return res;
+        }
+
+        /**
+         * Sort key: `Package` field value bytes, zero byte and `Version` field value bytes,
+         * compare keys with {@link Stanzas#KEYS}.
+         * @return Key bytes
+         */
+        public byte[] sortKey() {
+            final int plen = Stanza.length(this.pckg);
+            final int vlen = Stanza.length(this.version);
+            final byte[] res = new byte[plen + vlen + 1];
+            System.arraycopy(this.buf, (int) (this.pckg >>> Integer.SIZE), res, 0, plen);
+            System.arraycopy(
+                this.buf, (int) (this.version >>> Integer.SIZE), res, plen + 1, vlen
+            );
+            return res;
+        }
+
+        /**
+         * Points this stanza to the bytes in the buffer and calculates the key.
+         * @param bytes Buffer
+         * @param from Stanza start
+         * @param till Stanza end, exclusive
+         * @return Itself
+         */
+        @SuppressWarnings("PMD.ArrayIsStoredDirectly")
+        Stanza reset(final byte[] bytes, final int from, final int till) {
+            this.buf = bytes;
+            this.start = from;
+            this.end = till;
+            this.pckg = this.field(Stanza.PACKAGE);
+            this.version = this.field(Stanza.VERSION);
+            final Hash hash = new Hash();
+            hash.update(this.buf, this.pckg);
+            hash.separator();
+            hash.update(this.buf, this.version);
+            this.hhigh = hash.high();
+            this.hlow = hash.low();
+            return this;
+        }
+
+        /**
+         * Finds the first field with the name.
+         * @param name Field name with colon
+         * @return Bounds of the trimmed field value: start in the high half, end in the low
+         *  half, both are zero if the field is not found
+         */
+        private long field(final byte[] name) {
+            int line = this.start;
+            long res = 0;
+            boolean found = false;
+            while (!found && line < this.end) {
+                int eol = line;
+                while (this.buf[eol] != Stanzas.LF) {
+                    eol = eol + 1;
+                }
+                if (Stanza.startsWith(this.buf, line, eol, name)) {
+                    int from = line + name.length;
+                    while (from < eol && Stanza.blank(this.buf[from])) {
+                        from = from + 1;
+                    }
+                    int till = eol;
+                    while (till > from && Stanza.blank(this.buf[till - 1])) {
+                        till = till - 1;
+                    }
+                    res = (long) from << Integer.SIZE | till;
+                    found = true;
+                }
+                line = eol + 1;
+            }
+            return res;
+        }
+
+        /**
+         * Length of the field value.
+         * @param bounds Field value bounds
+         * @return Length
+         */
+        private static int length(final long bounds) {
+            return (int) bounds - (int) (bounds >>> Integer.SIZE);
+        }
+
+        /**
+         * Checks whether line starts with the prefix.
+         * @param bytes Buffer
+         * @param from Line start
+         * @param till Line end
+         * @param prefix Prefix
+         * @return True if line starts with the prefix
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        private static boolean startsWith(final byte[] bytes, final int from, final int till,
+            final byte[] prefix) {
+            boolean res = till - from >= prefix.length;
+            for (int idx = 0; res && idx < prefix.length; idx = idx + 1) {
+                res = bytes[from + idx] == prefix[idx];
+            }
+            return res;
+        }
+
+        /**
+         * Is byte a blank char.
+         * @param chr Byte
+         * @return True for space, tab and carriage return
+         */
+        private static boolean blank(final byte chr) {
+            return chr == ' ' || chr == '\t' || chr == '\r';
+        }
+    }
+
+    /**
+     * Two independent 64-bit hashes forming the 128-bit hash: FNV-1a and multiplicative hash,
+     * both finalized with the murmur3 mixer.
+     * @since 0.9
+     * @checkstyle MagicNumberCheck (100 lines)
+     */
+    private static final class Hash {
+
+        /**
+         * FNV-1a state.
+         */
+        private long first;
+
+        /**
+         * Multiplicative hash state.
+         */
+        private long second;
+
+        /**
+         * Ctor.
+         */
+        Hash() {
+            this.first = 0xcbf29ce484222325L;
+            this.second = 0x9e3779b97f4a7c15L;
+        }
+
+        /**
+         * Adds bytes to the hash.
+         * @param bytes Bytes
+         * @param bounds Start in the high half, end (exclusive) in the low half
+         */
+        void update(final byte[] bytes, final long bounds) {
+            for (int idx = (int) (bounds >>> 32); idx < (int) bounds; idx = idx + 1) {
+                this.add(bytes[idx] & 0xff);
+            }
+        }
+
+        /**
+         * Adds fields separator, which can not appear in field value.
+         */
+        void separator() {
+            this.add(0x100);
+        }
+
+        /**
+         * High 64 bits.
+         * @return Hash bits
+         */
+        long high() {
+            return Hash.mix(this.first);
+        }
+
+        /**
+         * Low 64 bits.
+         * @return Hash bits
+         */
+        long low() {
+            return Hash.mix(this.second);
+        }
+
+        /**
+         * Adds value to both hashes.
+         * @param value Value
+         */
+        private void add(final int value) {
+            this.first = (this.first ^ value) * 0x100000001b3L;
+            this.second = (this.second + value) * 0xc6a4a7935bd1e995L;
+            this.second = this.second ^ this.second >>> 47;
+        }
+
+        /**
+         * Murmur3 64-bit finalization mixer.
+         * @param value Value
+         * @return Mixed value
+         */
+        private static long mix(final long value) {
+            long res = value;
+            res = (res ^ res >>> 33) * 0xff51afd7ed558ccdL;
+            res = (res ^ res >>> 33) * 0xc4ceb9fe1a85ec53L;
+            return res ^ res >>> 33;
+        }
+    }
+
+    /**
+     * Incremental stanzas parser: chunks of the control-like file are fed to the parser
+     * as they are received, complete stanzas are passed to the visitor.
+     * @since 0.9
+     */
+    public static final class Parser {
+
+        /**
+         * Reader state.
+         */
+        private final Reader reader;
+
+        /**
+         * Ctor.
+         * @param visitor Stanzas visitor
+         */
+        public Parser(final Visitor visitor) {
+            this.reader = new Reader(visitor);
+        }
+
+        /**
+         * Feeds next chunk of the file, chunk position is not changed.
+         * @param chunk Chunk
+         * @throws IOException On error
+         */
+        public void feed(final ByteBuffer chunk) throws IOException {
+            this.reader.append(chunk.duplicate());
+        }
+
+        /**
+         * Finishes parsing: passes the last stanza to the visitor.
+         * @throws IOException On error
+         */
+        public void finish() throws IOException {
+            this.reader.terminate();
+            this.reader.lines();
+            this.reader.flush();
+        }
+    }
+
+    /**
+     * Buffered reader state.
+     * @since 0.9
+     */
+    private static final class Reader {
+
+        /**
+         * Visitor.
+         */
+        private final Visitor visitor;
+
+        /**
+         * Reusable stanza.
+         */
+        private final Stanza stanza;
+
+        /**
+         * Buffer.
+         */
+        private byte[] buf;
+
+        /**
+         * Number of bytes in the buffer.
+         */
+        private int len;
+
+        /**
+         * Start of the current line.
+         */
+        private int pos;
+
+        /**
+         * Start of the current stanza, negative if stanza is not started.
+         */
+        private int start;
+
+        /**
+         * Ctor.
+         * @param visitor Visitor
+         */
+        Reader(final Visitor visitor) {
+            this.visitor = visitor;
+            this.stanza = new Stanza();
+            this.buf = new byte[Stanzas.SIZE];
+            this.start = -1;
+        }
+
+        /**
+         * Processes complete lines in the buffer.
+         * @throws IOException On error
+         */
+        void lines() throws IOException {
+            for (int idx = this.pos; idx < this.len; idx = idx + 1) {
+                if (this.buf[idx] == Stanzas.LF) {
+                    if (idx == this.pos || idx == this.pos + 1 && this.buf[this.pos] == '\r') {
+                        this.flush();
+                    } else if (this.start < 0) {
+                        this.start = this.pos;
+                    }
+                    this.pos = idx + 1;
+                }
+            }
+        }
+
+        /**
+         * Passes current stanza to the visitor, if any.
+         * @throws IOException On error
+         */
+        void flush() throws IOException {
+            if (this.start >= 0) {
+                this.visitor.visit(this.stanza.reset(this.buf, this.start, this.pos));
+                this.start = -1;
+            }
+        }
+
+        /**
+         * Moves unprocessed bytes to the beginning of the buffer, grows the buffer if it is full.
+         */
+        void compact() {
+            final int keep;
+            if (this.start >= 0) {
+                keep = this.start;
+            } else {
+                keep = this.pos;
+            }
+            if (keep > 0) {
+                System.arraycopy(this.buf, keep, this.buf, 0, this.len - keep);
+                this.len = this.len - keep;
+                this.pos = this.pos - keep;
+                if (this.start >= 0) {
+                    this.start = 0;
+                }
+            }
+            if (this.len == this.buf.length) {
+                this.buf = Arrays.copyOf(this.buf, this.buf.length * 2);
+            }
+        }
+
+        /**
+         * Reads next bytes into the buffer, terminates the last line on the end of stream.
+         * @param inp Input stream
+         * @return True if end of stream is reached
+         * @throws IOException On error
+         */
+        boolean fill(final InputStream inp) throws IOException {
+            final int cnt = inp.read(this.buf, this.len, this.buf.length - this.len);
+            if (cnt < 0) {
+                this.terminate();
+            } else {
+                this.len = this.len + cnt;
+            }
+            return cnt < 0;
+        }
+
+        /**
+         * Appends bytes to the buffer, processes the lines when the buffer is full.
+         * @param chunk Bytes
+         * @throws IOException On error
+         */
+        void append(final ByteBuffer chunk) throws IOException {
+            while (chunk.hasRemaining()) {
+                final int cnt = Math.min(chunk.remaining(), this.buf.length - this.len);
+                chunk.get(this.buf, this.len, cnt);
+                this.len = this.len + cnt;
+                if (this.len == this.buf.length) {
+                    this.lines();
+                    this.compact();
+                }
+            }
+        }
+
+        /**
+         * Terminates the last line if it is not terminated. Buffer is never full here: it
+         * is grown on compaction when it is full.
+         */
+        void terminate() {
+            if (this.pos < this.len) {
+                this.buf[this.len] = Stanzas.LF;
+                this.len = this.len + 1;
+            }
+        }
+    }
+}
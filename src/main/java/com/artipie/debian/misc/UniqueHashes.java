@@ -0,0 +1,201 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * Set of 128-bit hashes (fixed-width fingerprints of the package name and version):
+ * open-addressing table with linear probing stored off-heap in the direct buffer, so no
+ * objects are allocated per hash and the table is not scanned by garbage collector. Each
+ * slot takes 16 bytes, load factor is kept up to three quarters, so the table takes from
+ * about 21 to 43 bytes per hash. The table is doubled when it is full and the old table is
+ * kept until all hashes are moved to the new one, so the memory peaks at 64 bytes per hash
+ * while the table grows; pass the expected number of hashes to the constructor to avoid
+ * growing. The table is limited to 2^26 slots (1 GiB, about 50 million hashes), adding
+ * more hashes fails. Hash `(0, 0)` is reserved for empty slots and is stored as `(0, 1)`.
+ * Memory of the table is released when the set is garbage collected. Not thread-safe.
+ * @since 0.9
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+public final class UniqueHashes {
+
+    /**
+     * Minimal number of slots, power of two.
+     */
+    private static final int CAPACITY = 1024;
+
+    /**
+     * Maximal number of slots, power of two: table size in bytes must fit in int.
+     */
+    private static final int MAX = 1 << 26;
+
+    /**
+     * Hashes table: high and low bits of each slot one after another.
+     */
+    private LongBuffer table;
+
+    /**
+     * Number of hashes in the set.
+     */
+    private int cnt;
+
+    /**
+     * Ctor.
+     */
+    public UniqueHashes() {
+        this(UniqueHashes.CAPACITY * 3 / 4);
+    }
+
+    /**
+     * Ctor.
+     * @param expected Expected number of hashes, the table is not grown until this number
+     *  of hashes is added
+     */
+    public UniqueHashes(final int expected) {
+        this.table = UniqueHashes.allocate(UniqueHashes.slots(expected));
+    }
+
+    /**
+     * Adds the hash to the set.
+     * @param high High 64 bits of the hash
+     * @param low Low 64 bits of the hash
+     * @return True if the hash was not in the set
+     */
+    public boolean add(final long high, final long low) {
+        final long lbits = UniqueHashes.low(high, low);
+        final int slot = UniqueHashes.slot(this.table, high, lbits);
+        final boolean res = !UniqueHashes.occupied(this.table, slot);
+        if (res) {
+            this.table.put(slot * 2, high);
+            this.table.put(slot * 2 + 1, lbits);
+            this.cnt = this.cnt + 1;
+            if (this.cnt > this.table.capacity() / 8 * 3) {
+                this.grow();
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Checks whether the set contains the hash.
+     * @param high High 64 bits of the hash
+     * @param low Low 64 bits of the hash
+     * @return True if the hash is in the set
+     */
+    public boolean contains(final long high, final long low) {
+        return UniqueHashes.occupied(
+            this.table, UniqueHashes.slot(this.table, high, UniqueHashes.low(high, low))
+        );
+    }
+
+    /**
+     * Number of hashes in the set.
+     * @return Size
+     */
+    public int size() {
+        return this.cnt;
+    }
+
+    /**
+     * Doubles the table.
+     */
+    private void grow() {
+        final LongBuffer old = this.table;
+        if (old.capacity() / 2 >= UniqueHashes.MAX) {
+            throw new IllegalStateException(
+                String.format(
+                    "Too many hashes: %d hashes exceed the limit of the table of %d slots",
+                    this.cnt, UniqueHashes.MAX
+                )
+            );
+        }
+        this.table = UniqueHashes.allocate(old.capacity());
+        for (int idx = 0; idx < old.capacity(); idx = idx + 2) {
+            if (UniqueHashes.occupied(old, idx / 2)) {
+                final long high = old.get(idx);
+                final long low = old.get(idx + 1);
+                final int slot = UniqueHashes.slot(this.table, high, low);
+                this.table.put(slot * 2, high);
+                this.table.put(slot * 2 + 1, low);
+            }
+        }
+    }
+
+    /**
+     * Number of slots to hold the expected number of hashes without growing.
+     * @param expected Expected number of hashes
+     * @return Number of slots, power of two
+     */
+    private static int slots(final int expected) {
+        final long needed = ((long) expected * 4 + 2) / 3;
+        int res = UniqueHashes.CAPACITY;
+        while (res < needed && res < UniqueHashes.MAX) {
+            res = res << 1;
+        }
+        return res;
+    }
+
+    /**
+     * Allocates off-heap table.
+     * @param slots Number of slots, power of two
+     * @return Empty table
+     */
+    private static LongBuffer allocate(final int slots) {
+        final long size = (long) slots * 2 * Long.BYTES;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                String.format("Table of %d slots takes %d bytes, too big to allocate", slots, size)
+            );
+        }
+        return ByteBuffer.allocateDirect((int) size)
+            .order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    /**
+     * Low bits of the hash to store: zero hash is stored as `(0, 1)`.
+     * @param high High bits
+     * @param low Low bits
+     * @return Low bits to store
+     */
+    private static long low(final long high, final long low) {
+        final long res;
+        if (high == 0 && low == 0) {
+            res = 1;
+        } else {
+            res = low;
+        }
+        return res;
+    }
+
+    /**
+     * Finds the slot holding the hash or the empty slot where the hash should be put.
+     * @param table Table
+     * @param high High bits
+     * @param low Low bits, not zero if high bits are zero
+     * @return Slot number
+     */
+    private static int slot(final LongBuffer table, final long high, final long low) {
+        final int mask = table.capacity() / 2 - 1;
+        int slot = (int) (low ^ low >>> Integer.SIZE) & mask;
+        while (UniqueHashes.occupied(table, slot)
+            && (table.get(slot * 2) != high || table.get(slot * 2 + 1) != low)) {
+            slot = slot + 1 & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Is the slot occupied?
+     * @param table Table
+     * @param slot Slot number
+     * @return True if slot holds a hash
+     */
+    private static boolean occupied(final LongBuffer table, final int slot) {
+        return table.get(slot * 2) != 0 || table.get(slot * 2 + 1) != 0;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.tracing;
+
+import com.jcabi.log.Logger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Exporter of the finished spans. Implementations should be thread-safe and cheap, spans are
+ * exported on the request path from the threads which complete the traced stages.
+ * @since 0.9
+ */
+public interface Exporter {
+
+    /**
+     * Exports finished span.
+     * @param span Span
+     */
+    void export(Span span);
+
+    /**
+     * Exporter which drops the spans, used when tracing is not required.
+     * @since 0.9
+     */
+    final class Noop implements Exporter {
+
+        @Override
+        public void export(final Span span) {
+            // nothing to export
+        }
+    }
+
+    /**
+     * Exporter which writes the spans to the debug log.
+     * @since 0.9
+     */
+    final class Logged implements Exporter {
+
+        @Override
+        public void export(final Span span) {
+            Logger.debug(this, "%s", span);
+        }
+    }
+
+    /**
+     * Exporter which keeps the spans in memory in the order of completion.
+     * @since 0.9
+     */
+    final class InMemory implements Exporter {
+
+        /**
+         * Finished spans.
+         */
+        private final Queue<Span> finished;
+
+        /**
+         * Ctor.
+         */
+        public InMemory() {
+            this.finished = new ConcurrentLinkedQueue<>();
+        }
+
+        @Override
+        public void export(final Span span) {
+            this.finished.add(span);
+        }
+
+        /**
+         * All the exported spans.
+         * @return Spans in the order of completion
+         */
+        public List<Span> spans() {
+            return new ArrayList<>(this.finished);
+        }
+
+        /**
+         * Exported spans with the name.
+         * @param name Span name
+         * @return Spans in the order of completion
+         */
+        public List<Span> spans(final String name) {
+            return this.finished.stream().filter(span -> span.name().equals(name))
+                .collect(Collectors.toList());
+        }
+    }
+}
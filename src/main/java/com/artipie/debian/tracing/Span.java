@@ -0,0 +1,140 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.tracing;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finished span: named stage of the traced operation with its start and duration.
+ * @since 0.9
+ */
+@SuppressWarnings("PMD.DataClass")
+public final class Span {
+
+    /**
+     * Span name.
+     */
+    private final String title;
+
+    /**
+     * Trace id.
+     */
+    private final String tid;
+
+    /**
+     * Span id.
+     */
+    private final String sid;
+
+    /**
+     * Parent span id, empty for the root span.
+     */
+    private final Optional<String> owner;
+
+    /**
+     * Start time.
+     */
+    private final Instant begin;
+
+    /**
+     * Duration in nanoseconds.
+     */
+    private final long elapsed;
+
+    /**
+     * Whether the stage failed.
+     */
+    private final boolean error;
+
+    /**
+     * Ctor.
+     * @param name Span name
+     * @param trace Trace id
+     * @param id Span id
+     * @param parent Parent span id, empty for the root span
+     * @param start Start time
+     * @param nanos Duration in nanoseconds
+     * @param failed Whether the stage failed
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public Span(final String name, final String trace, final String id,
+        final Optional<String> parent, final Instant start, final long nanos,
+        final boolean failed) {
+        this.title = name;
+        this.tid = trace;
+        this.sid = id;
+        this.owner = parent;
+        this.begin = start;
+        this.elapsed = nanos;
+        this.error = failed;
+    }
+
+    /**
+     * Span name.
+     * @return Name
+     */
+    public String name() {
+        return this.title;
+    }
+
+    /**
+     * Id of the trace the span belongs to.
+     * @return Trace id
+     */
+    public String trace() {
+        return this.tid;
+    }
+
+    /**
+     * Span id.
+     * @return Id
+     */
+    public String identifier() {
+        return this.sid;
+    }
+
+    /**
+     * Parent span id.
+     * @return Parent id, empty for the root span
+     */
+    public Optional<String> parent() {
+        return this.owner;
+    }
+
+    /**
+     * Start time.
+     * @return Start
+     */
+    public Instant start() {
+        return this.begin;
+    }
+
+    /**
+     * Duration.
+     * @return Duration in nanoseconds
+     */
+    public long nanos() {
+        return this.elapsed;
+    }
+
+    /**
+     * Whether the stage failed.
+     * @return True if failed
+     */
+    public boolean failed() {
+        return this.error;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%s trace=%s id=%s parent=%s start=%s duration=%dus failed=%b",
+            this.title, this.tid, this.sid, this.owner.orElse("none"), this.begin,
+            TimeUnit.NANOSECONDS.toMicros(this.elapsed), this.error
+        );
+    }
+}
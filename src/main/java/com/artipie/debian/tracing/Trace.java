@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.tracing;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Trace context: trace id and the current span. Completion stages hop across threads, so the
+ * context is not bound to a thread, it is passed to the traced stage explicitly: each stage
+ * receives the context of its own span and starts nested spans from it. The span is exported
+ * when the stage completes, both on success and on failure, including the failure to start
+ * the stage.
+ * @since 0.9
+ */
+public final class Trace {
+
+    /**
+     * Spans exporter.
+     */
+    private final Exporter exporter;
+
+    /**
+     * Trace id.
+     */
+    private final String tid;
+
+    /**
+     * Current span id, empty at the root of the trace.
+     */
+    private final Optional<String> current;
+
+    /**
+     * New trace.
+     * @param exporter Spans exporter
+     */
+    public Trace(final Exporter exporter) {
+        this(exporter, Trace.random(), Optional.empty());
+    }
+
+    /**
+     * Ctor.
+     * @param exporter Spans exporter
+     * @param id Trace id
+     * @param span Current span id, empty at the root of the trace
+     */
+    private Trace(final Exporter exporter, final String id, final Optional<String> span) {
+        this.exporter = exporter;
+        this.tid = id;
+        this.current = span;
+    }
+
+    /**
+     * Trace id.
+     * @return Id
+     */
+    public String identifier() {
+        return this.tid;
+    }
+
+    /**
+     * Starts the stage in the new span, nested into the current one.
+     * @param name Span name
+     * @param stage Stage to start, accepts the context of the new span
+     * @param <T> Stage result type
+     * @return Stage completion
+     */
+    public <T> CompletionStage<T> span(final String name,
+        final Function<Trace, CompletionStage<T>> stage) {
+        final Trace nested = new Trace(this.exporter, this.tid, Optional.of(Trace.random()));
+        final Instant start = Instant.now();
+        final long nanos = System.nanoTime();
+        return CompletableFuture.allOf().thenCompose(
+            nothing -> stage.apply(nested)
+        ).whenComplete(
+            (res, err) -> this.exporter.export(
+                new Span(
+                    name, this.tid, nested.current.get(), this.current, start,
+                    System.nanoTime() - nanos, err != null
+                )
+            )
+        );
+    }
+
+    /**
+     * Random id.
+     * @return Hex id
+     */
+    private static String random() {
+        return Long.toHexString(ThreadLocalRandom.current().nextLong());
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.tracing;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Storage which records each operation as the `storage.{operation}` span nested into the trace
+ * context, so storage phases of the traced stage are separated from CPU phases. The `value`
+ * span ends when the content is obtained, reading of the content is not included.
+ * @since 0.9
+ */
+public final class TracedStorage implements Storage {
+
+    /**
+     * Origin storage.
+     */
+    private final Storage origin;
+
+    /**
+     * Trace context.
+     */
+    private final Trace trace;
+
+    /**
+     * Ctor.
+     * @param origin Origin storage
+     * @param trace Trace context
+     */
+    public TracedStorage(final Storage origin, final Trace trace) {
+        this.origin = origin;
+        this.trace = trace;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(final Key key) {
+        return this.traced("exists", () -> this.origin.exists(key));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Key>> list(final Key prefix) {
+        return this.traced("list", () -> this.origin.list(prefix));
+    }
+
+    @Override
+    public CompletableFuture<Void> save(final Key key, final Content content) {
+        return this.traced("save", () -> this.origin.save(key, content));
+    }
+
+    @Override
+    public CompletableFuture<Void> move(final Key source, final Key destination) {
+        return this.traced("move", () -> this.origin.move(source, destination));
+    }
+
+    @Override
+    public CompletableFuture<Long> size(final Key key) {
+        return this.traced("size", () -> this.origin.size(key));
+    }
+
+    @Override
+    public CompletableFuture<Content> value(final Key key) {
+        return this.traced("value", () -> this.origin.value(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(final Key key) {
+        return this.traced("delete", () -> this.origin.delete(key));
+    }
+
+    @Override
+    public <T> CompletionStage<T> exclusively(final Key key,
+        final Function<Storage, CompletionStage<T>> operation) {
+        return this.trace.span(
+            "storage.exclusively",
+            nested -> this.origin.exclusively(
+                key, sto -> operation.apply(new TracedStorage(sto, nested))
+            )
+        );
+    }
+
+    /**
+     * Starts the operation in the new span.
+     * @param name Operation name
+     * @param operation Operation
+     * @param <T> Result type
+     * @return Completion action with the operation result
+     */
+    private <T> CompletableFuture<T> traced(final String name,
+        final Supplier<CompletableFuture<T>> operation) {
+        return this.trace.span(
+            String.format("storage.%s", name), nested -> operation.get()
+        ).toCompletableFuture();
+    }
+}
@@ -4,11 +4,16 @@
  */
 package com.artipie.debian;
 
+import com.artipie.debian.misc.Gzip;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.apache.commons.lang3.StringUtils;
 import org.cactoos.list.ListOf;
 import org.hamcrest.MatcherAssert;
@@ -18,8 +23,10 @@ import org.junit.jupiter.api.Test;
 /**
  * Test for {@link MultiPackages.Unique}.
  * @since 0.6
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
-@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+@SuppressWarnings({"PMD.AvoidDuplicateLiterals", "PMD.TooManyMethods"})
 class MultiPackagesTest {
 
     @Test
@@ -40,6 +47,45 @@ class MultiPackagesTest {
         );
     }
 
+    @Test
+    void mergesPackagesWithParallelCompression() throws IOException {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        new MultiPackages.Unique(new Gzip.Parallel()).merge(
+            new ListOf<InputStream>(
+                this.stream(this.abcPackageInfo()),
+                this.stream(this.xyzPackageInfo())
+            ),
+            res
+        );
+        MatcherAssert.assertThat(
+            new GzArchive().decompress(res.toByteArray()),
+            new IsEqual<>(
+                String.join("\n\n", this.abcPackageInfo(), this.xyzPackageInfo(), "")
+            )
+        );
+    }
+
+    @Test
+    void mergesSortedPackagesWithBoundedMemory() throws IOException {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        final String other = this.abcPackageInfo().replace("Size: 23", "Size: 24");
+        new MultiPackages.Sorted(1).merge(
+            new ListOf<InputStream>(
+                this.stream(this.zeroPackageInfo(), this.abcPackageInfo()),
+                this.stream(this.xyzPackageInfo(), other, this.zeroPackageInfo())
+            ),
+            res
+        );
+        MatcherAssert.assertThat(
+            new GzArchive().decompress(res.toByteArray()),
+            new IsEqual<>(
+                String.join(
+                    "\n\n", this.abcPackageInfo(), this.xyzPackageInfo(), this.zeroPackageInfo(), ""
+                )
+            )
+        );
+    }
+
     @Test
     void addsOnlyUniquePackages() throws IOException {
         final ByteArrayOutputStream res = new ByteArrayOutputStream();
@@ -100,6 +146,61 @@ class MultiPackagesTest {
         );
     }
 
+    @Test
+    void mergesInParallelInInputOrder() throws IOException {
+        final ExecutorService exec = Executors.newFixedThreadPool(4);
+        try {
+            final List<InputStream> inputs = new ArrayList<>(40);
+            final List<String> expected = new ArrayList<>(40);
+            for (int idx = 0; idx < 40; idx = idx + 1) {
+                final String item = this.abcPackageInfo()
+                    .replace("0.1", String.format("0.%d", idx % 10))
+                    .replace("Size: 23", String.format("Size: %d", idx));
+                if (idx < 10) {
+                    expected.add(item);
+                }
+                inputs.add(this.stream(item, this.zeroPackageInfo()));
+                if (idx == 0) {
+                    expected.add(this.zeroPackageInfo());
+                }
+            }
+            expected.add("");
+            final ByteArrayOutputStream res = new ByteArrayOutputStream();
+            new MultiPackages.Unique(exec).merge(inputs, res);
+            MatcherAssert.assertThat(
+                new GzArchive().decompress(res.toByteArray()),
+                new IsEqual<>(String.join("\n\n", expected))
+            );
+        } finally {
+            exec.shutdown();
+        }
+    }
+
+    @Test
+    void mergesInParallelLikeSequentially() throws IOException {
+        final ExecutorService exec = Executors.newFixedThreadPool(3);
+        try {
+            final ByteArrayOutputStream seq = new ByteArrayOutputStream();
+            new MultiPackages.Unique().merge(this.duplicates(), seq);
+            final ByteArrayOutputStream par = new ByteArrayOutputStream();
+            new MultiPackages.Unique(exec).merge(this.duplicates(), par);
+            MatcherAssert.assertThat(
+                new GzArchive().decompress(par.toByteArray()),
+                new IsEqual<>(new GzArchive().decompress(seq.toByteArray()))
+            );
+        } finally {
+            exec.shutdown();
+        }
+    }
+
+    private List<InputStream> duplicates() {
+        return new ListOf<InputStream>(
+            this.stream(this.xyzPackageInfo(), this.zeroPackageInfo(), this.xyzPackageInfo()),
+            this.stream(this.zeroPackageInfo()),
+            this.stream(this.abcPackageInfo(), this.zeroPackageInfo(), this.xyzPackageInfo())
+        );
+    }
+
     private String xyzPackageInfo() {
         return String.join(
             "\n",
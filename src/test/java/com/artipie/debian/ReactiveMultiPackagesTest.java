@@ -0,0 +1,91 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.test.TestResource;
+import io.reactivex.Flowable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+
+/**
+ * Test for {@link ReactiveMultiPackages.Unique}.
+ * @since 0.9
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class ReactiveMultiPackagesTest {
+
+    @Test
+    void mergesLikeBlockingMerge() {
+        final byte[] first = new TestResource("Packages.gz").asBytes();
+        final byte[] second = new GzArchive().compress(
+            String.join(
+                "\n",
+                "Package: abc",
+                "Version: 0.1",
+                "Architecture: all",
+                "",
+                "Package: aglfn",
+                "Version: 1.7-3",
+                "Architecture: all",
+                ""
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new MultiPackages.Unique().merge(
+            new ListOf<InputStream>(
+                new ByteArrayInputStream(first), new ByteArrayInputStream(second),
+                new ByteArrayInputStream(first)
+            ),
+            expected
+        );
+        MatcherAssert.assertThat(
+            new GzArchive().decompress(
+                new PublisherAs(
+                    new Content.From(
+                        new ReactiveMultiPackages.Unique().merge(
+                            new ListOf<Publisher<ByteBuffer>>(
+                                ReactiveMultiPackagesTest.chunks(first, 100),
+                                ReactiveMultiPackagesTest.chunks(second, 7),
+                                ReactiveMultiPackagesTest.chunks(first, 1024)
+                            )
+                        )
+                    )
+                ).bytes().toCompletableFuture().join()
+            ),
+            new IsEqual<>(new GzArchive().decompress(expected.toByteArray()))
+        );
+    }
+
+    /**
+     * Splits bytes into chunks.
+     * @param bytes Bytes
+     * @param size Chunk size
+     * @return Chunks
+     */
+    private static Flowable<ByteBuffer> chunks(final byte[] bytes, final int size) {
+        return Flowable.fromIterable(
+            IntStream.range(0, (bytes.length + size - 1) / size).mapToObj(
+                num -> ByteBuffer.wrap(
+                    Arrays.copyOfRange(bytes, num * size, Math.min(bytes.length, (num + 1) * size))
+                )
+            ).collect(Collectors.toList())
+        );
+    }
+}
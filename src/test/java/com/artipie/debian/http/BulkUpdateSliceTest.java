@@ -0,0 +1,337 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import com.amihaiemil.eoyaml.Yaml;
+import com.amihaiemil.eoyaml.YamlMapping;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import com.artipie.debian.AstoGzArchive;
+import com.artipie.debian.Config;
+import com.artipie.http.Headers;
+import com.artipie.http.hm.IsString;
+import com.artipie.http.hm.RsHasBody;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.text.StringContainsInOrder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link BulkUpdateSlice}.
+ * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class BulkUpdateSliceTest {
+
+    /**
+     * Repository settings.
+     */
+    private static final YamlMapping SETTINGS = Yaml.createYamlMappingBuilder()
+        .add("Architectures", "amd64")
+        .add("Components", "main").build();
+
+    /**
+     * Test storage.
+     */
+    private Storage asto;
+
+    @BeforeEach
+    void init() {
+        this.asto = new InMemoryStorage();
+        this.asto.save(new Key.From("dists/my_repo/Release"), Content.EMPTY).join();
+        this.asto.save(new Key.From("dists/my_repo/InRelease"), Content.EMPTY).join();
+    }
+
+    @Test
+    void uploadsArchiveAndUpdatesIndexesOnce() throws IOException {
+        MatcherAssert.assertThat(
+            "Response is OK",
+            this.slice(),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasBody(
+                        String.join(
+                            "\n",
+                            "Package: main/aglfn_1.7-3_amd64.deb",
+                            "Status: indexed",
+                            "",
+                            "Package: main/libobus-ocaml_1.2.3-1+b3_amd64.deb",
+                            "Status: indexed",
+                            "",
+                            ""
+                        ),
+                        StandardCharsets.UTF_8
+                    )
+                ),
+                new RequestLine(RqMethod.PUT, "/main"),
+                Headers.EMPTY,
+                new Content.From(
+                    BulkUpdateSliceTest.tar(
+                        "pool/aglfn_1.7-3_amd64.deb", "libobus-ocaml_1.2.3-1+b3_amd64.deb"
+                    )
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            "Packages added",
+            this.asto.exists(new Key.From("main/aglfn_1.7-3_amd64.deb")).join()
+                && this.asto.exists(new Key.From("main/libobus-ocaml_1.2.3-1+b3_amd64.deb"))
+                .join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Packages index contains both packages",
+            new AstoGzArchive(this.asto)
+                .unpack(new Key.From("dists/my_repo/main/binary-amd64/Packages.gz")),
+            new StringContainsInOrder(new ListOf<String>("Package: aglfn", "Package: libobus"))
+        );
+        MatcherAssert.assertThat(
+            "Release index updated",
+            new PublisherAs(this.asto.value(new Key.From("dists/my_repo/Release")).join())
+                .asciiString().toCompletableFuture().join(),
+            new StringContainsInOrder(
+                new ListOf<String>("main/binary-amd64/Packages.gz", "main/binary-amd64/Packages")
+            )
+        );
+        MatcherAssert.assertThat(
+            "InRelease index updated",
+            this.asto.value(new Key.From("dists/my_repo/InRelease")).join().size().get(),
+            Matchers.greaterThan(0L)
+        );
+    }
+
+    @Test
+    void readsArchiveWithSliceExecutorInWindow() throws IOException {
+        final AtomicInteger threads = new AtomicInteger();
+        final ExecutorService exec = Executors.newCachedThreadPool(
+            runnable -> {
+                threads.incrementAndGet();
+                return new Thread(runnable);
+            }
+        );
+        try {
+            MatcherAssert.assertThat(
+                "Response is OK",
+                new BulkUpdateSlice(
+                    this.asto,
+                    new Config.FromYaml(
+                        "my_repo", BulkUpdateSliceTest.SETTINGS, new InMemoryStorage()
+                    ),
+                    Optional.empty(), Optional.empty(), exec
+                ),
+                new SliceHasResponse(
+                    new RsHasStatus(RsStatus.OK),
+                    new RequestLine(RqMethod.PUT, "/main"),
+                    Headers.EMPTY,
+                    new Content.From(
+                        BulkUpdateSliceTest.tar(
+                            "aglfn_1.7-3_amd64.deb", "libobus-ocaml_1.2.3-1+b3_amd64.deb",
+                            "aglfn_1.7-3_all.deb", "one/aglfn_1.7-3_amd64.deb",
+                            "two/aglfn_1.7-3_amd64.deb", "one/libobus-ocaml_1.2.3-1+b3_amd64.deb"
+                        )
+                    )
+                )
+            );
+        } finally {
+            exec.shutdown();
+        }
+        MatcherAssert.assertThat(
+            "Slice executor is used",
+            threads.get(),
+            Matchers.greaterThan(0)
+        );
+        MatcherAssert.assertThat(
+            "Packages saved",
+            this.asto.list(new Key.From("main")).join().size(),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void removesPackagesWithUnsupportedArchitecture() throws IOException {
+        MatcherAssert.assertThat(
+            "Response is OK",
+            this.slice(),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasBody(
+                        String.join(
+                            "\n",
+                            "Package: main/aglfn_1.7-3_all.deb",
+                            "Status: failed",
+                            "Message: Package architecture is not supported by the repository",
+                            "",
+                            "Package: main/aglfn_1.7-3_amd64.deb",
+                            "Status: indexed",
+                            "",
+                            ""
+                        ),
+                        StandardCharsets.UTF_8
+                    )
+                ),
+                new RequestLine(RqMethod.POST, "/main"),
+                Headers.EMPTY,
+                new Content.From(
+                    BulkUpdateSliceTest.tar("aglfn_1.7-3_all.deb", "aglfn_1.7-3_amd64.deb")
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            "Package with unsupported architecture removed",
+            this.asto.exists(new Key.From("main/aglfn_1.7-3_all.deb")).join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void returnsBadRequestIfNothingIndexed() throws IOException {
+        MatcherAssert.assertThat(
+            "Response is BAD_REQUEST",
+            this.slice(),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.BAD_REQUEST),
+                new RequestLine(RqMethod.PUT, "/main"),
+                Headers.EMPTY,
+                new Content.From(BulkUpdateSliceTest.tar("aglfn_1.7-3_all.deb"))
+            )
+        );
+        MatcherAssert.assertThat(
+            "Packages index is not created",
+            this.asto.list(new Key.From("main")).join().isEmpty()
+                && !this.asto.exists(new Key.From("dists/my_repo/main/binary-amd64/Packages.gz"))
+                .join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void ignoresNotDebEntries() throws IOException {
+        MatcherAssert.assertThat(
+            "Response is BAD_REQUEST",
+            this.slice(),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.BAD_REQUEST),
+                new RequestLine(RqMethod.PUT, "/main"),
+                Headers.EMPTY,
+                new Content.From(BulkUpdateSliceTest.tar("Release"))
+            )
+        );
+        MatcherAssert.assertThat(
+            "Nothing is saved",
+            this.asto.list(new Key.From("main")).join().isEmpty(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void reportsUnreadablePackageAndIndexesTheRest() throws IOException {
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("broken.deb", "not a debian package".getBytes(StandardCharsets.US_ASCII));
+        entries.put("aglfn_1.7-3_amd64.deb", new TestResource("aglfn_1.7-3_amd64.deb").asBytes());
+        MatcherAssert.assertThat(
+            "Response is OK",
+            this.slice(),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasBody(
+                        new IsString(
+                            StandardCharsets.UTF_8,
+                            new StringContainsInOrder(
+                                new ListOf<String>(
+                                    "Package: main/broken.deb", "Status: failed",
+                                    "Message: Package can not be read",
+                                    "Package: main/aglfn_1.7-3_amd64.deb", "Status: indexed"
+                                )
+                            )
+                        )
+                    )
+                ),
+                new RequestLine(RqMethod.PUT, "/main"),
+                Headers.EMPTY,
+                new Content.From(BulkUpdateSliceTest.tar(entries))
+            )
+        );
+        MatcherAssert.assertThat(
+            "Readable package is kept and unreadable one is not saved",
+            this.asto.list(new Key.From("main")).join(),
+            Matchers.contains(new Key.From("main/aglfn_1.7-3_amd64.deb"))
+        );
+    }
+
+    /**
+     * Slice to test.
+     * @return Bulk update slice
+     */
+    private BulkUpdateSlice slice() {
+        return new BulkUpdateSlice(
+            this.asto,
+            new Config.FromYaml("my_repo", BulkUpdateSliceTest.SETTINGS, new InMemoryStorage()),
+            Optional.empty()
+        );
+    }
+
+    /**
+     * Packs test resources into tar archive.
+     * @param names Entries names, resource name is the last part of the entry name
+     * @return Tar archive bytes
+     * @throws IOException On error
+     */
+    private static byte[] tar(final String... names) throws IOException {
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (final String name : names) {
+            entries.put(
+                name, new TestResource(name.substring(name.lastIndexOf('/') + 1)).asBytes()
+            );
+        }
+        return BulkUpdateSliceTest.tar(entries);
+    }
+
+    /**
+     * Packs entries into tar archive.
+     * @param entries Entries names and bytes
+     * @return Tar archive bytes
+     * @throws IOException On error
+     */
+    private static byte[] tar(final Map<String, byte[]> entries) throws IOException {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(res)) {
+            for (final Map.Entry<String, byte[]> item : entries.entrySet()) {
+                final TarArchiveEntry entry = new TarArchiveEntry(item.getKey());
+                entry.setSize(item.getValue().length);
+                tar.putArchiveEntry(entry);
+                tar.write(item.getValue());
+                tar.closeArchiveEntry();
+            }
+        }
+        return res.toByteArray();
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import com.amihaiemil.eoyaml.Yaml;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import com.artipie.debian.AstoGzArchive;
+import com.artipie.debian.Config;
+import com.artipie.debian.Debian;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.slice.KeyFromPath;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.StringContains;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link DeleteSlice}.
+ * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class DeleteSliceTest {
+
+    /**
+     * Release index key.
+     */
+    private static final Key RELEASE = new Key.From("dists/my_repo/Release");
+
+    /**
+     * Test storage.
+     */
+    private Storage asto;
+
+    /**
+     * Repository configuration.
+     */
+    private Config config;
+
+    @BeforeEach
+    void init() {
+        this.asto = new InMemoryStorage();
+        this.config = new Config.FromYaml(
+            "my_repo",
+            Yaml.createYamlMappingBuilder()
+                .add("Architectures", "amd64")
+                .add("Components", "main").build(),
+            new InMemoryStorage()
+        );
+        final Key aglfn = new Key.From("main/aglfn_1.7-3_amd64.deb");
+        final Key libobus = new Key.From("main/libobus-ocaml_1.2.3-1+b3_amd64.deb");
+        new TestResource("aglfn_1.7-3_amd64.deb").saveTo(this.asto, aglfn);
+        new TestResource("libobus-ocaml_1.2.3-1+b3_amd64.deb").saveTo(this.asto, libobus);
+        final Debian debian = new Debian.Asto(this.asto, this.config, Optional.empty());
+        debian.updatePackages(
+            new ListOf<>(aglfn, libobus),
+            new Key.From("dists/my_repo/main/binary-amd64/Packages.gz")
+        ).thenCompose(nothing -> debian.generateRelease())
+            .thenCompose(debian::generateInRelease)
+            .toCompletableFuture().join();
+    }
+
+    @Test
+    void removesPackageAndUpdatesIndexes() {
+        final String before = this.readRelease();
+        MatcherAssert.assertThat(
+            "Response is NO_CONTENT",
+            new DeleteSlice(this.asto, this.config, Optional.empty()),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NO_CONTENT),
+                new RequestLine(RqMethod.DELETE, "/main/aglfn_1.7-3_amd64.deb")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Package is removed",
+            this.asto.exists(new Key.From("main/aglfn_1.7-3_amd64.deb")).join(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Package item is removed from the index",
+            new AstoGzArchive(this.asto)
+                .unpack(new Key.From("dists/my_repo/main/binary-amd64/Packages.gz")),
+            Matchers.allOf(
+                new StringContains("Package: libobus-ocaml"),
+                Matchers.not(new StringContains("Package: aglfn"))
+            )
+        );
+        MatcherAssert.assertThat(
+            "Release index is updated",
+            this.readRelease(),
+            Matchers.allOf(
+                new StringContains("main/binary-amd64/Packages.gz"),
+                Matchers.not(new IsEqual<>(before))
+            )
+        );
+    }
+
+    @Test
+    void updatesIndexesInBackgroundQueue() throws InterruptedException {
+        final Key index = new Key.From("dists/my_repo/main/binary-amd64/Packages.gz");
+        try (IndexingQueue queue = new IndexingQueue()) {
+            final CompletableFuture<Void> indexing = new CompletableFuture<>();
+            queue.add(new Key.From("main/pspp_1.2.0-3_amd64.deb"), () -> indexing);
+            final CompletableFuture<Boolean> deleted = CompletableFuture.supplyAsync(
+                () -> new SliceHasResponse(
+                    new RsHasStatus(RsStatus.NO_CONTENT),
+                    new RequestLine(RqMethod.DELETE, "/main/aglfn_1.7-3_amd64.deb")
+                ).matches(
+                    new DeleteSlice(this.asto, this.config, Optional.empty(), Optional.of(queue))
+                )
+            );
+            Thread.sleep(200);
+            MatcherAssert.assertThat(
+                "Index is not changed while queued indexing is in progress",
+                new AstoGzArchive(this.asto).unpack(index),
+                new StringContains("Package: aglfn")
+            );
+            indexing.complete(null);
+            MatcherAssert.assertThat(
+                "Response is NO_CONTENT",
+                deleted.join(),
+                new IsEqual<>(true)
+            );
+        }
+        MatcherAssert.assertThat(
+            "Package item is removed from the index",
+            new AstoGzArchive(this.asto).unpack(index),
+            Matchers.not(new StringContains("Package: aglfn"))
+        );
+    }
+
+    @Test
+    void returnsNotFoundForAbsentPackage() {
+        MatcherAssert.assertThat(
+            new DeleteSlice(this.asto, this.config, Optional.empty()),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_FOUND),
+                new RequestLine(RqMethod.DELETE, "/main/pspp_1.2.0-3_amd64.deb")
+            )
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "/dists/my_repo/Release", "/dists/my_repo/main/binary-amd64/Packages.gz",
+        "/dists/my_repo/main/binary-amd64/any.deb", "/main/not-a-package.txt"
+    })
+    void rejectsNotPackageKeys(final String path) {
+        final Key key = new KeyFromPath(path);
+        this.asto.save(key, new Content.From("any".getBytes(StandardCharsets.US_ASCII))).join();
+        MatcherAssert.assertThat(
+            "Response is bad request",
+            new DeleteSlice(this.asto, this.config, Optional.empty()),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.BAD_REQUEST),
+                new RequestLine(RqMethod.DELETE, path)
+            )
+        );
+        MatcherAssert.assertThat(
+            "Nothing is deleted",
+            this.asto.exists(key).join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void rejectsPackageWithoutControl() {
+        final Key key = new Key.From("main/corrupted.deb");
+        this.asto.save(
+            key, new Content.From("not a debian package".getBytes(StandardCharsets.US_ASCII))
+        ).join();
+        final String before = this.readRelease();
+        MatcherAssert.assertThat(
+            "Response is bad request",
+            new DeleteSlice(this.asto, this.config, Optional.empty()),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.BAD_REQUEST),
+                new RequestLine(RqMethod.DELETE, "/main/corrupted.deb")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Package is not deleted",
+            this.asto.exists(key).join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Release index is not changed",
+            this.readRelease(),
+            new IsEqual<>(before)
+        );
+    }
+
+    /**
+     * Reads Release index.
+     * @return Release index content
+     */
+    private String readRelease() {
+        return new PublisherAs(this.asto.value(DeleteSliceTest.RELEASE).join())
+            .asciiString().toCompletableFuture().join();
+    }
+}
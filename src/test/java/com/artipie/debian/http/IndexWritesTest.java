@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import com.artipie.asto.FailedCompletionStage;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link IndexWrites}.
+ * @since 0.9
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class IndexWritesTest {
+
+    @Test
+    void performsOperationAfterPreviousOneIsFinished() {
+        final IndexWrites writes = new IndexWrites();
+        final Queue<String> order = new ConcurrentLinkedQueue<>();
+        final CompletableFuture<Void> first = new CompletableFuture<>();
+        writes.submit(() -> first.thenRun(() -> order.add("first")));
+        final CompletionStage<String> second = writes.submit(
+            () -> {
+                order.add("second");
+                return CompletableFuture.completedFuture("written");
+            }
+        );
+        MatcherAssert.assertThat(
+            "Operation waits for the previous one",
+            new ListOf<>(order),
+            new IsEqual<>(new ListOf<String>())
+        );
+        first.complete(null);
+        MatcherAssert.assertThat(
+            "Operation result is returned",
+            second.toCompletableFuture().join(),
+            new IsEqual<>("written")
+        );
+        MatcherAssert.assertThat(
+            "Operations are performed in order",
+            new ListOf<>(order),
+            new IsEqual<>(new ListOf<>("first", "second"))
+        );
+    }
+
+    @Test
+    void returnsFailureAndPerformsNextOperation() {
+        final IndexWrites writes = new IndexWrites();
+        final CompletableFuture<Object> failed = writes.submit(
+            () -> new FailedCompletionStage<>(new IllegalStateException("Index is broken"))
+        ).toCompletableFuture();
+        final CompletableFuture<Object> thrown = writes.submit(
+            () -> {
+                throw new IllegalArgumentException("Package is broken");
+            }
+        ).toCompletableFuture();
+        MatcherAssert.assertThat(
+            "Operation failure is returned",
+            Assertions.assertThrows(CompletionException.class, failed::join).getCause(),
+            new IsInstanceOf(IllegalStateException.class)
+        );
+        MatcherAssert.assertThat(
+            "Operation exception is returned",
+            Assertions.assertThrows(CompletionException.class, thrown::join).getCause(),
+            new IsInstanceOf(IllegalArgumentException.class)
+        );
+        MatcherAssert.assertThat(
+            "Next operation is performed after failures",
+            writes.submit(() -> CompletableFuture.completedFuture(1))
+                .toCompletableFuture().join(),
+            new IsEqual<>(1)
+        );
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import com.artipie.asto.FailedCompletionStage;
+import com.artipie.asto.Key;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link IndexingQueue}.
+ * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class IndexingQueueTest {
+
+    @Test
+    void performsSubmittedOperationAfterQueuedIndexing() {
+        try (IndexingQueue queue = new IndexingQueue()) {
+            final Queue<String> order = new ConcurrentLinkedQueue<>();
+            final CompletableFuture<Void> indexing = new CompletableFuture<>();
+            queue.add(
+                new Key.From("main/first.deb"),
+                () -> indexing.thenRun(() -> order.add("indexed"))
+            );
+            final CompletionStage<String> submitted = queue.submit(
+                () -> {
+                    order.add("submitted");
+                    return CompletableFuture.completedFuture("removed");
+                }
+            );
+            MatcherAssert.assertThat(
+                "Submitted operation waits for the queued indexing",
+                submitted.toCompletableFuture().isDone(),
+                new IsEqual<>(false)
+            );
+            indexing.complete(null);
+            MatcherAssert.assertThat(
+                "Submitted operation result is returned",
+                submitted.toCompletableFuture().join(),
+                new IsEqual<>("removed")
+            );
+            MatcherAssert.assertThat(
+                "Operations are performed in order",
+                new ListOf<>(order),
+                new IsEqual<>(new ListOf<>("indexed", "submitted"))
+            );
+        }
+    }
+
+    @Test
+    void returnsSubmittedOperationFailure() {
+        try (IndexingQueue queue = new IndexingQueue()) {
+            final CompletableFuture<Object> res = queue.submit(
+                () -> new FailedCompletionStage<>(new IllegalStateException("Index is broken"))
+            ).toCompletableFuture();
+            MatcherAssert.assertThat(
+                Assertions.assertThrows(CompletionException.class, res::join).getCause(),
+                new IsInstanceOf(IllegalStateException.class)
+            );
+        }
+    }
+
+    @Test
+    void failsSubmittedOperationAfterClose() {
+        final IndexingQueue queue = new IndexingQueue();
+        queue.close();
+        final CompletableFuture<Object> res = queue.submit(
+            () -> CompletableFuture.completedFuture(new Object())
+        ).toCompletableFuture();
+        MatcherAssert.assertThat(
+            Assertions.assertThrows(CompletionException.class, res::join).getCause(),
+            new IsInstanceOf(RejectedExecutionException.class)
+        );
+    }
+
+    @Test
+    void failsAddedPackageAfterClose() {
+        final IndexingQueue queue = new IndexingQueue();
+        queue.close();
+        final Key pkg = new Key.From("main/late.deb");
+        queue.add(pkg, CompletableFuture::allOf);
+        MatcherAssert.assertThat(
+            queue.status(pkg).map(IndexingQueue.Status::name),
+            new IsEqual<>(Optional.of(IndexingQueue.Status.FAILED))
+        );
+    }
+
+    @Test
+    void forgetsOldestFinishedStatuses() {
+        try (IndexingQueue queue = new IndexingQueue(2)) {
+            final Key first = new Key.From("main/first.deb");
+            final Key second = new Key.From("main/second.deb");
+            final Key third = new Key.From("main/third.deb");
+            queue.add(first, CompletableFuture::allOf);
+            queue.add(second, CompletableFuture::allOf);
+            queue.add(first, CompletableFuture::allOf);
+            queue.add(third, CompletableFuture::allOf);
+            queue.submit(CompletableFuture::allOf).toCompletableFuture().join();
+            MatcherAssert.assertThat(
+                "Oldest status is forgotten",
+                queue.status(second),
+                new IsEqual<>(Optional.empty())
+            );
+            MatcherAssert.assertThat(
+                "Status of the package indexed again is kept",
+                queue.status(first).map(IndexingQueue.Status::name),
+                new IsEqual<>(Optional.of(IndexingQueue.Status.INDEXED))
+            );
+            MatcherAssert.assertThat(
+                "Newest status is kept",
+                queue.status(third).map(IndexingQueue.Status::name),
+                new IsEqual<>(Optional.of(IndexingQueue.Status.INDEXED))
+            );
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import com.artipie.asto.FailedCompletionStage;
+import com.artipie.asto.Key;
+import com.artipie.http.hm.RsHasBody;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link IndexingStatusSlice}.
+ * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class IndexingStatusSliceTest {
+
+    @Test
+    void returnsQueuedAndFailedStatuses() {
+        try (IndexingQueue queue = new IndexingQueue()) {
+            final CompletableFuture<Void> first = new CompletableFuture<>();
+            queue.add(new Key.From("main/first.deb"), () -> first);
+            queue.add(
+                new Key.From("main/second.deb"),
+                () -> new FailedCompletionStage<>(new IllegalStateException("Bad\ncontrol"))
+            );
+            MatcherAssert.assertThat(
+                "Second package is queued",
+                new IndexingStatusSlice(queue),
+                new SliceHasResponse(
+                    new RsHasBody(
+                        "Package: main/second.deb\nStatus: queued\n", StandardCharsets.UTF_8
+                    ),
+                    new RequestLine(RqMethod.GET, "/.indexing/main/second.deb")
+                )
+            );
+            first.complete(null);
+            queue.add(new Key.From("main/third.deb"), () -> CompletableFuture.allOf());
+            while (queue.status(new Key.From("main/third.deb")).get().name()
+                .equals(IndexingQueue.Status.QUEUED)) {
+                Thread.yield();
+            }
+            MatcherAssert.assertThat(
+                "Second package failed",
+                new IndexingStatusSlice(queue),
+                new SliceHasResponse(
+                    new RsHasBody(
+                        "Package: main/second.deb\nStatus: failed\nMessage: Bad control\n",
+                        StandardCharsets.UTF_8
+                    ),
+                    new RequestLine(RqMethod.GET, "/.indexing/main/second.deb")
+                )
+            );
+        }
+    }
+
+    @Test
+    void returnsNotFoundForUnknownPackage() {
+        try (IndexingQueue queue = new IndexingQueue()) {
+            MatcherAssert.assertThat(
+                new IndexingStatusSlice(queue),
+                new SliceHasResponse(
+                    new RsHasStatus(RsStatus.NOT_FOUND),
+                    new RequestLine(RqMethod.GET, "/.indexing/main/unknown.deb")
+                )
+            );
+        }
+    }
+}
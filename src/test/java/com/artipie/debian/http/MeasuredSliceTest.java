@@ -0,0 +1,72 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.debian.metrics.Metrics;
+import com.artipie.http.Headers;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.StandardRs;
+import java.nio.charset.StandardCharsets;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link MeasuredSlice}.
+ * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class MeasuredSliceTest {
+
+    @Test
+    void recordsRouteMetrics() {
+        final Metrics.InMemory metrics = new Metrics.InMemory();
+        MatcherAssert.assertThat(
+            "Response is OK",
+            new MeasuredSlice(
+                (line, headers, body) -> new AsyncResponse(
+                    new PublisherAs(body).bytes()
+                        .thenApply(bytes -> new RsWithBody(StandardRs.OK, bytes))
+                ),
+                metrics, "test"
+            ),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(RqMethod.PUT, "/any"),
+                Headers.EMPTY,
+                new Content.From("some".getBytes(StandardCharsets.UTF_8))
+            )
+        );
+        MatcherAssert.assertThat(
+            "Request is counted",
+            metrics.counter("test.requests"),
+            new IsEqual<>(1L)
+        );
+        MatcherAssert.assertThat(
+            "Request bytes are counted",
+            metrics.counter("test.bytes.in"),
+            new IsEqual<>(4L)
+        );
+        MatcherAssert.assertThat(
+            "Response bytes are counted",
+            metrics.counter("test.bytes.out"),
+            new IsEqual<>(4L)
+        );
+        MatcherAssert.assertThat(
+            "Latency is recorded",
+            metrics.timer("test.latency").count(),
+            new IsEqual<>(1L)
+        );
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import com.artipie.debian.GzArchive;
+import com.artipie.debian.misc.AccountingStorage;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.hm.RsHasBody;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import java.nio.charset.StandardCharsets;
+import org.cactoos.list.ListOf;
+import org.hamcrest.Matcher;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.AllOf;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link PackagesSlice}.
+ * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class PackagesSliceTest {
+
+    /**
+     * Packages.gz key.
+     */
+    private static final Key GZ = new Key.From("dists/my-repo/main/binary-amd64/Packages.gz");
+
+    /**
+     * Test storage.
+     */
+    private Storage asto;
+
+    @BeforeEach
+    void init() {
+        this.asto = new InMemoryStorage();
+    }
+
+    @Test
+    void servesUncompressedIndex() {
+        final byte[] packed = new TestResource("Packages.gz").asBytes();
+        this.asto.save(PackagesSliceTest.GZ, new Content.From(packed)).join();
+        MatcherAssert.assertThat(
+            new PackagesSlice(this.asto),
+            new SliceHasResponse(
+                new AllOf<>(
+                    new ListOf<Matcher<? super Response>>(
+                        new RsHasStatus(RsStatus.OK),
+                        new RsHasBody(new GzArchive().decompress(packed), StandardCharsets.UTF_8)
+                    )
+                ),
+                new RequestLine(RqMethod.GET, "/dists/my-repo/main/binary-amd64/Packages")
+            )
+        );
+    }
+
+    @Test
+    void servesUpdatedIndexAfterPackagesChange() {
+        final Slice slice = new PackagesSlice(this.asto);
+        final GzArchive archive = new GzArchive();
+        final String first = "Package: aglfn\nVersion: 1.7-3\n";
+        this.asto.save(
+            PackagesSliceTest.GZ,
+            new Content.From(archive.compress(first.getBytes(StandardCharsets.UTF_8)))
+        ).join();
+        MatcherAssert.assertThat(
+            "Initial index is served",
+            slice,
+            new SliceHasResponse(
+                new RsHasBody(first, StandardCharsets.UTF_8),
+                new RequestLine(RqMethod.GET, "/dists/my-repo/main/binary-amd64/Packages")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Cached index is served",
+            slice,
+            new SliceHasResponse(
+                new RsHasBody(first, StandardCharsets.UTF_8),
+                new RequestLine(RqMethod.GET, "/dists/my-repo/main/binary-amd64/Packages")
+            )
+        );
+        final String second = String.join(
+            "\n", first, "Package: pspp", "Version: 1.2.0-3", ""
+        );
+        this.asto.save(
+            PackagesSliceTest.GZ,
+            new Content.From(archive.compress(second.getBytes(StandardCharsets.UTF_8)))
+        ).join();
+        MatcherAssert.assertThat(
+            "Updated index is served",
+            slice,
+            new SliceHasResponse(
+                new RsHasBody(second, StandardCharsets.UTF_8),
+                new RequestLine(RqMethod.GET, "/dists/my-repo/main/binary-amd64/Packages")
+            )
+        );
+    }
+
+    @Test
+    void servesUpdatedIndexOfTheSameCompressedSize() {
+        final Slice slice = new PackagesSlice(this.asto);
+        final GzArchive archive = new GzArchive();
+        final byte[] first = archive.compress(
+            "Package: aglfn\nVersion: 1.7-3\n".getBytes(StandardCharsets.UTF_8)
+        );
+        final byte[] second = archive.compress(
+            "Package: aglfn\nVersion: 1.7-4\n".getBytes(StandardCharsets.UTF_8)
+        );
+        MatcherAssert.assertThat(
+            "Compressed indexes have the same size",
+            first.length,
+            new IsEqual<>(second.length)
+        );
+        this.asto.save(PackagesSliceTest.GZ, new Content.From(first)).join();
+        MatcherAssert.assertThat(
+            "Initial index is served",
+            slice,
+            new SliceHasResponse(
+                new RsHasBody("Package: aglfn\nVersion: 1.7-3\n", StandardCharsets.UTF_8),
+                new RequestLine(RqMethod.GET, "/dists/my-repo/main/binary-amd64/Packages")
+            )
+        );
+        this.asto.save(PackagesSliceTest.GZ, new Content.From(second)).join();
+        MatcherAssert.assertThat(
+            "Updated index is served",
+            slice,
+            new SliceHasResponse(
+                new RsHasBody("Package: aglfn\nVersion: 1.7-4\n", StandardCharsets.UTF_8),
+                new RequestLine(RqMethod.GET, "/dists/my-repo/main/binary-amd64/Packages")
+            )
+        );
+    }
+
+    @Test
+    void readsIndexWithSingleStorageCall() {
+        final AccountingStorage storage = new AccountingStorage(this.asto);
+        final Slice slice = new PackagesSlice(storage);
+        this.asto.save(
+            PackagesSliceTest.GZ, new Content.From(new TestResource("Packages.gz").asBytes())
+        ).join();
+        for (int num = 0; num < 2; num = num + 1) {
+            MatcherAssert.assertThat(
+                slice,
+                new SliceHasResponse(
+                    new RsHasStatus(RsStatus.OK),
+                    new RequestLine(RqMethod.GET, "/dists/my-repo/main/binary-amd64/Packages")
+                )
+            );
+        }
+        MatcherAssert.assertThat(
+            "Storage is called once per request",
+            new long[] {storage.calls("value"), storage.calls()},
+            new IsEqual<>(new long[] {2L, 2L})
+        );
+    }
+
+    @Test
+    void returnsNotFoundWhenIndexIsAbsent() {
+        MatcherAssert.assertThat(
+            new PackagesSlice(this.asto),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_FOUND),
+                new RequestLine(RqMethod.GET, "/dists/my-repo/main/binary-i386/Packages")
+            )
+        );
+    }
+}
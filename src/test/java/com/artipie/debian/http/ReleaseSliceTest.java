@@ -10,16 +10,29 @@ import com.artipie.asto.Storage;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.debian.metadata.InRelease;
 import com.artipie.debian.metadata.Release;
+import com.artipie.http.Headers;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
 import com.artipie.http.hm.RsHasStatus;
 import com.artipie.http.hm.SliceHasResponse;
 import com.artipie.http.rq.RequestLine;
 import com.artipie.http.rq.RqMethod;
 import com.artipie.http.rs.RsStatus;
 import com.artipie.http.rs.RsWithStatus;
+import com.artipie.http.rs.StandardRs;
+import com.artipie.http.rt.ByMethodsRule;
+import com.artipie.http.rt.RtRule;
+import com.artipie.http.rt.RtRulePath;
+import com.artipie.http.rt.SliceRoute;
 import com.artipie.http.slice.SliceSimple;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.apache.commons.lang3.NotImplementedException;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.IsEqual;
@@ -30,7 +43,9 @@ import org.junit.jupiter.api.Test;
  * Test for {@link ReleaseSlice}.
  * @since 0.2
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
  */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
 class ReleaseSliceTest {
 
     /**
@@ -103,6 +118,128 @@ class ReleaseSliceTest {
         );
     }
 
+    @Test
+    void doesNotCheckStorageOnceReleaseIsObserved() {
+        final Key key = new Key.From("dists/deb-repo/Release");
+        this.asto.save(key, Content.EMPTY).join();
+        final FakeRelease release = new FakeRelease(key);
+        final Slice slice = new ReleaseSlice(
+            new SliceSimple(new RsWithStatus(RsStatus.OK)), this.asto, release,
+            new FakeInRelease()
+        );
+        MatcherAssert.assertThat(
+            "First response is OK",
+            slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(RqMethod.GET, "/pool/main/first.deb")
+            )
+        );
+        this.asto.delete(key).join();
+        MatcherAssert.assertThat(
+            "Second response is OK",
+            slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(RqMethod.GET, "/pool/main/second.deb")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Release file was not checked and created again",
+            release.count.get(),
+            new IsEqual<>(0)
+        );
+    }
+
+    @Test
+    void checksReleaseAgainAfterWriteToReleaseKey() {
+        final Key key = new Key.From("dists/deb-repo/Release");
+        this.asto.save(key, Content.EMPTY).join();
+        final FakeRelease release = new FakeRelease(key);
+        final Slice slice = new ReleaseSlice(
+            new SliceRoute(
+                new RtRulePath(
+                    new ByMethodsRule(RqMethod.PUT),
+                    (line, headers, body) -> new AsyncResponse(
+                        this.asto.delete(key).thenApply(nothing -> StandardRs.OK)
+                    )
+                ),
+                new RtRulePath(RtRule.FALLBACK, new SliceSimple(StandardRs.OK))
+            ),
+            this.asto, release, new FakeInRelease()
+        );
+        MatcherAssert.assertThat(
+            "Response to PUT is OK",
+            slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(RqMethod.PUT, "/dists/deb-repo/Release")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Response to GET is OK",
+            slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(RqMethod.GET, "/dists/deb-repo/Release")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Release file was created after it was removed by write",
+            release.count.get(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void sharesReleaseBootstrapBetweenConcurrentRequests() {
+        final CompletableFuture<Void> created = new CompletableFuture<>();
+        final FakeRelease release = new FakeRelease(
+            new Key.From("dists/new-repo/Release"), created
+        );
+        final FakeInRelease inrelease = new FakeInRelease();
+        final Slice slice = new ReleaseSlice(
+            new SliceSimple(new RsWithStatus(RsStatus.OK)), this.asto, release, inrelease
+        );
+        final List<CompletableFuture<RsStatus>> statuses = IntStream.range(0, 5).mapToObj(
+            num -> {
+                final CompletableFuture<RsStatus> status = new CompletableFuture<>();
+                slice.response(
+                    new RequestLine(RqMethod.GET, String.format("/pool/main/%d.deb", num))
+                        .toString(),
+                    Headers.EMPTY, Content.EMPTY
+                ).send(
+                    (code, headers, body) -> {
+                        status.complete(code);
+                        return CompletableFuture.allOf();
+                    }
+                );
+                return status;
+            }
+        ).collect(Collectors.toList());
+        MatcherAssert.assertThat(
+            "Requests wait for the bootstrap",
+            statuses.stream().noneMatch(CompletableFuture::isDone),
+            new IsEqual<>(true)
+        );
+        created.complete(null);
+        MatcherAssert.assertThat(
+            "All requests are processed",
+            statuses.stream().map(CompletableFuture::join).collect(Collectors.toList()),
+            new IsEqual<>(Collections.nCopies(5, RsStatus.OK))
+        );
+        MatcherAssert.assertThat(
+            "Release file was created once",
+            release.count.get(),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "InRelease file was created once",
+            inrelease.count.get(),
+            new IsEqual<>(1)
+        );
+    }
+
     /**
      * Fake {@link Release} implementation for the test.
      * @since 0.2
@@ -119,19 +256,34 @@ class ReleaseSliceTest {
          */
         private final Key rfk;
 
+        /**
+         * Result of the Release creation.
+         */
+        private final CompletableFuture<Void> result;
+
         /**
          * Ctor.
          * @param key Release file key
          */
         private FakeRelease(final Key key) {
+            this(key, CompletableFuture.allOf());
+        }
+
+        /**
+         * Ctor.
+         * @param key Release file key
+         * @param result Result of the Release creation
+         */
+        private FakeRelease(final Key key, final CompletableFuture<Void> result) {
             this.rfk = key;
+            this.result = result;
             this.count = new AtomicInteger(0);
         }
 
         @Override
         public CompletionStage<Void> create() {
             this.count.incrementAndGet();
-            return CompletableFuture.allOf();
+            return this.result;
         }
 
         @Override
@@ -139,6 +291,11 @@ class ReleaseSliceTest {
             throw new NotImplementedException("Not implemented");
         }
 
+        @Override
+        public CompletionStage<Void> update(final Collection<Key> pckgs) {
+            throw new NotImplementedException("Not implemented");
+        }
+
         @Override
         public Key key() {
             return this.rfk;
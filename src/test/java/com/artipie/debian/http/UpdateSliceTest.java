@@ -13,17 +13,33 @@ import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.asto.test.TestResource;
 import com.artipie.debian.AstoGzArchive;
 import com.artipie.debian.Config;
+import com.artipie.debian.metrics.Metrics;
+import com.artipie.debian.misc.AccountingStorage;
+import com.artipie.debian.misc.Gzip;
+import com.artipie.debian.tracing.Exporter;
+import com.artipie.debian.tracing.Span;
 import com.artipie.http.Headers;
+import com.artipie.http.headers.Header;
+import com.artipie.http.hm.RsHasHeaders;
 import com.artipie.http.hm.RsHasStatus;
 import com.artipie.http.hm.SliceHasResponse;
 import com.artipie.http.rq.RequestLine;
 import com.artipie.http.rq.RqMethod;
 import com.artipie.http.rs.RsStatus;
+import io.reactivex.Flowable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import org.cactoos.list.ListOf;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.hamcrest.core.IsEqual;
 import org.hamcrest.core.IsNot;
+import org.hamcrest.core.StringContains;
 import org.hamcrest.text.StringContainsInOrder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -32,9 +48,12 @@ import org.junit.jupiter.api.Test;
  * Test for {@link UpdateSlice}.
  * @since 0.1
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
- * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle ClassFanOutComplexityCheck (500 lines)
+ * @checkstyle MagicNumberCheck (700 lines)
  */
-@SuppressWarnings({"PMD.AssignmentInOperand", "PMD.AvoidDuplicateLiterals"})
+@SuppressWarnings(
+    {"PMD.AssignmentInOperand", "PMD.AvoidDuplicateLiterals", "PMD.TooManyMethods"}
+)
 class UpdateSliceTest {
 
     /**
@@ -147,6 +166,45 @@ class UpdateSliceTest {
         );
     }
 
+    @Test
+    void updatesIndexWithGivenCompression() throws IOException {
+        this.asto.save(new Key.From("dists/deb_repo/Release"), Content.EMPTY).join();
+        this.asto.save(new Key.From("dists/deb_repo/InRelease"), Content.EMPTY).join();
+        final Key key = new Key.From("dists/deb_repo/main/binary-amd64/Packages.gz");
+        new TestResource("Packages.gz").saveTo(this.asto, key);
+        final AtomicInteger used = new AtomicInteger();
+        MatcherAssert.assertThat(
+            "Response is OK",
+            new UpdateSlice(
+                this.asto,
+                new Config.FromYaml("deb_repo", UpdateSliceTest.SETTINGS, new InMemoryStorage()),
+                Optional.empty(), Optional.empty(), new Metrics.Noop(), new Exporter.Noop(),
+                origin -> {
+                    used.incrementAndGet();
+                    return new Gzip.Parallel().compressing(origin);
+                }
+            ),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(RqMethod.PUT, "/main/libobus-ocaml_1.2.3-1+b3_amd64.deb"),
+                Headers.EMPTY,
+                new Content.From(new TestResource("libobus-ocaml_1.2.3-1+b3_amd64.deb").asBytes())
+            )
+        );
+        MatcherAssert.assertThat(
+            "Given compression is used",
+            used.get(),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "Packages index is updated",
+            new AstoGzArchive(this.asto).unpack(key),
+            new StringContainsInOrder(
+                new ListOf<String>("Package: aglfn", "Package: pspp", "Package: libobus-ocaml")
+            )
+        );
+    }
+
     @Test
     void returnsBadRequestAndRemovesItem() {
         MatcherAssert.assertThat(
@@ -199,4 +257,313 @@ class UpdateSliceTest {
         );
     }
 
+    @Test
+    void acceptsAndIndexesInBackground() throws InterruptedException {
+        final Key release = new Key.From("dists/my_repo/Release");
+        this.asto.save(release, Content.EMPTY).join();
+        this.asto.save(new Key.From("dists/my_repo/InRelease"), Content.EMPTY).join();
+        try (IndexingQueue queue = new IndexingQueue()) {
+            MatcherAssert.assertThat(
+                "Response is ACCEPTED with status location",
+                new UpdateSlice(
+                    this.asto,
+                    new Config.FromYaml("my_repo", UpdateSliceTest.SETTINGS, new InMemoryStorage()),
+                    Optional.empty(), Optional.of(queue)
+                ),
+                new SliceHasResponse(
+                    Matchers.allOf(
+                        new RsHasStatus(RsStatus.ACCEPTED),
+                        new RsHasHeaders(
+                            new Header("Location", "/.indexing/main/aglfn_1.7-3_amd64.deb")
+                        )
+                    ),
+                    new RequestLine(RqMethod.PUT, "/main/aglfn_1.7-3_amd64.deb"),
+                    Headers.EMPTY,
+                    new Content.From(new TestResource("aglfn_1.7-3_amd64.deb").asBytes())
+                )
+            );
+            MatcherAssert.assertThat(
+                "Package was indexed",
+                UpdateSliceTest.await(queue, new Key.From("main/aglfn_1.7-3_amd64.deb")).name(),
+                new IsEqual<>(IndexingQueue.Status.INDEXED)
+            );
+        }
+        MatcherAssert.assertThat(
+            "Packages index added",
+            new AstoGzArchive(this.asto)
+                .unpack(new Key.From("dists/my_repo/main/binary-amd64/Packages.gz")),
+            new StringContains("Package: aglfn")
+        );
+    }
+
+    @Test
+    void returnsStatusLocationOfMountedRepositoryAndTracesIndexing()
+        throws InterruptedException {
+        this.asto.save(new Key.From("dists/my_repo/Release"), Content.EMPTY).join();
+        final Exporter.InMemory exporter = new Exporter.InMemory();
+        try (IndexingQueue queue = new IndexingQueue()) {
+            MatcherAssert.assertThat(
+                "Status location contains repository name",
+                new UpdateSlice(
+                    this.asto,
+                    new Config.FromYaml("my_repo", UpdateSliceTest.SETTINGS, new InMemoryStorage()),
+                    Optional.empty(), Optional.of(queue), new Metrics.Noop(), exporter
+                ),
+                new SliceHasResponse(
+                    new RsHasHeaders(
+                        new Header("Location", "/my_repo/.indexing/main/aglfn_1.7-3_amd64.deb")
+                    ),
+                    new RequestLine(RqMethod.PUT, "/main/aglfn_1.7-3_amd64.deb"),
+                    new Headers.From("X-FullPath", "/my_repo/main/aglfn_1.7-3_amd64.deb"),
+                    new Content.From(new TestResource("aglfn_1.7-3_amd64.deb").asBytes())
+                )
+            );
+            UpdateSliceTest.await(queue, new Key.From("main/aglfn_1.7-3_amd64.deb"));
+        }
+        final Span indexing = exporter.spans("indexing").get(0);
+        MatcherAssert.assertThat(
+            "Background indexing is traced as the separate root span",
+            indexing.parent(),
+            new IsEqual<>(Optional.empty())
+        );
+        MatcherAssert.assertThat(
+            "Background indexing trace differs from the upload trace",
+            exporter.spans("upload").get(0).trace(),
+            new IsNot<>(new IsEqual<>(indexing.trace()))
+        );
+        MatcherAssert.assertThat(
+            "Indexing stages are nested into the background indexing span",
+            exporter.spans("upload.index").get(0).parent(),
+            new IsEqual<>(Optional.of(indexing.identifier()))
+        );
+    }
+
+    @Test
+    void reportsFailedBackgroundIndexing() throws InterruptedException {
+        try (IndexingQueue queue = new IndexingQueue()) {
+            MatcherAssert.assertThat(
+                "Response is ACCEPTED",
+                new UpdateSlice(
+                    this.asto,
+                    new Config.FromYaml("my_repo", UpdateSliceTest.SETTINGS, new InMemoryStorage()),
+                    Optional.empty(), Optional.of(queue)
+                ),
+                new SliceHasResponse(
+                    new RsHasStatus(RsStatus.ACCEPTED),
+                    new RequestLine(RqMethod.PUT, "/main/corrupted.deb"),
+                    Headers.EMPTY,
+                    new Content.From("abc123".getBytes())
+                )
+            );
+            MatcherAssert.assertThat(
+                "Indexing failed",
+                UpdateSliceTest.await(queue, new Key.From("main/corrupted.deb")).name(),
+                new IsEqual<>(IndexingQueue.Status.FAILED)
+            );
+        }
+        MatcherAssert.assertThat(
+            "Debian package was removed",
+            this.asto.exists(new Key.From("main/corrupted.deb")).join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void rejectsNotSupportedArchitectureBeforeReadingWholePackage() {
+        final byte[] deb = new TestResource("aglfn_1.7-3_all.deb").asBytes();
+        try (IndexingQueue queue = new IndexingQueue()) {
+            MatcherAssert.assertThat(
+                "Response is bad request",
+                new UpdateSlice(
+                    this.asto,
+                    new Config.FromYaml("my_repo", UpdateSliceTest.SETTINGS, new InMemoryStorage()),
+                    Optional.empty(), Optional.of(queue)
+                ),
+                new SliceHasResponse(
+                    new RsHasStatus(RsStatus.BAD_REQUEST),
+                    new RequestLine(RqMethod.PUT, "/main/aglfn_1.7-3_all.deb"),
+                    Headers.EMPTY,
+                    new Content.From(
+                        Flowable.concat(
+                            Flowable.just(ByteBuffer.wrap(Arrays.copyOf(deb, deb.length / 2))),
+                            Flowable.error(new IllegalStateException("Body tail is read"))
+                        )
+                    )
+                )
+            );
+        }
+        MatcherAssert.assertThat(
+            "Nothing was saved",
+            this.asto.list(Key.ROOT).join().isEmpty(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void returnsBadRequestIfBodyFailsBeforeHeadIsRead() {
+        final byte[] deb = new TestResource("aglfn_1.7-3_amd64.deb").asBytes();
+        MatcherAssert.assertThat(
+            "Response is bad request",
+            new UpdateSlice(
+                this.asto,
+                new Config.FromYaml("my_repo", UpdateSliceTest.SETTINGS, new InMemoryStorage())
+            ),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.BAD_REQUEST),
+                new RequestLine(RqMethod.PUT, "/main/aglfn_1.7-3_amd64.deb"),
+                Headers.EMPTY,
+                new Content.From(
+                    Flowable.concat(
+                        Flowable.just(ByteBuffer.wrap(Arrays.copyOf(deb, 100))),
+                        Flowable.error(new IllegalStateException("Body is truncated"))
+                    )
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            "Nothing was saved",
+            this.asto.list(Key.ROOT).join().isEmpty(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void recordsUploadStages() {
+        this.asto.save(new Key.From("dists/my_repo/Release"), Content.EMPTY).join();
+        final Metrics.InMemory metrics = new Metrics.InMemory();
+        MatcherAssert.assertThat(
+            "Response is OK",
+            new UpdateSlice(
+                this.asto,
+                new Config.FromYaml("my_repo", UpdateSliceTest.SETTINGS, new InMemoryStorage()),
+                Optional.empty(), Optional.empty(), metrics
+            ),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(RqMethod.PUT, "/main/aglfn_1.7-3_amd64.deb"),
+                Headers.EMPTY,
+                new Content.From(new TestResource("aglfn_1.7-3_amd64.deb").asBytes())
+            )
+        );
+        for (final String stage : new ListOf<>("control", "store", "digest", "index", "release")) {
+            MatcherAssert.assertThat(
+                String.format("Stage %s is recorded", stage),
+                metrics.timer(String.format("upload.%s", stage)).count(),
+                new IsEqual<>(1L)
+            );
+        }
+        for (final String timer : new ListOf<>(
+            "item.format", "packages.add", "release.update", "inrelease.generate"
+        )) {
+            MatcherAssert.assertThat(
+                String.format("Operation %s is recorded", timer),
+                metrics.timer(timer).count(),
+                new IsEqual<>(1L)
+            );
+        }
+    }
+
+    @Test
+    void uploadsWithinStorageIoBudget() {
+        final byte[] deb = new TestResource("aglfn_1.7-3_amd64.deb").asBytes();
+        final Key key = new Key.From("main/aglfn_1.7-3_amd64.deb");
+        this.asto.save(new Key.From("dists/my_repo/Release"), Content.EMPTY).join();
+        final AccountingStorage storage = new AccountingStorage(this.asto);
+        MatcherAssert.assertThat(
+            "Response is OK",
+            new UpdateSlice(
+                storage,
+                new Config.FromYaml("my_repo", UpdateSliceTest.SETTINGS, new InMemoryStorage())
+            ),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(RqMethod.PUT, "/main/aglfn_1.7-3_amd64.deb"),
+                Headers.EMPTY,
+                new Content.From(deb)
+            )
+        );
+        MatcherAssert.assertThat(
+            "Package is written once",
+            storage.written(key),
+            new IsEqual<>((long) deb.length)
+        );
+        MatcherAssert.assertThat(
+            "Package is read once",
+            storage.read(key),
+            new IsEqual<>((long) deb.length)
+        );
+        MatcherAssert.assertThat(
+            "Storage calls are within the budget",
+            storage.calls(),
+            Matchers.lessThanOrEqualTo(12L)
+        );
+    }
+
+    @Test
+    void tracesUpload() {
+        this.asto.save(new Key.From("dists/my_repo/Release"), Content.EMPTY).join();
+        final Exporter.InMemory exporter = new Exporter.InMemory();
+        MatcherAssert.assertThat(
+            "Response is OK",
+            new UpdateSlice(
+                this.asto,
+                new Config.FromYaml("my_repo", UpdateSliceTest.SETTINGS, new InMemoryStorage()),
+                Optional.empty(), Optional.empty(), new Metrics.Noop(), exporter
+            ),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(RqMethod.PUT, "/main/aglfn_1.7-3_amd64.deb"),
+                Headers.EMPTY,
+                new Content.From(new TestResource("aglfn_1.7-3_amd64.deb").asBytes())
+            )
+        );
+        final List<Span> root = exporter.spans("upload");
+        MatcherAssert.assertThat(
+            "Upload is traced with the root span",
+            root.stream().map(span -> span.parent().isPresent()).collect(Collectors.toList()),
+            new IsEqual<>(new ListOf<>(false))
+        );
+        for (final String stage : new ListOf<>("control", "store", "digest", "index", "release")) {
+            MatcherAssert.assertThat(
+                String.format("Stage %s is traced as the child of the root span", stage),
+                exporter.spans(String.format("upload.%s", stage)).stream()
+                    .map(span -> span.parent().get()).collect(Collectors.toList()),
+                new IsEqual<>(new ListOf<>(root.get(0).identifier()))
+            );
+        }
+        MatcherAssert.assertThat(
+            "Spans of the upload belong to the same trace",
+            exporter.spans().stream().map(Span::trace).distinct().count(),
+            new IsEqual<>(1L)
+        );
+        for (final String name : new ListOf<>(
+            "packages.create", "release.update", "inrelease.generate", "storage.save",
+            "storage.value"
+        )) {
+            MatcherAssert.assertThat(
+                String.format("Span %s is exported", name),
+                exporter.spans(name),
+                new IsNot<>(Matchers.empty())
+            );
+        }
+    }
+
+    /**
+     * Waits for the indexing to finish.
+     * @param queue Indexing queue
+     * @param key Package key
+     * @return Final indexing status
+     * @throws InterruptedException If interrupted
+     */
+    private static IndexingQueue.Status await(final IndexingQueue queue, final Key key)
+        throws InterruptedException {
+        IndexingQueue.Status res = queue.status(key).get();
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (IndexingQueue.Status.QUEUED.equals(res.name())
+            && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            res = queue.status(key).get();
+        }
+        return res;
+    }
 }
@@ -13,14 +13,23 @@ import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.asto.test.ContentIs;
 import com.artipie.asto.test.TestResource;
 import com.artipie.debian.Config;
+import com.artipie.debian.GpgConfig;
+import com.artipie.debian.misc.Signer;
+import com.artipie.debian.misc.SigningAgent;
+import com.artipie.debian.misc.SocketSigner;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Optional;
 import org.cactoos.list.ListOf;
 import org.hamcrest.Matcher;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.AllOf;
 import org.hamcrest.core.StringContains;
+import org.hamcrest.text.StringContainsInOrder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 /**
  * Test for {@link InRelease.Asto}.
@@ -40,12 +49,12 @@ class InReleaseAstoTest {
         this.asto = new InMemoryStorage();
     }
 
-    @Test
-    void generatesInRelease() {
+    @ParameterizedTest
+    @ValueSource(strings = {"secret-keys.gpg", "secret-keys-ed25519.gpg", "secret-keys-ecdsa.gpg"})
+    void generatesInRelease(final String secret) {
         final String name = "my-deb";
         final Key key = new Key.From("dists", name, "Release");
         new TestResource("Release").saveTo(this.asto, key);
-        final String secret = "secret-keys.gpg";
         new TestResource(secret).saveTo(this.asto);
         new InRelease.Asto(
             this.asto,
@@ -63,7 +72,7 @@ class InReleaseAstoTest {
                 new ListOf<Matcher<? super String>>(
                     new StringContains(new String(new TestResource("Release").asBytes())),
                     new StringContains("-----BEGIN PGP SIGNED MESSAGE-----"),
-                    new StringContains("Hash: SHA256"),
+                    new StringContains("Hash: SHA"),
                     new StringContains("-----BEGIN PGP SIGNATURE-----"),
                     new StringContains("-----END PGP SIGNATURE-----")
                 )
@@ -71,6 +80,45 @@ class InReleaseAstoTest {
         );
     }
 
+    @Test
+    void generatesThroughSigningAgent() throws IOException {
+        final String name = "remote";
+        final Key key = new Key.From("dists", name, "Release");
+        new TestResource("Release").saveTo(this.asto, key);
+        final Storage settings = new InMemoryStorage();
+        new TestResource("secret-keys-ed25519.gpg").saveTo(settings);
+        final InRelease inrelease;
+        try (SigningAgent agent = new SigningAgent(
+            new Signer.Gpg(
+                new GpgConfig.FromYaml(
+                    Yaml.createYamlMappingBuilder().add("gpg_password", "1q2w3e4r5t6y7u")
+                        .add("gpg_secret_key", "secret-keys-ed25519.gpg").build(),
+                    settings
+                )
+            )
+        )) {
+            try (SocketSigner signer = new SocketSigner("localhost", agent.start())) {
+                inrelease = new InRelease.Asto(
+                    this.asto,
+                    new Config.FromYaml(name, Yaml.createYamlMappingBuilder().build(), this.asto),
+                    Optional.of(signer)
+                );
+                inrelease.generate(key).toCompletableFuture().join();
+            }
+        }
+        MatcherAssert.assertThat(
+            new PublisherAs(this.asto.value(inrelease.key()).join())
+                .asciiString().toCompletableFuture().join(),
+            new StringContainsInOrder(
+                new ListOf<String>(
+                    "-----BEGIN PGP SIGNED MESSAGE-----",
+                    new String(new TestResource("Release").asBytes()),
+                    "-----BEGIN PGP SIGNATURE-----"
+                )
+            )
+        );
+    }
+
     @Test
     void generatesIfGpgIsNotSet() {
         final String name = "my-repo";
@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metadata;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import com.artipie.debian.AstoGzArchive;
+import java.util.Collections;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.StringContains;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link PackagesRemoval}.
+ * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class PackagesRemovalTest {
+
+    /**
+     * Packages index key.
+     */
+    private static final Key INDEX = new Key.From("dists/my_repo/main/binary-amd64/Packages.gz");
+
+    /**
+     * Test storage.
+     */
+    private Storage asto;
+
+    @BeforeEach
+    void init() {
+        this.asto = new InMemoryStorage();
+        new TestResource("Packages.gz").saveTo(this.asto, PackagesRemovalTest.INDEX);
+    }
+
+    @Test
+    void removesItem() {
+        MatcherAssert.assertThat(
+            "Item is removed",
+            new PackagesRemoval(this.asto).remove(
+                PackagesRemovalTest.INDEX,
+                Collections.singletonList(new Key.From("main/aglfn_1.7-3_amd64.deb"))
+            ).toCompletableFuture().join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Index contains only other item",
+            new AstoGzArchive(this.asto).unpack(PackagesRemovalTest.INDEX),
+            Matchers.allOf(
+                new StringContains("Package: pspp"),
+                Matchers.not(new StringContains("aglfn"))
+            )
+        );
+    }
+
+    @Test
+    void doesNotChangeIndexIfItemIsAbsent() {
+        final byte[] before = this.asto.value(PackagesRemovalTest.INDEX)
+            .thenCompose(content -> new PublisherAs(content).bytes())
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Nothing is removed",
+            new PackagesRemoval(this.asto).remove(
+                PackagesRemovalTest.INDEX,
+                Collections.singletonList(new Key.From("main/unknown_1.0_amd64.deb"))
+            ).toCompletableFuture().join(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Index is not changed",
+            this.asto.value(PackagesRemovalTest.INDEX)
+                .thenCompose(content -> new PublisherAs(content).bytes())
+                .toCompletableFuture().join(),
+            new IsEqual<>(before)
+        );
+    }
+
+    @Test
+    void returnsFalseIfIndexDoesNotExist() {
+        MatcherAssert.assertThat(
+            new PackagesRemoval(new InMemoryStorage()).remove(
+                PackagesRemovalTest.INDEX,
+                Collections.singletonList(new Key.From("main/aglfn_1.7-3_amd64.deb"))
+            ).toCompletableFuture().join(),
+            new IsEqual<>(false)
+        );
+    }
+}
@@ -254,6 +254,32 @@ class ReleaseAstoTest {
         );
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {"secret-keys.gpg", "secret-keys-ed25519.gpg", "secret-keys-ecdsa.gpg"})
+    void signsReleaseWithKey(final String secret) {
+        final Storage settings = new InMemoryStorage();
+        new TestResource(secret).saveTo(settings);
+        new Release.Asto(
+            this.asto,
+            new Config.FromYaml(
+                "signed",
+                Yaml.createYamlMappingBuilder()
+                    .add("Components", "main")
+                    .add("Architectures", "amd64")
+                    .add("gpg_password", "1q2w3e4r5t6y7u")
+                    .add("gpg_secret_key", secret).build(),
+                settings
+            )
+        ).create().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new PublisherAs(this.asto.value(new KeyFromPath("dists/signed/Release.gpg")).join())
+                .asciiString().toCompletableFuture().join(),
+            new StringContainsInOrder(
+                new ListOf<String>("-----BEGIN PGP SIGNATURE-----", "-----END PGP SIGNATURE-----")
+            )
+        );
+    }
+
     @Test
     void returnsReleaseIndexKey() {
         MatcherAssert.assertThat(
@@ -10,6 +10,8 @@ import com.artipie.asto.Storage;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.asto.test.TestResource;
 import com.artipie.debian.AstoGzArchive;
+import com.artipie.debian.metrics.Metrics;
+import com.artipie.debian.misc.Gzip;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -24,6 +26,7 @@ import org.junit.jupiter.api.Test;
  * Test for {@link UniquePackage}.
  * @since 0.5
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
  */
 @SuppressWarnings({"PMD.AvoidDuplicateLiterals", "PMD.TooManyMethods"})
 class UniquePackageTest {
@@ -70,6 +73,26 @@ class UniquePackageTest {
         this.verifyThatTempDirIsCleanedUp();
     }
 
+    @Test
+    void appendsNewRecordWithParallelCompression() throws IOException {
+        new TestResource(UniquePackageTest.PCKG).saveTo(this.asto);
+        new UniquePackage(this.asto, new Gzip.Parallel())
+            .add(new ListOf<>(this.abcPackageInfo()), UniquePackageTest.KEY)
+            .toCompletableFuture().join();
+        final Storage temp = new InMemoryStorage();
+        new TestResource(UniquePackageTest.PCKG).saveTo(temp);
+        MatcherAssert.assertThat(
+            new AstoGzArchive(this.asto).unpack(UniquePackageTest.KEY),
+            new IsEqual<>(
+                String.join(
+                    "\n\n",
+                    new AstoGzArchive(temp).unpack(UniquePackageTest.KEY),
+                    this.abcPackageInfo()
+                )
+            )
+        );
+    }
+
     @Test
     void replacesOneExistingPackage() throws IOException {
         final Key old = new Key.From("abc/old/package.deb");
@@ -135,6 +158,37 @@ class UniquePackageTest {
         this.verifyThatTempDirIsCleanedUp();
     }
 
+    @Test
+    void recordsMetrics() throws IOException {
+        final Key old = new Key.From("zero/old/package.deb");
+        this.asto.save(old, Content.EMPTY).join();
+        new AstoGzArchive(this.asto).packAndSave(
+            String.join("\n\n", this.zeroPackageInfo(old.string()), this.xyzPackageInfo()),
+            UniquePackageTest.KEY
+        );
+        final Metrics.InMemory metrics = new Metrics.InMemory();
+        new UniquePackage(this.asto, Gzip.STANDARD, metrics)
+            .add(
+                new ListOf<>(this.zeroPackageInfo(), this.abcPackageInfo()),
+                UniquePackageTest.KEY
+            ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Scanned stanzas, removed duplicates and index items are recorded",
+            new long[] {
+                metrics.counter("packages.stanzas"),
+                metrics.counter("packages.duplicates"),
+                metrics.gauge("packages.items"),
+                metrics.timer("packages.add").count(),
+            },
+            new IsEqual<>(new long[] {2L, 1L, 3L, 1L})
+        );
+        MatcherAssert.assertThat(
+            "Inflated and deflated bytes are recorded",
+            metrics.counter("packages.inflated") > 0 && metrics.counter("packages.deflated") > 0,
+            new IsEqual<>(true)
+        );
+    }
+
     @Test
     void replacesLastDuplicatedPackage() throws IOException {
         final Key old = new Key.From("zero/one/two/package.deb");
@@ -0,0 +1,66 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.metrics;
+
+import java.util.stream.LongStream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Test for {@link Histogram}.
+ * @since 0.9
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class HistogramTest {
+
+    @Test
+    void countsSumsAndKeepsMax() {
+        final Histogram hist = new Histogram();
+        LongStream.rangeClosed(1, 100).forEach(hist::record);
+        MatcherAssert.assertThat(
+            "Count is correct",
+            hist.count(),
+            new IsEqual<>(100L)
+        );
+        MatcherAssert.assertThat(
+            "Sum is correct",
+            hist.sum(),
+            new IsEqual<>(5050L)
+        );
+        MatcherAssert.assertThat(
+            "Max is correct",
+            hist.max(),
+            new IsEqual<>(100L)
+        );
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "0,0",
+        "30,31",
+        "50,63",
+        "99,100",
+        "100,100"
+    })
+    void returnsBucketUpperBound(final double pct, final long expected) {
+        final Histogram hist = new Histogram();
+        LongStream.rangeClosed(1, 100).forEach(hist::record);
+        MatcherAssert.assertThat(
+            hist.percentile(pct),
+            new IsEqual<>(expected)
+        );
+    }
+
+    @Test
+    void returnsZeroWhenEmpty() {
+        MatcherAssert.assertThat(
+            new Histogram().percentile(99),
+            new IsEqual<>(0L)
+        );
+    }
+}
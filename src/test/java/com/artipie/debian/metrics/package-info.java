@@ -0,0 +1,10 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+
+/**
+ * Tests for debian adapter metrics.
+ * @since 0.9
+ */
+package com.artipie.debian.metrics;
@@ -0,0 +1,308 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import io.reactivex.Flowable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Storage decorator accounting storage I/O: counts calls of each operation (`exists`, `list`,
+ * `save`, `move`, `size`, `value`, `delete` and `exclusively`), bytes read from the values
+ * and bytes written by `save`, total and by key. Bytes are counted as the content is consumed,
+ * so a value which was requested but not read adds a call and no bytes. Optionally delays
+ * each operation by the fixed latency, as a remote storage round trip does. Storage passed
+ * to the `exclusively` operation is accounted too.
+ * <p>
+ * Used to check storage I/O budget of the operations in tests and benchmarks, e.g. that the
+ * package upload reads the package from the storage at most once. It is a test helper, so it
+ * is kept in the test sources and shipped to the benchmarks in the test jar only.
+ * @since 0.9
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class AccountingStorage implements Storage {
+
+    /**
+     * Origin storage.
+     */
+    private final Storage origin;
+
+    /**
+     * Latency of each operation in milliseconds.
+     */
+    private final long latency;
+
+    /**
+     * Scheduler to complete delayed operations, empty if there is no latency.
+     */
+    private final Optional<ScheduledExecutorService> timer;
+
+    /**
+     * Accounted I/O.
+     */
+    private final Counters counters;
+
+    /**
+     * Ctor.
+     * @param origin Origin storage
+     */
+    public AccountingStorage(final Storage origin) {
+        this(origin, 0L, Optional.empty(), new Counters());
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin storage
+     * @param latency Latency of each operation in milliseconds, zero for no latency
+     * @param timer Scheduler to complete delayed operations
+     */
+    public AccountingStorage(final Storage origin, final long latency,
+        final ScheduledExecutorService timer) {
+        this(origin, latency, Optional.of(timer), new Counters());
+    }
+
+    /**
+     * Primary ctor.
+     * @param origin Origin storage
+     * @param latency Latency of each operation in milliseconds, zero for no latency
+     * @param timer Scheduler to complete delayed operations, empty if there is no latency
+     * @param counters Accounted I/O
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private AccountingStorage(final Storage origin, final long latency,
+        final Optional<ScheduledExecutorService> timer, final Counters counters) {
+        this.origin = origin;
+        this.latency = latency;
+        this.timer = timer;
+        this.counters = counters;
+    }
+
+    /**
+     * Number of calls of the operation.
+     * @param operation Operation name, e.g. `value` or `save`
+     * @return Number of calls
+     */
+    public long calls(final String operation) {
+        return AccountingStorage.get(this.counters.calls, operation);
+    }
+
+    /**
+     * Number of calls of all the operations.
+     * @return Number of calls
+     */
+    public long calls() {
+        return AccountingStorage.sum(this.counters.calls);
+    }
+
+    /**
+     * Number of bytes read from the storage values.
+     * @return Bytes read
+     */
+    public long read() {
+        return AccountingStorage.sum(this.counters.reads);
+    }
+
+    /**
+     * Number of bytes read from the value of the key.
+     * @param key Key
+     * @return Bytes read
+     */
+    public long read(final Key key) {
+        return AccountingStorage.get(this.counters.reads, key.string());
+    }
+
+    /**
+     * Number of bytes written to the storage.
+     * @return Bytes written
+     */
+    public long written() {
+        return AccountingStorage.sum(this.counters.writes);
+    }
+
+    /**
+     * Number of bytes written to the key.
+     * @param key Key
+     * @return Bytes written
+     */
+    public long written(final Key key) {
+        return AccountingStorage.get(this.counters.writes, key.string());
+    }
+
+    /**
+     * Resets all the counters to zero.
+     */
+    public void reset() {
+        this.counters.calls.clear();
+        this.counters.reads.clear();
+        this.counters.writes.clear();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(final Key key) {
+        return this.delayed("exists", () -> this.origin.exists(key));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Key>> list(final Key prefix) {
+        return this.delayed("list", () -> this.origin.list(prefix));
+    }
+
+    @Override
+    public CompletableFuture<Void> save(final Key key, final Content content) {
+        return this.delayed(
+            "save",
+            () -> this.origin.save(
+                key, AccountingStorage.counted(content, this.counters.writes, key)
+            )
+        );
+    }
+
+    @Override
+    public CompletableFuture<Void> move(final Key source, final Key destination) {
+        return this.delayed("move", () -> this.origin.move(source, destination));
+    }
+
+    @Override
+    public CompletableFuture<Long> size(final Key key) {
+        return this.delayed("size", () -> this.origin.size(key));
+    }
+
+    @Override
+    public CompletableFuture<Content> value(final Key key) {
+        return this.delayed("value", () -> this.origin.value(key)).thenApply(
+            content -> AccountingStorage.counted(content, this.counters.reads, key)
+        );
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(final Key key) {
+        return this.delayed("delete", () -> this.origin.delete(key));
+    }
+
+    @Override
+    public <T> CompletionStage<T> exclusively(final Key key,
+        final Function<Storage, CompletionStage<T>> operation) {
+        AccountingStorage.add(this.counters.calls, "exclusively", 1L);
+        return this.origin.exclusively(
+            key,
+            sto -> operation.apply(
+                new AccountingStorage(sto, this.latency, this.timer, this.counters)
+            )
+        );
+    }
+
+    /**
+     * Counts the call and starts the operation after the latency.
+     * @param name Operation name
+     * @param operation Operation
+     * @param <T> Result type
+     * @return Completion action with the operation result
+     */
+    private <T> CompletableFuture<T> delayed(final String name,
+        final Supplier<CompletableFuture<T>> operation) {
+        AccountingStorage.add(this.counters.calls, name, 1L);
+        final CompletableFuture<T> res;
+        if (this.latency == 0 || !this.timer.isPresent()) {
+            res = operation.get();
+        } else {
+            final CompletableFuture<Void> delay = new CompletableFuture<>();
+            this.timer.get().schedule(
+                () -> delay.complete(null), this.latency, TimeUnit.MILLISECONDS
+            );
+            res = delay.thenCompose(nothing -> operation.get());
+        }
+        return res;
+    }
+
+    /**
+     * Content which counts consumed bytes.
+     * @param content Origin content
+     * @param counter Counters by key
+     * @param key Key
+     * @return Counted content
+     */
+    private static Content counted(final Content content, final Map<String, AtomicLong> counter,
+        final Key key) {
+        return new Content.From(
+            content.size(),
+            Flowable.fromPublisher(content)
+                .doOnNext(buf -> AccountingStorage.add(counter, key.string(), buf.remaining()))
+        );
+    }
+
+    /**
+     * Adds the value to the counter.
+     * @param counter Counters by name
+     * @param name Counter name
+     * @param value Value to add
+     */
+    private static void add(final Map<String, AtomicLong> counter, final String name,
+        final long value) {
+        counter.computeIfAbsent(name, key -> new AtomicLong()).addAndGet(value);
+    }
+
+    /**
+     * Counter value.
+     * @param counter Counters by name
+     * @param name Counter name
+     * @return Value, zero if nothing was counted
+     */
+    private static long get(final Map<String, AtomicLong> counter, final String name) {
+        return Optional.ofNullable(counter.get(name)).map(AtomicLong::get).orElse(0L);
+    }
+
+    /**
+     * Sum of the counters.
+     * @param counter Counters by name
+     * @return Sum
+     */
+    private static long sum(final Map<String, AtomicLong> counter) {
+        return counter.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    /**
+     * Accounted I/O, shared by the storage and the storages passed
+     * to the `exclusively` operations.
+     * @since 0.9
+     */
+    private static final class Counters {
+
+        /**
+         * Calls by operation name.
+         */
+        private final Map<String, AtomicLong> calls;
+
+        /**
+         * Bytes read by key.
+         */
+        private final Map<String, AtomicLong> reads;
+
+        /**
+         * Bytes written by key.
+         */
+        private final Map<String, AtomicLong> writes;
+
+        /**
+         * Ctor.
+         */
+        Counters() {
+            this.calls = new ConcurrentHashMap<>();
+            this.reads = new ConcurrentHashMap<>();
+            this.writes = new ConcurrentHashMap<>();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AccountingStorage}.
+ * @since 0.9
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class AccountingStorageTest {
+
+    @Test
+    void countsCallsAndBytes() {
+        final AccountingStorage asto = new AccountingStorage(new InMemoryStorage());
+        final Key first = new Key.From("one.txt");
+        final Key second = new Key.From("two.txt");
+        asto.save(first, new Content.From("12345".getBytes(StandardCharsets.US_ASCII))).join();
+        asto.save(second, new Content.From("123".getBytes(StandardCharsets.US_ASCII))).join();
+        asto.exists(first).join();
+        asto.value(first).thenCompose(content -> new PublisherAs(content).bytes()).join();
+        asto.value(second).join();
+        asto.delete(second).join();
+        MatcherAssert.assertThat(
+            "Calls of each operation are counted",
+            new long[] {
+                asto.calls("save"), asto.calls("exists"), asto.calls("value"),
+                asto.calls("delete"), asto.calls("move"),
+            },
+            new IsEqual<>(new long[] {2L, 1L, 2L, 1L, 0L})
+        );
+        MatcherAssert.assertThat(
+            "All the calls are counted",
+            asto.calls(),
+            new IsEqual<>(6L)
+        );
+        MatcherAssert.assertThat(
+            "Bytes written are counted by key",
+            new long[] {asto.written(first), asto.written(second), asto.written()},
+            new IsEqual<>(new long[] {5L, 3L, 8L})
+        );
+        MatcherAssert.assertThat(
+            "Only consumed bytes are counted as read",
+            new long[] {asto.read(first), asto.read(second), asto.read()},
+            new IsEqual<>(new long[] {5L, 0L, 5L})
+        );
+        asto.reset();
+        MatcherAssert.assertThat(
+            "Counters are reset",
+            new long[] {asto.calls(), asto.read(), asto.written()},
+            new IsEqual<>(new long[] {0L, 0L, 0L})
+        );
+    }
+
+    @Test
+    void countsExclusiveOperations() {
+        final AccountingStorage asto = new AccountingStorage(new InMemoryStorage());
+        final Key key = new Key.From("locked.txt");
+        asto.exclusively(
+            key,
+            sto -> sto.save(key, new Content.From(new byte[] {1, 2}))
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Storage passed to the operation is accounted",
+            new long[] {asto.calls("exclusively"), asto.calls("save"), asto.written(key)},
+            new IsEqual<>(new long[] {1L, 1L, 2L})
+        );
+    }
+
+    @Test
+    void delaysOperations() {
+        final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        try {
+            final AccountingStorage asto =
+                new AccountingStorage(new InMemoryStorage(), 100L, timer);
+            final long start = System.nanoTime();
+            final CompletableFuture<Boolean> exists = asto.exists(new Key.From("any"));
+            MatcherAssert.assertThat(
+                "Operation result is correct",
+                exists.join(),
+                new IsEqual<>(false)
+            );
+            MatcherAssert.assertThat(
+                "Operation is delayed",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                Matchers.greaterThanOrEqualTo(100L)
+            );
+        } finally {
+            timer.shutdown();
+        }
+    }
+}
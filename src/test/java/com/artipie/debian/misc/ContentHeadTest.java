@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.ext.PublisherAs;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link ContentHead}.
+ * @since 0.9
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class ContentHeadTest {
+
+    @Test
+    void readsHeadOnlyAndThenWholeContent() {
+        final AtomicInteger emitted = new AtomicInteger();
+        final ContentHead content = new ContentHead(
+            Flowable.just("abc", "def", "ghi", "jkl")
+                .map(str -> ByteBuffer.wrap(str.getBytes(StandardCharsets.US_ASCII)))
+                .doOnNext(buf -> emitted.incrementAndGet()),
+            bytes -> bytes.remaining() >= 5
+        );
+        MatcherAssert.assertThat(
+            "Head is read",
+            new String(content.head().toCompletableFuture().join(), StandardCharsets.US_ASCII),
+            new IsEqual<>("abcdef")
+        );
+        MatcherAssert.assertThat(
+            "Rest of the content is not read",
+            emitted.get(),
+            new IsEqual<>(2)
+        );
+        MatcherAssert.assertThat(
+            "Whole content is published",
+            new PublisherAs(content).asciiString().toCompletableFuture().join(),
+            new IsEqual<>("abcdefghijkl")
+        );
+    }
+
+    @Test
+    void headIsWholeContentIfContentIsShort() {
+        final ContentHead content = new ContentHead(
+            Flowable.just(ByteBuffer.wrap("xyz".getBytes(StandardCharsets.US_ASCII))),
+            bytes -> false
+        );
+        MatcherAssert.assertThat(
+            "Head is the whole content",
+            new String(content.head().toCompletableFuture().join(), StandardCharsets.US_ASCII),
+            new IsEqual<>("xyz")
+        );
+        MatcherAssert.assertThat(
+            "Whole content is published",
+            new PublisherAs(content).asciiString().toCompletableFuture().join(),
+            new IsEqual<>("xyz")
+        );
+    }
+
+    @Test
+    void stopsReadingHeadAtLimit() {
+        MatcherAssert.assertThat(
+            new ContentHead(
+                Flowable.just("ab", "cd", "ef")
+                    .map(str -> ByteBuffer.wrap(str.getBytes(StandardCharsets.US_ASCII))),
+                bytes -> false,
+                3
+            ).head().toCompletableFuture().join().length,
+            new IsEqual<>(4)
+        );
+    }
+
+    @Test
+    void failsAndCancelsOriginIfCheckFails() {
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final ContentHead content = new ContentHead(
+            Flowable.just("abc", "def")
+                .map(str -> ByteBuffer.wrap(str.getBytes(StandardCharsets.US_ASCII)))
+                .doOnCancel(() -> cancelled.set(true)),
+            bytes -> {
+                throw new IllegalStateException("Malformed head");
+            }
+        );
+        MatcherAssert.assertThat(
+            "Head fails",
+            content.head().toCompletableFuture().isCompletedExceptionally(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Origin is cancelled",
+            cancelled.get(),
+            new IsEqual<>(true)
+        );
+    }
+}
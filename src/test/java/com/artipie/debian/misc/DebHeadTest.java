@@ -0,0 +1,58 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.test.TestResource;
+import com.artipie.debian.metadata.Control;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.StringStartsWith;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link DebHead}.
+ * @since 0.9
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class DebHeadTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "aglfn_1.7-3_amd64.deb", "libobus-ocaml_1.2.3-1+b3_amd64.deb", "pspp_1.2.0-3_amd64.deb"
+    })
+    void completesOnceControlIsRead(final String name) {
+        final byte[] deb = new TestResource(name).asBytes();
+        final int len = IntStream.rangeClosed(0, deb.length)
+            .filter(num -> new DebHead().test(ByteBuffer.wrap(deb, 0, num)))
+            .findFirst().getAsInt();
+        MatcherAssert.assertThat(
+            "Head is shorter than the package",
+            len,
+            Matchers.lessThan(deb.length)
+        );
+        MatcherAssert.assertThat(
+            "Control is read from the head",
+            new Control.FromBinary(Arrays.copyOf(deb, len)).asString(),
+            new StringStartsWith("Package:")
+        );
+    }
+
+    @Test
+    void completesOnNotArchive() {
+        MatcherAssert.assertThat(
+            new DebHead().test(
+                ByteBuffer.wrap("not a debian package".getBytes(StandardCharsets.US_ASCII))
+            ),
+            new IsEqual<>(true)
+        );
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.test.TestResource;
+import com.artipie.debian.GzArchive;
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link DeflatedContent}.
+ * @since 0.9
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class DeflatedContentTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 7, 512, 1_000_000})
+    void deflatesContentSplitIntoChunks(final int chunk) {
+        final byte[] data = new GzArchive()
+            .decompress(new TestResource("Packages.gz").asBytes())
+            .getBytes(StandardCharsets.UTF_8);
+        MatcherAssert.assertThat(
+            new GzArchive().decompress(
+                DeflatedContentTest.deflate(DeflatedContentTest.chunks(data, chunk))
+            ).getBytes(StandardCharsets.UTF_8),
+            new IsEqual<>(data)
+        );
+    }
+
+    @Test
+    void deflatesEmptyContent() {
+        MatcherAssert.assertThat(
+            new GzArchive().decompress(DeflatedContentTest.deflate(Flowable.empty())),
+            new IsEqual<>("")
+        );
+    }
+
+    @Test
+    void stopsDeflatingWhenCancelled() {
+        final byte[] data = new GzArchive()
+            .decompress(new TestResource("Packages.gz").asBytes())
+            .getBytes(StandardCharsets.UTF_8);
+        for (int run = 0; run < 20; run = run + 1) {
+            MatcherAssert.assertThat(
+                Flowable.fromPublisher(
+                    new DeflatedContent(
+                        DeflatedContentTest.chunks(data, 1).subscribeOn(Schedulers.io())
+                    )
+                ).take(2).toList().blockingGet().size(),
+                new IsEqual<>(2)
+            );
+        }
+    }
+
+    /**
+     * Deflates content.
+     * @param data Content
+     * @return Deflated content
+     */
+    private static byte[] deflate(final Flowable<ByteBuffer> data) {
+        return new PublisherAs(new Content.From(new DeflatedContent(data)))
+            .bytes().toCompletableFuture().join();
+    }
+
+    /**
+     * Splits bytes into chunks.
+     * @param bytes Bytes
+     * @param size Chunk size
+     * @return Chunks
+     */
+    private static Flowable<ByteBuffer> chunks(final byte[] bytes, final int size) {
+        return Flowable.fromIterable(
+            IntStream.range(0, (bytes.length + size - 1) / size).mapToObj(
+                num -> ByteBuffer.wrap(
+                    Arrays.copyOfRange(bytes, num * size, Math.min(bytes.length, (num + 1) * size))
+                )
+            ).collect(Collectors.toList())
+        );
+    }
+}
@@ -5,50 +5,88 @@
 package com.artipie.debian.misc;
 
 import com.artipie.asto.test.TestResource;
+import com.artipie.debian.metrics.Metrics;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPObjectFactory;
+import org.bouncycastle.openpgp.PGPPublicKey;
+import org.bouncycastle.openpgp.PGPSecretKey;
+import org.bouncycastle.openpgp.PGPSecretKeyRing;
+import org.bouncycastle.openpgp.PGPSecretKeyRingCollection;
+import org.bouncycastle.openpgp.PGPSignature;
+import org.bouncycastle.openpgp.PGPSignatureList;
+import org.bouncycastle.openpgp.PGPUtil;
+import org.bouncycastle.openpgp.operator.jcajce.JcaKeyFingerprintCalculator;
+import org.bouncycastle.openpgp.operator.jcajce.JcaPGPContentVerifierBuilderProvider;
 import org.cactoos.list.ListOf;
 import org.hamcrest.Matcher;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.AllOf;
+import org.hamcrest.core.IsEqual;
 import org.hamcrest.core.IsNot;
 import org.hamcrest.core.StringContains;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 /**
  * Test for {@link GpgClearsign}.
  * @since 0.4
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 @SuppressWarnings("PMD.AvoidDuplicateLiterals")
 class GpgClearsignTest {
 
-    @Test
-    void signs() {
+    @ParameterizedTest
+    @CsvSource({
+        "secret-keys.gpg,SHA256",
+        "secret-keys-ed25519.gpg,SHA256",
+        "secret-keys-ecdsa.gpg,SHA384"
+    })
+    void signs(final String secret, final String hash) throws IOException, PGPException {
         final byte[] release = new TestResource("Release").asBytes();
         final String res = new String(
             new GpgClearsign(release)
-            .signedContent(new TestResource("secret-keys.gpg").asBytes(), "1q2w3e4r5t6y7u")
+            .signedContent(new TestResource(secret).asBytes(), "1q2w3e4r5t6y7u")
         );
         MatcherAssert.assertThat(
+            "Clearsigned content is correct",
             res,
             new AllOf<>(
                 new ListOf<Matcher<? super String>>(
                     new StringContains(new String(release)),
                     new StringContains("-----BEGIN PGP SIGNED MESSAGE-----"),
-                    new StringContains("Hash: SHA256"),
+                    new StringContains(String.format("Hash: %s", hash)),
                     new StringContains("-----BEGIN PGP SIGNATURE-----"),
                     new StringContains("-----END PGP SIGNATURE-----")
                 )
             )
         );
+        MatcherAssert.assertThat(
+            "Clearsign signature is valid",
+            GpgClearsignTest.verify(
+                res.substring(res.indexOf("-----BEGIN PGP SIGNATURE-----"))
+                    .getBytes(StandardCharsets.US_ASCII),
+                GpgClearsignTest.cleartext(release),
+                new TestResource(secret).asBytes()
+            ),
+            new IsEqual<>(true)
+        );
     }
 
-    @Test
-    void generatesSignature() {
-        final String res = new String(
-            new GpgClearsign(new TestResource("Release").asBytes())
-            .signature(new TestResource("secret-keys.gpg").asBytes(), "1q2w3e4r5t6y7u")
-        );
+    @ParameterizedTest
+    @ValueSource(strings = {"secret-keys.gpg", "secret-keys-ed25519.gpg", "secret-keys-ecdsa.gpg"})
+    void generatesSignature(final String secret) throws IOException, PGPException {
+        final byte[] release = new TestResource("Release").asBytes();
+        final byte[] sign = new GpgClearsign(release)
+            .signature(new TestResource(secret).asBytes(), "1q2w3e4r5t6y7u");
         MatcherAssert.assertThat(
-            res,
+            "Signature is armored",
+            new String(sign),
             new AllOf<>(
                 new ListOf<Matcher<? super String>>(
                     new StringContains("-----BEGIN PGP SIGNATURE-----"),
@@ -57,6 +95,76 @@ class GpgClearsignTest {
                 )
             )
         );
+        MatcherAssert.assertThat(
+            "Detached signature is valid",
+            GpgClearsignTest.verify(sign, release, new TestResource(secret).asBytes()),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void recordsMetrics() {
+        final byte[] release = new TestResource("Release").asBytes();
+        final byte[] key = new TestResource("secret-keys.gpg").asBytes();
+        final Metrics.InMemory metrics = new Metrics.InMemory();
+        final GpgClearsign gpg = new GpgClearsign(release, metrics);
+        gpg.signedContent(key, "1q2w3e4r5t6y7u");
+        gpg.signature(key, "1q2w3e4r5t6y7u");
+        MatcherAssert.assertThat(
+            "Signing time and signed bytes are recorded",
+            new long[] {
+                metrics.timer("gpg.clearsign").count(),
+                metrics.timer("gpg.signature").count(),
+                metrics.counter("gpg.signed"),
+            },
+            new IsEqual<>(new long[] {1L, 1L, 2L * release.length})
+        );
+    }
+
+    /**
+     * Verifies armored signature of the data with the public part of the signing key.
+     * @param sign Armored signature
+     * @param data Signed data
+     * @param secret Secret key ring
+     * @return True if signature is valid
+     * @throws IOException On IO error
+     * @throws PGPException On GPG error
+     */
+    private static boolean verify(final byte[] sign, final byte[] data, final byte[] secret)
+        throws IOException, PGPException {
+        final PGPSignature signature = ((PGPSignatureList) new PGPObjectFactory(
+            PGPUtil.getDecoderStream(new ByteArrayInputStream(sign)),
+            new JcaKeyFingerprintCalculator()
+        ).nextObject()).get(0);
+        final Iterator<PGPSecretKeyRing> rings = new PGPSecretKeyRingCollection(
+            PGPUtil.getDecoderStream(new ByteArrayInputStream(secret)),
+            new JcaKeyFingerprintCalculator()
+        ).getKeyRings();
+        PGPPublicKey key = null;
+        while (rings.hasNext() && key == null) {
+            final PGPSecretKey skey = rings.next().getSecretKey(signature.getKeyID());
+            if (skey != null) {
+                key = skey.getPublicKey();
+            }
+        }
+        signature.init(
+            new JcaPGPContentVerifierBuilderProvider().setProvider("BC"), key
+        );
+        signature.update(data);
+        return signature.verify();
+    }
+
+    /**
+     * Cleartext as it is signed by clearsign: trailing whitespaces are removed from every line,
+     * the last line break is not signed.
+     * @param data Data
+     * @return Signed part of the cleartext
+     */
+    private static byte[] cleartext(final byte[] data) {
+        return new String(data, StandardCharsets.UTF_8)
+            .replaceAll("[ \t]+(\r?\n|$)", "$1")
+            .replaceAll("\r?\n$", "")
+            .getBytes(StandardCharsets.UTF_8);
     }
 
 }
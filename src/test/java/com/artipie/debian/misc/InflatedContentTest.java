@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.Content;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.test.TestResource;
+import com.artipie.debian.GzArchive;
+import io.reactivex.Flowable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipParameters;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link InflatedContent}.
+ * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class InflatedContentTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 7, 512, 1_000_000})
+    void inflatesContentSplitIntoChunks(final int chunk) {
+        final byte[] packed = new TestResource("Packages.gz").asBytes();
+        MatcherAssert.assertThat(
+            InflatedContentTest.inflate(InflatedContentTest.chunks(packed, chunk)),
+            new IsEqual<>(new GzArchive().decompress(packed))
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 40, 4096})
+    void inflatesConcatenatedMembersWithFileName(final int chunk) throws IOException {
+        final ByteArrayOutputStream packed = new ByteArrayOutputStream();
+        packed.write(new GzArchive().compress("Package: aglfn\n".getBytes(StandardCharsets.UTF_8)));
+        final GzipParameters params = new GzipParameters();
+        params.setFilename("Packages");
+        params.setComment("second member");
+        try (GzipCompressorOutputStream out = new GzipCompressorOutputStream(packed, params)) {
+            out.write("Package: pspp\n".getBytes(StandardCharsets.UTF_8));
+        }
+        MatcherAssert.assertThat(
+            InflatedContentTest.inflate(InflatedContentTest.chunks(packed.toByteArray(), chunk)),
+            new IsEqual<>("Package: aglfn\nPackage: pspp\n")
+        );
+    }
+
+    @Test
+    void inflatesChunkIntoSeveralPortions() {
+        final String text = IntStream.range(0, 20_000)
+            .mapToObj(num -> String.format("Package: package-%d\n", num))
+            .collect(Collectors.joining());
+        MatcherAssert.assertThat(
+            InflatedContentTest.inflate(
+                InflatedContentTest.chunks(
+                    new GzArchive().compress(text.getBytes(StandardCharsets.UTF_8)), 1_000_000
+                )
+            ),
+            new IsEqual<>(text)
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 9, 512})
+    void ignoresTrailingPadding(final int padding) throws IOException {
+        final byte[] member = new TestResource("Packages.gz").asBytes();
+        final ByteArrayOutputStream packed = new ByteArrayOutputStream();
+        packed.write(member);
+        packed.write(new byte[padding]);
+        MatcherAssert.assertThat(
+            InflatedContentTest.inflate(InflatedContentTest.chunks(packed.toByteArray(), 5)),
+            new IsEqual<>(new GzArchive().decompress(member))
+        );
+    }
+
+    @Test
+    void failsOnTruncatedContent() {
+        final byte[] packed = new TestResource("Packages.gz").asBytes();
+        MatcherAssert.assertThat(
+            Assertions.assertThrows(
+                CompletionException.class,
+                () -> InflatedContentTest.inflate(
+                    InflatedContentTest.chunks(Arrays.copyOf(packed, packed.length - 4), 64)
+                )
+            ).getCause(),
+            new IsInstanceOf(ArtipieIOException.class)
+        );
+    }
+
+    /**
+     * Inflates content.
+     * @param packed Gz content
+     * @return Inflated content
+     */
+    private static String inflate(final Flowable<ByteBuffer> packed) {
+        return new PublisherAs(new Content.From(new InflatedContent(packed)))
+            .string(StandardCharsets.UTF_8).toCompletableFuture().join();
+    }
+
+    /**
+     * Splits bytes into chunks.
+     * @param bytes Bytes
+     * @param size Chunk size
+     * @return Chunks
+     */
+    private static Flowable<ByteBuffer> chunks(final byte[] bytes, final int size) {
+        return Flowable.fromIterable(
+            IntStream.range(0, (bytes.length + size - 1) / size).mapToObj(
+                num -> ByteBuffer.wrap(
+                    Arrays.copyOfRange(bytes, num * size, Math.min(bytes.length, (num + 1) * size))
+                )
+            ).collect(Collectors.toList())
+        );
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link ParallelGzipOutputStream}.
+ * @since 0.9
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class ParallelGzipOutputStreamTest {
+
+    /**
+     * Executor.
+     */
+    private ExecutorService exec;
+
+    @BeforeEach
+    void init() {
+        this.exec = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void stop() {
+        this.exec.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 32 * 1024, 32 * 1024 + 1, 1024 * 1024 + 7})
+    void compressesToSingleGzipMember(final int size) throws IOException {
+        final byte[] data = ParallelGzipOutputStreamTest.data(size);
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try (OutputStream gzip = new ParallelGzipOutputStream(res, this.exec, 32 * 1024, 2)) {
+            gzip.write(data, 0, data.length / 2);
+            for (int idx = data.length / 2; idx < data.length; idx = idx + 1) {
+                gzip.write(data[idx]);
+            }
+        }
+        MatcherAssert.assertThat(
+            IOUtils.toByteArray(
+                new GzipCompressorInputStream(new ByteArrayInputStream(res.toByteArray()), false)
+            ),
+            new IsEqual<>(data)
+        );
+    }
+
+    /**
+     * Compressible data: text lines mixed with random numbers.
+     * @param size Size
+     * @return Data
+     */
+    private static byte[] data(final int size) {
+        final Random rnd = new Random(size);
+        final StringBuilder str = new StringBuilder(size + 64);
+        while (str.length() < size) {
+            str.append("Package: ").append(rnd.nextInt(1000)).append('\n');
+        }
+        return str.substring(0, size).getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import com.amihaiemil.eoyaml.Yaml;
+import com.artipie.asto.FailedCompletionStage;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import com.artipie.debian.GpgConfig;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.Every;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.hamcrest.core.StringContains;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link SocketSigner} and {@link SigningAgent}.
+ * @since 0.9
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class SocketSignerTest {
+
+    @Test
+    void signsManyRequestsThroughAgent() throws IOException {
+        final Storage settings = new InMemoryStorage();
+        new TestResource("secret-keys.gpg").saveTo(settings);
+        final GpgConfig gpg = new GpgConfig.FromYaml(
+            Yaml.createYamlMappingBuilder().add("gpg_password", "1q2w3e4r5t6y7u")
+                .add("gpg_secret_key", "secret-keys.gpg").build(),
+            settings
+        );
+        final byte[] release = new TestResource("Release").asBytes();
+        try (SigningAgent agent = new SigningAgent(new Signer.Gpg(gpg))) {
+            try (SocketSigner signer = new SocketSigner("localhost", agent.start())) {
+                final List<CompletableFuture<byte[]>> res = IntStream.range(0, 10).mapToObj(
+                    num -> {
+                        final CompletionStage<byte[]> sign;
+                        if (num % 2 == 0) {
+                            sign = signer.signature(release);
+                        } else {
+                            sign = signer.signedContent(release);
+                        }
+                        return sign.toCompletableFuture();
+                    }
+                ).collect(Collectors.toList());
+                MatcherAssert.assertThat(
+                    "Detached signatures were generated",
+                    IntStream.range(0, 10).filter(num -> num % 2 == 0)
+                        .mapToObj(num -> new String(res.get(num).join()))
+                        .collect(Collectors.toList()),
+                    new Every<>(new StringContains("-----BEGIN PGP SIGNATURE-----"))
+                );
+                MatcherAssert.assertThat(
+                    "Content was clearsigned",
+                    IntStream.range(0, 10).filter(num -> num % 2 == 1)
+                        .mapToObj(num -> new String(res.get(num).join()))
+                        .collect(Collectors.toList()),
+                    new Every<>(new StringContains("-----BEGIN PGP SIGNED MESSAGE-----"))
+                );
+            }
+        }
+    }
+
+    @Test
+    void returnsSigningError() throws IOException {
+        try (SigningAgent agent = new SigningAgent(new FailingSigner())) {
+            try (SocketSigner signer = new SocketSigner("localhost", agent.start())) {
+                final CompletableFuture<byte[]> res = signer
+                    .signature("abc".getBytes(StandardCharsets.UTF_8)).toCompletableFuture();
+                MatcherAssert.assertThat(
+                    Assertions.assertThrows(CompletionException.class, res::join)
+                        .getCause().getMessage(),
+                    new IsEqual<>("Key is not available")
+                );
+                MatcherAssert.assertThat(
+                    "Connection is still usable",
+                    new String(
+                        signer.signedContent("xyz".getBytes(StandardCharsets.UTF_8))
+                            .toCompletableFuture().join(),
+                        StandardCharsets.UTF_8
+                    ),
+                    new IsEqual<>("xyz")
+                );
+            }
+        }
+    }
+
+    @Test
+    void failsOnHungAgent() throws IOException {
+        try (ServerSocket agent = new ServerSocket(0)) {
+            try (SocketSigner signer = new SocketSigner(
+                InetSocketAddress.createUnresolved("localhost", agent.getLocalPort()), 100
+            )) {
+                MatcherAssert.assertThat(
+                    Assertions.assertThrows(
+                        CompletionException.class,
+                        () -> signer.signature("abc".getBytes(StandardCharsets.UTF_8))
+                            .toCompletableFuture().join()
+                    ).getCause().getCause(),
+                    new IsInstanceOf(SocketTimeoutException.class)
+                );
+            }
+        }
+    }
+
+    @Test
+    void returnsFailedStageWhenClosed() {
+        final SocketSigner signer = new SocketSigner("localhost", 1);
+        signer.close();
+        final CompletionStage<byte[]> res = signer.signature(new byte[] {1});
+        MatcherAssert.assertThat(
+            Assertions.assertThrows(
+                CompletionException.class, () -> res.toCompletableFuture().join()
+            ).getCause(),
+            new IsInstanceOf(RejectedExecutionException.class)
+        );
+    }
+
+    /**
+     * Signer which fails to generate detached signature and returns content as is on clearsign.
+     * @since 0.9
+     */
+    private static final class FailingSigner implements Signer {
+
+        @Override
+        public CompletionStage<byte[]> signature(final byte[] content) {
+            return new FailedCompletionStage<>(new IllegalStateException("Key is not available"));
+        }
+
+        @Override
+        public CompletionStage<byte[]> signedContent(final byte[] content) {
+            return CompletableFuture.completedFuture(content);
+        }
+    }
+}
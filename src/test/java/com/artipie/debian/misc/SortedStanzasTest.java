@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link SortedStanzas}.
+ * @since 0.9
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class SortedStanzasTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 200, Long.MAX_VALUE})
+    void writesSortedUniqueStanzas(final long budget) throws IOException {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try (SortedStanzas sorted = new SortedStanzas(budget)) {
+            new Stanzas(
+                new ByteArrayInputStream(
+                    String.join(
+                        "\n\n",
+                        "Package: b\nVersion: 1\nSize: 1",
+                        "Package: a\nVersion: 2",
+                        "Package: b\nVersion: 1\nSize: 2",
+                        "Package: a-b\nVersion: 1",
+                        "Package: a\nVersion: 10",
+                        "Package: a\nVersion: 2\nSize: 3"
+                    ).getBytes(StandardCharsets.UTF_8)
+                )
+            ).read(sorted::add);
+            sorted.writeTo(res);
+            MatcherAssert.assertThat(
+                "Spills when memory budget is exceeded",
+                sorted.spilled() > 0,
+                new IsEqual<>(budget < Long.MAX_VALUE)
+            );
+        }
+        MatcherAssert.assertThat(
+            new String(res.toByteArray(), StandardCharsets.UTF_8),
+            new IsEqual<>(
+                String.join(
+                    "\n\n",
+                    "Package: a\nVersion: 10",
+                    "Package: a\nVersion: 2",
+                    "Package: a-b\nVersion: 1",
+                    "Package: b\nVersion: 1\nSize: 1",
+                    ""
+                )
+            )
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 7})
+    void mergesRunsInSeveralPasses(final int fanin) throws IOException {
+        final byte[] input = IntStream.range(0, 100).mapToObj(
+            num -> String.format("Package: p%d\nVersion: 1\nSize: %d", num % 37, num)
+        ).collect(Collectors.joining("\n\n")).getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try (SortedStanzas sorted = new SortedStanzas(1, fanin)) {
+            new Stanzas(new ByteArrayInputStream(input)).read(sorted::add);
+            sorted.writeTo(res);
+        }
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        try (SortedStanzas sorted = new SortedStanzas(Long.MAX_VALUE)) {
+            new Stanzas(new ByteArrayInputStream(input)).read(sorted::add);
+            sorted.writeTo(expected);
+        }
+        MatcherAssert.assertThat(
+            new String(res.toByteArray(), StandardCharsets.UTF_8),
+            new IsEqual<>(new String(expected.toByteArray(), StandardCharsets.UTF_8))
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, Long.MAX_VALUE})
+    void writesNothingForEmptyInput(final long budget) throws IOException {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try (SortedStanzas sorted = new SortedStanzas(budget)) {
+            sorted.writeTo(res);
+        }
+        MatcherAssert.assertThat(res.size(), new IsEqual<>(0));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsNot;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link Stanzas}.
+ * @since 0.9
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class StanzasTest {
+
+    @Test
+    void readsStanzasSkippingEmptyLines() throws IOException {
+        final List<String> res = new ArrayList<>(3);
+        new Stanzas(
+            StanzasTest.stream("\n\nPackage: abc\nVersion: 1\n\n\n\nPackage: xyz\r\n\r\nPackage: z")
+        ).read(stanza -> res.add(new String(stanza.bytes(), StandardCharsets.UTF_8)));
+        MatcherAssert.assertThat(
+            res,
+            new IsEqual<>(
+                new ListOf<>(
+                    "Package: abc\nVersion: 1\n\n", "Package: xyz\r\n\n", "Package: z\n\n"
+                )
+            )
+        );
+    }
+
+    @Test
+    void readsStanzaLargerThanBuffer() throws IOException {
+        final String large = String.format(
+            "Package: big\nDescription: %s\n", StringUtils.repeat('a', 200_000)
+        );
+        final List<String> res = new ArrayList<>(2);
+        new Stanzas(StanzasTest.stream(String.join("\n", large, large)))
+            .read(stanza -> res.add(new String(stanza.bytes(), StandardCharsets.UTF_8)));
+        MatcherAssert.assertThat(
+            res,
+            new IsEqual<>(new ListOf<>(large.concat("\n"), large.concat("\n")))
+        );
+    }
+
+    @Test
+    void hashesPackageAndVersionOnly() throws IOException {
+        final List<String> keys = new ArrayList<>(4);
+        new Stanzas(
+            StanzasTest.stream(
+                String.join(
+                    "\n\n",
+                    "Package: abc\nVersion: 0.1\nSize: 1",
+                    "Size: 2\nVersion:   0.1 \nPackage:abc",
+                    "Package: abc\nVersion: 0.2",
+                    "Package: abc0.\nVersion: 2"
+                )
+            )
+        ).read(stanza -> keys.add(String.format("%x-%x", stanza.high(), stanza.low())));
+        MatcherAssert.assertThat(
+            "Same package and version have the same key",
+            keys.get(1),
+            new IsEqual<>(keys.get(0))
+        );
+        MatcherAssert.assertThat(
+            "Different version has different key",
+            keys.get(2),
+            new IsNot<>(new IsEqual<>(keys.get(0)))
+        );
+        MatcherAssert.assertThat(
+            "Same concatenation of package and version has different key",
+            keys.get(3),
+            new IsNot<>(new IsEqual<>(keys.get(2)))
+        );
+    }
+
+    private static ByteArrayInputStream stream(final String str) {
+        return new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8));
+    }
+}
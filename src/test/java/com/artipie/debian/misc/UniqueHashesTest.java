@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.misc;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link UniqueHashes}.
+ * @since 0.9
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class UniqueHashesTest {
+
+    @Test
+    void addsOnlyNewHashes() {
+        final UniqueHashes hashes = new UniqueHashes();
+        int added = 0;
+        for (int round = 0; round < 2; round = round + 1) {
+            for (long idx = 0; idx < 10_000; idx = idx + 1) {
+                if (hashes.add(idx % 7, idx * 1_000_003)) {
+                    added = added + 1;
+                }
+            }
+        }
+        MatcherAssert.assertThat(
+            "Each hash is added once",
+            added,
+            new IsEqual<>(10_000)
+        );
+        MatcherAssert.assertThat(
+            "Size is correct",
+            hashes.size(),
+            new IsEqual<>(10_000)
+        );
+    }
+
+    @Test
+    void addsZeroHash() {
+        final UniqueHashes hashes = new UniqueHashes();
+        MatcherAssert.assertThat(
+            "Zero hash is added",
+            hashes.add(0, 0),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Zero hash is not added twice",
+            hashes.add(0, 0),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void checksPresence() {
+        final UniqueHashes hashes = new UniqueHashes(100_000);
+        for (long idx = 0; idx < 100_000; idx = idx + 2) {
+            hashes.add(idx, -idx);
+        }
+        int found = 0;
+        for (long idx = 0; idx < 100_000; idx = idx + 1) {
+            if (hashes.contains(idx, -idx)) {
+                found = found + 1;
+            }
+        }
+        MatcherAssert.assertThat(
+            "Only added hashes are found",
+            found,
+            new IsEqual<>(50_000)
+        );
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/debian-adapter/LICENSE.txt
+ */
+package com.artipie.debian.tracing;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link Trace}.
+ * @since 0.9
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class TraceTest {
+
+    @Test
+    void nestsSpansAcrossStages() {
+        final Exporter.InMemory exporter = new Exporter.InMemory();
+        final Trace trace = new Trace(exporter);
+        trace.span(
+            "parent",
+            nested -> CompletableFuture.supplyAsync(() -> 1).thenCompose(
+                num -> nested.span(
+                    "child", inner -> CompletableFuture.completedFuture(num + 1)
+                )
+            )
+        ).toCompletableFuture().join();
+        final Span parent = exporter.spans("parent").get(0);
+        final Span child = exporter.spans("child").get(0);
+        MatcherAssert.assertThat(
+            "Parent span is the root of the trace",
+            parent.parent(),
+            new IsEqual<>(Optional.empty())
+        );
+        MatcherAssert.assertThat(
+            "Child span is nested into the parent",
+            child.parent(),
+            new IsEqual<>(Optional.of(parent.identifier()))
+        );
+        MatcherAssert.assertThat(
+            "Spans belong to the same trace",
+            new String[] {parent.trace(), child.trace()},
+            new IsEqual<>(new String[] {trace.identifier(), trace.identifier()})
+        );
+        MatcherAssert.assertThat(
+            "Child span is exported before the parent",
+            exporter.spans().get(0),
+            new IsEqual<>(child)
+        );
+    }
+
+    @Test
+    void marksFailedSpans() {
+        final Exporter.InMemory exporter = new Exporter.InMemory();
+        final Trace trace = new Trace(exporter);
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> trace.span(
+                "failed",
+                nested -> {
+                    throw new IllegalStateException("Stage can not be started");
+                }
+            ).toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            "Span is exported as failed",
+            exporter.spans("failed").get(0).failed(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void tracesStorageOperations() {
+        final Exporter.InMemory exporter = new Exporter.InMemory();
+        final Key key = new Key.From("one.txt");
+        new Trace(exporter).span(
+            "stage",
+            nested -> {
+                final TracedStorage asto = new TracedStorage(new InMemoryStorage(), nested);
+                return asto.save(key, Content.EMPTY).thenCompose(nothing -> asto.exists(key));
+            }
+        ).toCompletableFuture().join();
+        final String stage = exporter.spans("stage").get(0).identifier();
+        MatcherAssert.assertThat(
+            "Storage operations are nested into the stage",
+            new Object[] {
+                exporter.spans("storage.save").get(0).parent(),
+                exporter.spans("storage.exists").get(0).parent(),
+            },
+            new IsEqual<>(new Object[] {Optional.of(stage), Optional.of(stage)})
+        );
+    }
+}